@@ -0,0 +1,268 @@
+package com.springmart.repository;
+
+import com.springmart.dto.CreateOrderRequest;
+import com.springmart.entity.CartItem;
+import com.springmart.entity.Category;
+import com.springmart.entity.Product;
+import com.springmart.entity.User;
+import com.springmart.exception.InsufficientStockException;
+import com.springmart.inventory.InventoryReservationService;
+import com.springmart.outbox.OutboxService;
+import com.springmart.service.CartService;
+import com.springmart.service.OrderService;
+import com.springmart.service.PromoCodeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hundreds of overlapping multi-product checkouts race on a few products, each in its own committed
+ * transaction: once straight through {@link ProductRepositoryCustom#decrementStock}, and once as real
+ * orders through {@link OrderService#createOrderFromCart}. None may deadlock or fail, no product may
+ * go negative, and every product must end at its starting stock minus exactly what the successful
+ * checkouts took. The order run logs its throughput.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(OrderService.class)
+class StockDecrementConcurrencyTest {
+
+    private static final Logger log = LoggerFactory.getLogger(StockDecrementConcurrencyTest.class);
+
+    private static final int PRODUCTS = 5;
+    private static final int INITIAL_STOCK = 100;
+    private static final int CHECKOUTS = 400;
+    private static final int THREADS = 64;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> "32");
+    }
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private CartItemRepository cartItemRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Collaborators outside the stock path; the reservation engine mock reports itself disabled
+    @MockBean
+    private CartService cartService;
+    @MockBean
+    private PromoCodeService promoCodeService;
+    @MockBean
+    private InventoryReservationService inventoryReservationService;
+    @MockBean
+    private OutboxService outboxService;
+
+    private TransactionTemplate transactionTemplate;
+    private final List<Long> productIds = new ArrayList<>();
+    // Both tests commit their fixtures, so unique columns get a per-run suffix
+    private final String run = UUID.randomUUID().toString().substring(0, 8);
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            User seller = userRepository.save(User.builder()
+                    .email("stock-race-" + run + "@springmart.test")
+                    .name("Stock Race Seller")
+                    .build());
+            Category category = categoryRepository.save(Category.builder()
+                    .name("Stock Race " + run)
+                    .slug("stock-race-" + run)
+                    .build());
+            for (int i = 0; i < PRODUCTS; i++) {
+                productIds.add(productRepository.save(Product.builder()
+                        .name("Stock race product " + i)
+                        .price(BigDecimal.TEN)
+                        .stockQuantity(INITIAL_STOCK)
+                        .category(category)
+                        .seller(seller)
+                        .sku("RACE-" + run + "-" + i)
+                        .slug("stock-race-product-" + run + "-" + i)
+                        .build()).getId());
+            }
+        });
+    }
+
+    @Test
+    void parallelCheckoutsNeitherDeadlockNorOversell() throws Exception {
+        Map<Long, AtomicInteger> taken = new ConcurrentHashMap<>();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> checkouts = new ArrayList<>();
+            for (int i = 0; i < CHECKOUTS; i++) {
+                Map<Long, Integer> order = randomOrder();
+                checkouts.add(executor.submit(() -> {
+                    start.await();
+                    boolean complete = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                        if (productRepository.decrementStock(order).size() < order.size()) {
+                            status.setRollbackOnly();
+                            return false;
+                        }
+                        return true;
+                    }));
+                    if (complete) {
+                        succeeded.incrementAndGet();
+                        order.forEach((id, quantity) ->
+                                taken.computeIfAbsent(id, key -> new AtomicInteger()).addAndGet(quantity));
+                    } else {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            // get() rethrows any failure, including a deadlock detected by Postgres
+            for (Future<?> checkout : checkouts) {
+                checkout.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertStockTakenExactly(taken, succeeded.get(), rejected.get());
+    }
+
+    @Test
+    void parallelOrdersThroughTheOrderServiceNeitherDeadlockNorOversell() throws Exception {
+        Map<Long, Map<Long, Integer>> carts = new HashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < CHECKOUTS; i++) {
+                User buyer = userRepository.save(User.builder()
+                        .email("buyer-" + i + "-" + run + "@springmart.test")
+                        .name("Buyer " + i)
+                        .build());
+                Map<Long, Integer> order = randomOrder();
+                order.forEach((productId, quantity) -> cartItemRepository.save(CartItem.builder()
+                        .user(buyer)
+                        .product(productRepository.getReferenceById(productId))
+                        .quantity(quantity)
+                        .build()));
+                carts.put(buyer.getId(), order);
+            }
+        });
+        long ordersBefore = orderRepository.count();
+
+        Map<Long, AtomicInteger> taken = new ConcurrentHashMap<>();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long elapsedNanos;
+        try {
+            List<Future<?>> checkouts = new ArrayList<>();
+            carts.forEach((buyerId, order) -> checkouts.add(executor.submit(() -> {
+                start.await();
+                try {
+                    orderService.createOrderFromCart(buyerId, shippingTo(buyerId));
+                    succeeded.incrementAndGet();
+                    order.forEach((id, quantity) ->
+                            taken.computeIfAbsent(id, key -> new AtomicInteger()).addAndGet(quantity));
+                } catch (InsufficientStockException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            })));
+            long startedAt = System.nanoTime();
+            start.countDown();
+            for (Future<?> checkout : checkouts) {
+                checkout.get(2, TimeUnit.MINUTES);
+            }
+            elapsedNanos = System.nanoTime() - startedAt;
+        } finally {
+            executor.shutdownNow();
+        }
+
+        log.info("{} orders ({} placed, {} short of stock) through OrderService on {} threads in {} ms: {} orders/s",
+                CHECKOUTS, succeeded.get(), rejected.get(), THREADS, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                Math.round(CHECKOUTS / (elapsedNanos / 1e9)));
+        assertThat(orderRepository.count() - ordersBefore).isEqualTo(succeeded.get());
+        assertStockTakenExactly(taken, succeeded.get(), rejected.get());
+    }
+
+    private void assertStockTakenExactly(Map<Long, AtomicInteger> taken, int succeeded, int rejected) {
+        assertThat(succeeded + rejected).isEqualTo(CHECKOUTS);
+        // Demand is well above supply, so the stock check must have turned orders away
+        assertThat(rejected).isPositive();
+        for (Long id : productIds) {
+            int expected = INITIAL_STOCK - taken.getOrDefault(id, new AtomicInteger()).get();
+            assertThat(expected).isNotNegative();
+            assertThat(productRepository.findStockQuantityById(id)).contains(expected);
+        }
+    }
+
+    private static CreateOrderRequest shippingTo(Long buyerId) {
+        return CreateOrderRequest.builder()
+                .shippingAddress(buyerId + " Checkout Lane")
+                .shippingCity("Springfield")
+                .shippingState("IL")
+                .shippingZip("62701")
+                .shippingCountry("US")
+                .build();
+    }
+
+    // One to three distinct products of one or two units each, in no particular order
+    private Map<Long, Integer> randomOrder() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Map<Long, Integer> order = new HashMap<>();
+        int lines = random.nextInt(1, 4);
+        while (order.size() < lines) {
+            order.put(productIds.get(random.nextInt(PRODUCTS)), random.nextInt(1, 3));
+        }
+        return order;
+    }
+}
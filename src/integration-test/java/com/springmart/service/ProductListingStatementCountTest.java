@@ -0,0 +1,203 @@
+package com.springmart.service;
+
+import com.springmart.cache.CatalogVersions;
+import com.springmart.cache.TwoLevelCacheManager;
+import com.springmart.dto.ProductFilterRequest;
+import com.springmart.entity.Category;
+import com.springmart.entity.Product;
+import com.springmart.entity.ProductImage;
+import com.springmart.entity.User;
+import com.springmart.recommendation.CoPurchaseModel;
+import com.springmart.recommendation.ContentSimilarityIndex;
+import com.springmart.recommendation.TrendingEngine;
+import com.springmart.search.ProductFacetIndex;
+import com.springmart.search.ProductSearchIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the statements each product listing prepares, with Hibernate statistics, against the real
+ * schema. A listing must cost the same whatever its page size: one select with the card's to-one
+ * associations joined in, plus the count query for paged listings. Any lazy load per product
+ * (category, seller, images) shows up as a count that grows with the page.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(ProductService.class)
+class ProductListingStatementCountTest {
+
+    private static final int PRODUCTS = 30;
+    private static final int SMALL_PAGE = 5;
+    private static final int LARGE_PAGE = 20;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @MockBean
+    private ProductSearchIndex productSearchIndex;
+    @MockBean
+    private ProductFacetIndex productFacetIndex;
+    @MockBean
+    private CategoryDirectory categoryDirectory;
+    @MockBean
+    private TrendingEngine trendingEngine;
+    @MockBean
+    private CoPurchaseModel coPurchaseModel;
+    @MockBean
+    private ContentSimilarityIndex contentSimilarityIndex;
+    @MockBean
+    private ProductBatchLoader productBatchLoader;
+    @MockBean
+    private TwoLevelCacheManager cacheManager;
+    // Referenced by the productLists cache keys; caching itself is a no-op in this slice
+    @MockBean(name = "catalogVersions")
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long categoryId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        User seller = entityManager.persist(User.builder()
+                .email("statements@springmart.test")
+                .name("Statement Seller")
+                .build());
+        Category category = entityManager.persist(Category.builder()
+                .name("Statement Counting")
+                .slug("statement-counting")
+                .build());
+        categoryId = category.getId();
+
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = Product.builder()
+                    .name("Statementcount widget " + i)
+                    .description("Fixture product for statement counting")
+                    .price(BigDecimal.valueOf(10 + i))
+                    .stockQuantity(5)
+                    .category(category)
+                    .seller(seller)
+                    .sku("STMT-" + i)
+                    .slug("statementcount-widget-" + i)
+                    .isFeatured(true)
+                    .discountPercentage(10)
+                    .build();
+            for (int image = 0; image < 2; image++) {
+                product.addImage(ProductImage.builder()
+                        .imageUrl("https://img.springmart.test/" + i + "/" + image + ".jpg")
+                        .isPrimary(image == 0)
+                        .displayOrder(image)
+                        .build());
+            }
+            entityManager.persist(product);
+        }
+        entityManager.flush();
+    }
+
+    @Test
+    void allActiveProductsIsOneSelectPlusCount() {
+        assertStatements(2, size -> productService.getAllActiveProducts(PageRequest.of(0, size)).getContent());
+    }
+
+    @Test
+    void productsByCategoryIsOneSelectPlusCount() {
+        assertStatements(2, size -> productService.getProductsByCategory(categoryId, PageRequest.of(0, size))
+                .getContent());
+    }
+
+    @Test
+    void filteredProductsIsOneSelectPlusCount() {
+        assertStatements(2, size -> productService.getFilteredProducts(filter(size)).getContent());
+    }
+
+    @Test
+    void scrollIsOneSelect() {
+        assertStatements(1, size -> productService.scrollFilteredProducts(filter(size)).getContent());
+    }
+
+    @Test
+    void searchIsRankPlusCountPlusHydration() {
+        assertStatements(3, size -> productService.searchProducts("statementcount", filter(size),
+                PageRequest.of(0, size)).getContent());
+    }
+
+    @Test
+    void latestProductsIsOneSelect() {
+        assertStatements(1, productService::getLatestProducts);
+    }
+
+    @Test
+    void topRatedProductsIsOneSelect() {
+        assertStatements(1, productService::getTopRatedProducts);
+    }
+
+    @Test
+    void featuredProductsIsOneSelect() {
+        assertStatements(1, productService::getFeaturedProducts);
+    }
+
+    @Test
+    void flashDealsIsOneSelect() {
+        assertStatements(1, productService::getFlashDeals);
+    }
+
+    private ProductFilterRequest filter(int size) {
+        ProductFilterRequest filter = new ProductFilterRequest();
+        filter.setCategoryIds(List.of(categoryId));
+        filter.setSize(size);
+        return filter;
+    }
+
+    @FunctionalInterface
+    private interface Listing {
+        List<?> load(int size);
+    }
+
+    private void assertStatements(long expected, Listing listing) {
+        for (int size : new int[]{SMALL_PAGE, LARGE_PAGE}) {
+            entityManager.clear();
+            statistics.clear();
+            List<?> content = listing.load(size);
+            assertThat(content).as("page of %d", size).hasSize(size);
+            assertThat(statistics.getPrepareStatementCount())
+                    .as("statements for a page of %d", size)
+                    .isEqualTo(expected);
+        }
+    }
+}
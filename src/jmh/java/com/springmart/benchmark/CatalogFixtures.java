@@ -0,0 +1,237 @@
+package com.springmart.benchmark;
+
+import com.springmart.entity.*;
+import com.springmart.enums.DiscountType;
+import com.springmart.enums.OrderStatus;
+import org.mockito.Answers;
+import org.mockito.Mockito;
+
+import java.lang.reflect.Constructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Builds synthetic, fully linked entity graphs for the JMH benchmarks.
+ * Generation is seeded so every run sees the same catalog for a given size.
+ */
+public final class CatalogFixtures {
+
+    private static final long SEED = 42L;
+    private static final int CATEGORY_COUNT = 20;
+    private static final int SELLER_COUNT = 100;
+    private static final int REVIEWER_COUNT = 1_000;
+    private static final int MAX_IMAGES = 4;
+    private static final int MAX_REVIEWS = 8;
+    private static final int MAX_ORDER_ITEMS = 5;
+
+    private static final String[] DESCRIPTIONS = {
+            "Lightweight and durable, designed for everyday use.",
+            "Premium build quality with a two year warranty.",
+            "Best seller in its category with thousands of happy customers.",
+            "Compact design that fits anywhere, now with improved battery life.",
+            "Eco-friendly materials and recyclable packaging."
+    };
+
+    private CatalogFixtures() {
+    }
+
+    /**
+     * Creates {@code size} active products, each with 1-4 images and 0-8 reviews.
+     */
+    public static List<Product> products(int size) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Category> categories = new ArrayList<>(CATEGORY_COUNT);
+        for (int i = 0; i < CATEGORY_COUNT; i++) {
+            categories.add(Category.builder()
+                    .id((long) i + 1)
+                    .name("Category " + i)
+                    .slug("category-" + i)
+                    .build());
+        }
+
+        List<User> sellers = users(SELLER_COUNT, "seller", 1);
+        List<User> reviewers = users(REVIEWER_COUNT, "reviewer", SELLER_COUNT + 1);
+
+        List<Product> products = new ArrayList<>(size);
+        long imageId = 1;
+        long reviewId = 1;
+        for (int i = 0; i < size; i++) {
+            Product product = Product.builder()
+                    .id((long) i + 1)
+                    .name("Product " + i)
+                    .description(DESCRIPTIONS[i % DESCRIPTIONS.length])
+                    .price(BigDecimal.valueOf(random.nextInt(100, 100_000), 2))
+                    .stockQuantity(random.nextInt(0, 500))
+                    .category(categories.get(random.nextInt(CATEGORY_COUNT)))
+                    .seller(sellers.get(random.nextInt(SELLER_COUNT)))
+                    .sku("SKU-" + i)
+                    .slug("product-" + i)
+                    .isActive(true)
+                    .isFeatured(random.nextInt(20) == 0)
+                    .discountPercentage(random.nextInt(4) == 0 ? random.nextInt(5, 50) : 0)
+                    .createdAt(now.minusMinutes(i))
+                    .updatedAt(now)
+                    .build();
+
+            int imageCount = random.nextInt(1, MAX_IMAGES + 1);
+            int primary = random.nextInt(imageCount);
+            for (int j = 0; j < imageCount; j++) {
+                product.addImage(ProductImage.builder()
+                        .id(imageId++)
+                        .imageUrl("/images/products/" + i + "-" + j + ".jpg")
+                        .isPrimary(j == primary)
+                        .displayOrder(j)
+                        .build());
+            }
+
+            int reviewCount = random.nextInt(MAX_REVIEWS + 1);
+            long ratingSum = 0;
+            for (int j = 0; j < reviewCount; j++) {
+                int rating = random.nextInt(1, 6);
+                ratingSum += rating;
+                product.addReview(Review.builder()
+                        .id(reviewId++)
+                        .user(reviewers.get(random.nextInt(REVIEWER_COUNT)))
+                        .rating(rating)
+                        .build());
+            }
+            product.setRatingSum(ratingSum);
+            product.setReviewCount(reviewCount);
+            product.setAverageRating(reviewCount == 0 ? 0.0 : (double) ratingSum / reviewCount);
+
+            products.add(product);
+        }
+        return products;
+    }
+
+    /**
+     * Creates {@code count} orders whose items reference random products of the given catalog.
+     */
+    public static List<Order> orders(List<Product> catalog, int count) {
+        SplittableRandom random = new SplittableRandom(SEED + 1);
+        LocalDateTime now = LocalDateTime.now();
+        List<User> customers = users(REVIEWER_COUNT, "customer", SELLER_COUNT + REVIEWER_COUNT + 1);
+
+        List<Order> orders = new ArrayList<>(count);
+        long itemId = 1;
+        for (int i = 0; i < count; i++) {
+            Order order = Order.builder()
+                    .id((long) i + 1)
+                    .orderNumber("ORD-BENCH-" + i)
+                    .user(customers.get(random.nextInt(customers.size())))
+                    .status(OrderStatus.PENDING)
+                    .shippingAddress("1 Benchmark Way")
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build();
+
+            BigDecimal total = BigDecimal.ZERO;
+            int itemCount = random.nextInt(1, MAX_ORDER_ITEMS + 1);
+            for (int j = 0; j < itemCount; j++) {
+                Product product = catalog.get(random.nextInt(catalog.size()));
+                int quantity = random.nextInt(1, 4);
+                order.addItem(OrderItem.builder()
+                        .id(itemId++)
+                        .product(product)
+                        .quantity(quantity)
+                        .price(product.getPrice())
+                        .build());
+                total = total.add(product.getPrice().multiply(BigDecimal.valueOf(quantity)));
+            }
+            order.setTotalAmount(total);
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    public static PromoCode percentagePromo() {
+        return PromoCode.builder()
+                .code("BENCH10")
+                .discountType(DiscountType.PERCENTAGE)
+                .discountValue(BigDecimal.valueOf(10))
+                .maxDiscountAmount(BigDecimal.valueOf(50))
+                .build();
+    }
+
+    public static PromoCode fixedPromo() {
+        return PromoCode.builder()
+                .code("BENCH5OFF")
+                .discountType(DiscountType.FIXED_AMOUNT)
+                .discountValue(BigDecimal.valueOf(5))
+                .build();
+    }
+
+    /**
+     * Instantiates a constructor-injected service with a Mockito stub for every collaborator and
+     * zero, false or "" for setting parameters. The stubs throw on any call, so a benchmark that
+     * strays into a repository or client path fails instead of measuring a made-up answer.
+     */
+    public static <T> T serviceWithStubs(Class<T> type) {
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructors()[0];
+            Class<?>[] parameterTypes = constructor.getParameterTypes();
+            Object[] arguments = new Object[parameterTypes.length];
+            for (int i = 0; i < parameterTypes.length; i++) {
+                arguments[i] = stubArgument(parameterTypes[i]);
+            }
+            constructor.setAccessible(true);
+            return type.cast(constructor.newInstance(arguments));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot instantiate " + type.getName(), e);
+        }
+    }
+
+    /**
+     * Pre-computed random visiting order so the benchmark loop does not pay for an RNG call.
+     */
+    public static int[] accessPattern(int size) {
+        SplittableRandom random = new SplittableRandom(SEED + 2);
+        int[] pattern = new int[1 << 16];
+        for (int i = 0; i < pattern.length; i++) {
+            pattern[i] = random.nextInt(size);
+        }
+        return pattern;
+    }
+
+    private static Object stubArgument(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == double.class) {
+            return 0.0;
+        }
+        if (type == String.class) {
+            return "";
+        }
+        return Mockito.mock(type, invocation -> {
+            if (invocation.getMethod().getDeclaringClass() == Object.class) {
+                return Answers.RETURNS_DEFAULTS.answer(invocation);
+            }
+            throw new UnsupportedOperationException(
+                    "Benchmark stub called: " + type.getSimpleName() + "." + invocation.getMethod().getName());
+        });
+    }
+
+    private static List<User> users(int count, String prefix, long firstId) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(User.builder()
+                    .id(firstId + i)
+                    .email(prefix + i + "@bench.springmart.com")
+                    .name(prefix + " " + i)
+                    .build());
+        }
+        return users;
+    }
+}
@@ -0,0 +1,113 @@
+package com.springmart.service;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.springmart.benchmark.CatalogFixtures;
+import com.springmart.cache.CacheCodec;
+import com.springmart.cache.VersionedCacheSerializer;
+import com.springmart.dto.ProductDTO;
+import com.springmart.entity.Product;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode cost of cached product values per Redis codec: the untyped JSON serializer the
+ * caches used before ({@code generic-json}) against the typed, versioned JSON and Smile codecs.
+ * Run with {@code ./gradlew jmh -Pjmh.include=CacheCodec}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheCodecBenchmark {
+
+    private static final int SAMPLE_SIZE = 1024;
+    private static final int LIST_SIZE = 12;
+
+    @Param({ "generic-json", "json", "smile" })
+    private String codec;
+
+    // "product" = one products/productSlugs entry, "list" = a 12-item productLists entry
+    @Param({ "product", "list" })
+    private String shape;
+
+    private RedisSerializer<Object> serializer;
+    private Object[] values;
+    private byte[][] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ProductService productService = CatalogFixtures.serviceWithStubs(ProductService.class);
+        List<ProductDTO> dtos = new ArrayList<>(SAMPLE_SIZE);
+        for (Product product : CatalogFixtures.products(SAMPLE_SIZE)) {
+            dtos.add(productService.convertToDTO(product));
+        }
+
+        boolean list = "list".equals(shape);
+        TypeFactory typeFactory = TypeFactory.defaultInstance();
+        JavaType valueType = list
+                ? typeFactory.constructCollectionType(List.class, ProductDTO.class)
+                : typeFactory.constructType(ProductDTO.class);
+        serializer = newSerializer(codec, valueType);
+
+        values = new Object[SAMPLE_SIZE];
+        encoded = new byte[SAMPLE_SIZE][];
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            values[i] = list ? window(dtos, i) : dtos.get(i);
+            encoded[i] = serializer.serialize(values[i]);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int position;
+
+        int next() {
+            position = (position + 1) & (SAMPLE_SIZE - 1);
+            return position;
+        }
+    }
+
+    @Benchmark
+    public byte[] encode(Cursor cursor) {
+        return serializer.serialize(values[cursor.next()]);
+    }
+
+    @Benchmark
+    public Object decode(Cursor cursor) {
+        return serializer.deserialize(encoded[cursor.next()]);
+    }
+
+    private static List<ProductDTO> window(List<ProductDTO> dtos, int start) {
+        List<ProductDTO> window = new ArrayList<>(LIST_SIZE);
+        for (int i = 0; i < LIST_SIZE; i++) {
+            window.add(dtos.get((start + i) % dtos.size()));
+        }
+        return window;
+    }
+
+    private static RedisSerializer<Object> newSerializer(String codec, JavaType valueType) {
+        switch (codec) {
+            case "json":
+                return new VersionedCacheSerializer(CacheCodec.JSON, valueType);
+            case "smile":
+                return new VersionedCacheSerializer(CacheCodec.SMILE, valueType);
+            default:
+                // Same setup CacheConfig uses for caches without a registered value type
+                ObjectMapper objectMapper = new ObjectMapper();
+                objectMapper.registerModule(new JavaTimeModule());
+                objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+                return new GenericJackson2JsonRedisSerializer(objectMapper);
+        }
+    }
+}
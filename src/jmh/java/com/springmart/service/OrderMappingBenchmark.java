@@ -0,0 +1,73 @@
+package com.springmart.service;
+
+import com.springmart.benchmark.CatalogFixtures;
+import com.springmart.dto.OrderDTO;
+import com.springmart.entity.Order;
+import com.springmart.entity.PromoCode;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-order CPU and allocation cost of order DTO mapping and promo code pricing.
+ * Run with {@code ./gradlew jmh -Pjmh.include=OrderMapping}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderMappingBenchmark {
+
+    private static final int ORDER_COUNT = 10_000;
+
+    @Param({ "1000", "100000", "1000000" })
+    private int catalogSize;
+
+    private List<Order> orders;
+    private int[] accessPattern;
+    private OrderService orderService;
+    private PromoCodeService promoCodeService;
+    private PromoCode percentagePromo;
+    private PromoCode fixedPromo;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        orders = CatalogFixtures.orders(CatalogFixtures.products(catalogSize), ORDER_COUNT);
+        accessPattern = CatalogFixtures.accessPattern(ORDER_COUNT);
+        orderService = CatalogFixtures.serviceWithStubs(OrderService.class);
+        promoCodeService = CatalogFixtures.serviceWithStubs(PromoCodeService.class);
+        percentagePromo = CatalogFixtures.percentagePromo();
+        fixedPromo = CatalogFixtures.fixedPromo();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int position;
+
+        int next(int[] pattern) {
+            position = (position + 1) & (pattern.length - 1);
+            return pattern[position];
+        }
+    }
+
+    @Benchmark
+    public OrderDTO convertToDTO(Cursor cursor) {
+        return orderService.convertToDTO(orders.get(cursor.next(accessPattern)));
+    }
+
+    @Benchmark
+    public BigDecimal calculatePercentageDiscount(Cursor cursor) {
+        BigDecimal amount = orders.get(cursor.next(accessPattern)).getTotalAmount();
+        return promoCodeService.calculateDiscount(percentagePromo, amount);
+    }
+
+    @Benchmark
+    public BigDecimal calculateFixedDiscount(Cursor cursor) {
+        BigDecimal amount = orders.get(cursor.next(accessPattern)).getTotalAmount();
+        return promoCodeService.calculateDiscount(fixedPromo, amount);
+    }
+}
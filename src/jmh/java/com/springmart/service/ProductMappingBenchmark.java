@@ -0,0 +1,58 @@
+package com.springmart.service;
+
+import com.springmart.benchmark.CatalogFixtures;
+import com.springmart.dto.ProductDTO;
+import com.springmart.entity.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-product CPU and allocation cost of the catalog read path.
+ * Run with {@code ./gradlew jmh -Pjmh.include=ProductMapping}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductMappingBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    private int catalogSize;
+
+    private List<Product> catalog;
+    private int[] accessPattern;
+    private ProductService productService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalog = CatalogFixtures.products(catalogSize);
+        accessPattern = CatalogFixtures.accessPattern(catalogSize);
+        productService = CatalogFixtures.serviceWithStubs(ProductService.class);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int position;
+
+        int next(int[] pattern) {
+            position = (position + 1) & (pattern.length - 1);
+            return pattern[position];
+        }
+    }
+
+    @Benchmark
+    public ProductDTO convertToDTO(Cursor cursor) {
+        return productService.convertToDTO(catalog.get(cursor.next(accessPattern)));
+    }
+
+    // Listing cards read the stored rating aggregates and primary image instead of walking reviews
+    // and images; the baseline's averageRating and primaryImageUrl benchmarks measured that walk
+    @Benchmark
+    public ProductDTO convertToCardDTO(Cursor cursor) {
+        return productService.convertToCardDTO(catalog.get(cursor.next(accessPattern)));
+    }
+}
@@ -0,0 +1,54 @@
+package com.springmart.cache;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Wire formats available for typed cache values, selected per cache with
+ * {@code app.cache.caches.<name>.codec}. The id is written into every entry's header.
+ */
+public enum CacheCodec {
+
+    JSON((byte) 1) {
+        @Override
+        ObjectMapper newObjectMapper() {
+            return configure(new ObjectMapper());
+        }
+    },
+
+    // Binary JSON: same data model, back-referenced property names and repeated strings
+    // (image URL prefixes, category names) are written once per entry
+    SMILE((byte) 2) {
+        @Override
+        ObjectMapper newObjectMapper() {
+            SmileFactory factory = SmileFactory.builder()
+                    .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+                    .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                    .build();
+            return configure(new ObjectMapper(factory));
+        }
+    };
+
+    private final byte id;
+
+    CacheCodec(byte id) {
+        this.id = id;
+    }
+
+    byte id() {
+        return id;
+    }
+
+    abstract ObjectMapper newObjectMapper();
+
+    private static ObjectMapper configure(ObjectMapper objectMapper) {
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        objectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        return objectMapper;
+    }
+}
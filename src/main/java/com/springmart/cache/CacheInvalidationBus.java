@@ -0,0 +1,62 @@
+package com.springmart.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Broadcasts L1 invalidations over Redis pub/sub and applies the ones published by other nodes.
+ * Messages are {@code nodeId \t cacheName [\t key]}; a message without a key clears the whole cache.
+ */
+@Slf4j
+public class CacheInvalidationBus implements MessageListener {
+
+    private static final String SEPARATOR = "\t";
+
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // (cacheName, key or null for clear)
+    private volatile BiConsumer<String, String> handler = (cacheName, key) -> { };
+
+    public CacheInvalidationBus(StringRedisTemplate redisTemplate, String channel) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+    }
+
+    void subscribe(BiConsumer<String, String> handler) {
+        this.handler = handler;
+    }
+
+    void publishEvict(String cacheName, String key) {
+        publish(nodeId + SEPARATOR + cacheName + SEPARATOR + key);
+    }
+
+    void publishClear(String cacheName) {
+        publish(nodeId + SEPARATOR + cacheName);
+    }
+
+    private void publish(String message) {
+        try {
+            redisTemplate.convertAndSend(channel, message);
+        } catch (Exception e) {
+            // Other nodes fall back to the L1 TTL; the write itself already reached Redis
+            log.warn("Failed to publish cache invalidation: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(SEPARATOR, 3);
+        if (parts.length < 2 || nodeId.equals(parts[0])) {
+            return;
+        }
+        handler.accept(parts[1], parts.length == 3 ? parts[2] : null);
+    }
+}
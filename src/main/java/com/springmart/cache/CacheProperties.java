@@ -0,0 +1,84 @@
+package com.springmart.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings for the two-level (Caffeine L1 + Redis L2) cache under {@code app.cache}.
+ * Per-cache entries in {@code caches} override the defaults for that cache name.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheProperties {
+
+    // Redis (L2) entry TTL in seconds
+    private long ttl = 3600;
+
+    // Redis pub/sub channel used to drop L1 entries on the other nodes
+    private String invalidationChannel = "springmart:cache:invalidate";
+
+    // Redis pub/sub channel carrying catalog list version bumps (see CatalogVersions)
+    private String versionChannel = "springmart:cache:catalog-versions";
+
+    // Wire format for caches with a registered value type (see CacheConfig)
+    private CacheCodec codec = CacheCodec.SMILE;
+
+    private Local local = new Local();
+
+    private Map<String, Spec> caches = new HashMap<>();
+
+    public Duration redisTtl(String cacheName) {
+        Spec spec = caches.get(cacheName);
+        return spec != null && spec.getTtl() != null ? spec.getTtl() : Duration.ofSeconds(ttl);
+    }
+
+    public CacheCodec codec(String cacheName) {
+        Spec spec = caches.get(cacheName);
+        return spec != null && spec.getCodec() != null ? spec.getCodec() : codec;
+    }
+
+    public long localMaxSize(String cacheName) {
+        Spec spec = caches.get(cacheName);
+        return spec != null && spec.getLocalMaxSize() != null ? spec.getLocalMaxSize() : local.getMaxSize();
+    }
+
+    public Duration localTtl(String cacheName) {
+        Spec spec = caches.get(cacheName);
+        return spec != null && spec.getLocalTtl() != null ? spec.getLocalTtl() : local.getTtl();
+    }
+
+    public Duration softTtl(String cacheName) {
+        Spec spec = caches.get(cacheName);
+        return spec != null && spec.getSoftTtl() != null ? spec.getSoftTtl() : local.getSoftTtl();
+    }
+
+    @Getter
+    @Setter
+    public static class Local {
+        private boolean enabled = true;
+        private long maxSize = 10_000;
+        private Duration ttl = Duration.ofMinutes(5);
+        // Age after which sync=true reads serve the L1 value while reloading it in the background;
+        // must be below ttl, null disables stale-while-revalidate
+        private Duration softTtl;
+        // XFetch aggressiveness: 0 disables early refresh, values above 1 refresh earlier
+        private double earlyRefreshBeta = 1.0;
+        private int refreshThreads = 2;
+    }
+
+    @Getter
+    @Setter
+    public static class Spec {
+        private Long localMaxSize;
+        private Duration localTtl;
+        private Duration softTtl;
+        private Duration ttl;
+        private CacheCodec codec;
+    }
+}
@@ -0,0 +1,76 @@
+package com.springmart.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs stale-while-revalidate reloads off the request thread. The cached method is re-invoked
+ * directly (past the proxy), so each reload gets its own read-only transaction for lazy loading.
+ *
+ * <p>The loader is the {@code Callable} Spring's cache interceptor handed to
+ * {@code Cache.get(key, loader)} for the request that found the stale entry, run a second time on a
+ * refresh thread after that request has returned. This relies on details of the cache aspect:
+ * <ul>
+ *   <li>the loader resumes the method invocation after the cache interceptor, so any advice ordered
+ *       after it (another {@code @Transactional} or security check on the same method) is skipped
+ *       on the re-run; cached methods must not depend on such advice;</li>
+ *   <li>it runs without the request's thread-bound state (security context, request attributes,
+ *       open session), so cached methods must compute their value from their arguments and the
+ *       database alone;</li>
+ *   <li>it holds the original arguments, which must not be mutated by the caller after the call.</li>
+ * </ul>
+ * The catalog methods cached with {@code sync = true} meet these constraints. A method that does not
+ * should stay out of soft-TTL caches (no {@code soft-ttl}), which disables background refresh.
+ */
+@Slf4j
+class CacheRefresher {
+
+    private final ThreadPoolExecutor executor;
+    private final TransactionTemplate transactionTemplate;
+
+    CacheRefresher(PlatformTransactionManager transactionManager, int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1000), runnable -> {
+                    Thread thread = new Thread(runnable, "cache-refresh-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Returns false if the refresh queue is full; the caller keeps serving the stale value.
+     */
+    boolean submit(Runnable task) {
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.debug("Cache refresh queue full, skipping refresh");
+            return false;
+        }
+    }
+
+    <T> T callInTransaction(Callable<T> loader) {
+        return transactionTemplate.execute(status -> {
+            try {
+                return loader.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
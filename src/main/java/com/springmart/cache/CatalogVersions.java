@@ -0,0 +1,88 @@
+package com.springmart.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Version counters for the cached product lists, referenced from cache keys as
+ * {@code @catalogVersions.get('latest')}. Bumping a version makes every node read fresh keys.
+ *
+ * <p>Counters live in a Redis hash so restarts and new nodes agree on the current version; each
+ * node keeps a local copy updated from pub/sub so cache key evaluation never hits Redis. A node that
+ * cannot reach Redis never makes up a version of its own: it drops its copy and its local list
+ * entries instead, and reads the shared counter again once Redis is back.
+ */
+@Component("catalogVersions")
+@Slf4j
+public class CatalogVersions implements MessageListener {
+
+    public static final String LATEST = "latest";
+    public static final String FEATURED = "featured";
+    public static final String FLASH_DEALS = "flashDeals";
+    public static final String TOP_RATED = "topRated";
+
+    private static final String HASH_KEY = "springmart:catalog-versions";
+    private static final String SEPARATOR = "\t";
+    private static final String LIST_CACHE = "productLists";
+
+    private final StringRedisTemplate redisTemplate;
+    private final TwoLevelCacheManager cacheManager;
+    private final String channel;
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+
+    public CatalogVersions(StringRedisTemplate redisTemplate, TwoLevelCacheManager cacheManager,
+                           CacheProperties cacheProperties) {
+        this.redisTemplate = redisTemplate;
+        this.cacheManager = cacheManager;
+        this.channel = cacheProperties.getVersionChannel();
+    }
+
+    public long get(String list) {
+        Long version = versions.get(list);
+        if (version != null) {
+            return version;
+        }
+        Long loaded = load(list);
+        // Not remembered when Redis is unreachable, so the next read tries again
+        return loaded != null ? versions.merge(list, loaded, Math::max) : 0L;
+    }
+
+    public void bump(String list) {
+        try {
+            Long version = redisTemplate.opsForHash().increment(HASH_KEY, list, 1);
+            versions.merge(list, version, Math::max);
+            redisTemplate.convertAndSend(channel, list + SEPARATOR + version);
+        } catch (Exception e) {
+            // Bumping only the local copy would put this node ahead of the cluster and onto keys other
+            // nodes never invalidate; forget the version and the local lists so both are re-read
+            versions.remove(list);
+            cacheManager.clearLocal(LIST_CACHE);
+            log.warn("Failed to bump catalog version {}: {}", list, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(SEPARATOR, 2);
+        if (parts.length == 2) {
+            versions.merge(parts[0], Long.parseLong(parts[1]), Math::max);
+        }
+    }
+
+    private Long load(String list) {
+        try {
+            Object version = redisTemplate.opsForHash().get(HASH_KEY, list);
+            return version != null ? Long.parseLong(version.toString()) : 0L;
+        } catch (Exception e) {
+            log.warn("Failed to load catalog version {}: {}", list, e.getMessage());
+            return null;
+        }
+    }
+}
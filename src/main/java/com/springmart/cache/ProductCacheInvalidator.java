@@ -0,0 +1,64 @@
+package com.springmart.cache;
+
+import com.springmart.event.ProductChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Evicts exactly the cache entries a product change touches (its id and slug entries) and bumps
+ * only the list versions the change can affect.
+ * Runs after commit so a concurrent reader cannot re-cache the pre-change row.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductCacheInvalidator {
+
+    private final CacheManager cacheManager;
+    private final CatalogVersions catalogVersions;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        evict("products", event.getProductId());
+        if (event.getSlug() != null) {
+            evict("productSlugs", event.getSlug());
+        }
+
+        switch (event.getType()) {
+            case CREATED:
+            case UPDATED:
+            case DELETED:
+                // Name, price, category or active flag may have changed
+                catalogVersions.bump(CatalogVersions.LATEST);
+                if (event.isFeatured()) {
+                    catalogVersions.bump(CatalogVersions.FEATURED);
+                }
+                if (event.isOnSale()) {
+                    catalogVersions.bump(CatalogVersions.FLASH_DEALS);
+                }
+                if (event.isRated()) {
+                    catalogVersions.bump(CatalogVersions.TOP_RATED);
+                }
+                break;
+            case RATING_CHANGED:
+                catalogVersions.bump(CatalogVersions.TOP_RATED);
+                break;
+            case STOCK_CHANGED:
+            default:
+                // Lists tolerate stale stock figures until their TTL; the product page does not
+                break;
+        }
+        log.debug("Invalidated caches for product {} ({})", event.getProductId(), event.getType());
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+}
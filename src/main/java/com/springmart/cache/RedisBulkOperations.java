@@ -0,0 +1,98 @@
+package com.springmart.cache;
+
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.util.ByteUtils;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multi-key reads and writes against a {@link RedisCache}, which itself only offers single-key
+ * operations: one MGET for reads, one pipeline of SETs for writes. Keys and values go through the
+ * cache's own prefix, conversion service and serializers, so entries are interchangeable with
+ * those written by {@code RedisCache}.
+ */
+final class RedisBulkOperations {
+
+    private final RedisConnectionFactory connectionFactory;
+
+    RedisBulkOperations(RedisConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    /**
+     * Values present in Redis, by key. Missing keys are absent from the result.
+     */
+    Map<Object, Object> getAll(RedisCache cache, List<?> keys) {
+        Map<Object, Object> found = new HashMap<>();
+        if (keys.isEmpty()) {
+            return found;
+        }
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        byte[][] rawKeys = new byte[keys.size()][];
+        for (int i = 0; i < keys.size(); i++) {
+            rawKeys[i] = rawKey(cache, config, keys.get(i));
+        }
+
+        List<byte[]> rawValues;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            rawValues = connection.stringCommands().mGet(rawKeys);
+        }
+        if (rawValues == null) {
+            return found;
+        }
+        for (int i = 0; i < rawValues.size(); i++) {
+            byte[] raw = rawValues.get(i);
+            if (raw != null) {
+                Object value = config.getValueSerializationPair().read(ByteBuffer.wrap(raw));
+                if (value != null) {
+                    found.put(keys.get(i), value);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Writes all entries in one pipeline with the cache's TTL. Null values are skipped.
+     */
+    void putAll(RedisCache cache, Map<?, ?> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.openPipeline();
+            try {
+                values.forEach((key, value) -> {
+                    if (value == null) {
+                        return;
+                    }
+                    Duration ttl = config.getTtlFunction().getTimeToLive(key, value);
+                    Expiration expiration = ttl == null || ttl.isZero() || ttl.isNegative()
+                            ? Expiration.persistent()
+                            : Expiration.from(ttl);
+                    connection.stringCommands().set(rawKey(cache, config, key),
+                            ByteUtils.getBytes(config.getValueSerializationPair().write(value)),
+                            expiration, RedisStringCommands.SetOption.upsert());
+                });
+            } finally {
+                connection.closePipeline();
+            }
+        }
+    }
+
+    private static byte[] rawKey(RedisCache cache, RedisCacheConfiguration config, Object key) {
+        String converted = config.getConversionService().convert(key, String.class);
+        String prefixed = config.usePrefix() ? config.getKeyPrefixFor(cache.getName()) + converted : converted;
+        return ByteUtils.getBytes(config.getKeySerializationPair().write(prefixed));
+    }
+}
@@ -0,0 +1,441 @@
+package com.springmart.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.springmart.dto.CacheStatsDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache that reads through a size-bounded Caffeine L1 to the Redis L2. Writes and evictions go to
+ * both levels and are broadcast so other nodes drop their L1 copy.
+ *
+ * <p>L1 keys are the string form of the cache key, which is also what Redis and the invalidation
+ * messages use, so a key evicted on one node matches the entry held on another.
+ *
+ * <p>For {@code @Cacheable(sync = true)} callers ({@link #get(Object, Callable)}):
+ * <ul>
+ *   <li>concurrent misses for the same key share a single load;</li>
+ *   <li>once an L1 entry is older than the soft TTL it is still served while one background
+ *       reload replaces it (stale-while-revalidate);</li>
+ *   <li>entries may be refreshed a little before the soft TTL, with a probability that grows as
+ *       expiry nears and with how slow the value was to compute (XFetch), which spreads reloads
+ *       of hot keys out instead of having them all expire at once.</li>
+ * </ul>
+ *
+ * <p>Evictions fence loads that were already running. Each {@link #evict}, {@link #put} or
+ * {@link #clear} (local or broadcast) stamps the key's stripe with a new sequence number, and a load,
+ * refresh, {@link #putAll} or copy from Redis only caches its value if nothing was stamped since the
+ * load started. It re-checks after writing and takes the value back out if an eviction landed in
+ * between, so a value read before an eviction is never cached after it. Keys share
+ * {@code FENCE_STRIPES} stripes, so an eviction can also drop an unrelated load; that load's caller
+ * still gets its value, it just isn't cached.
+ */
+@Slf4j
+public class TwoLevelCache implements Cache {
+
+    private static final int FENCE_STRIPES = 4096;
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Entry> local;
+    private final Cache remote;
+    private final CacheInvalidationBus invalidationBus;
+    private final CacheRefresher refresher;
+    private final RedisBulkOperations bulk;
+    private final long softTtlNanos;
+    private final double earlyRefreshBeta;
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    // Fencing: sequence of the last eviction per key stripe, and of the last clear
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLongArray evictedAt = new AtomicLongArray(FENCE_STRIPES);
+    private volatile long clearedAt;
+
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder remoteMisses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalescedLoads = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder earlyRefreshes = new LongAdder();
+    private final LongAdder backgroundRefreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+
+    TwoLevelCache(String name, com.github.benmanes.caffeine.cache.Cache<String, Entry> local,
+                  Cache remote, CacheInvalidationBus invalidationBus, CacheRefresher refresher,
+                  RedisBulkOperations bulk, Duration softTtl, double earlyRefreshBeta) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.invalidationBus = invalidationBus;
+        this.refresher = refresher;
+        this.bulk = bulk;
+        this.softTtlNanos = softTtl != null ? softTtl.toNanos() : 0;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        Entry entry = local.getIfPresent(localKey);
+        if (entry != null) {
+            return new SimpleValueWrapper(entry.value);
+        }
+        return getRemote(key, localKey);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        Entry entry = local.getIfPresent(localKey);
+        if (entry != null) {
+            if (needsRefresh(entry)) {
+                refreshAsync(key, localKey, valueLoader);
+            }
+            return (T) entry.value;
+        }
+
+        ValueWrapper wrapper = getRemote(key, localKey);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        return (T) loadOnce(key, localKey, valueLoader);
+    }
+
+    /**
+     * Multi-get: L1 first, then a single Redis MGET for the keys L1 does not hold. Missing keys are
+     * absent from the result.
+     */
+    Map<Object, Object> getAll(Collection<?> keys) {
+        Map<Object, Object> found = new HashMap<>();
+        List<Object> remoteKeys = new ArrayList<>();
+        for (Object key : keys) {
+            Entry entry = local.getIfPresent(localKey(key));
+            if (entry != null) {
+                found.put(key, entry.value);
+            } else {
+                remoteKeys.add(key);
+            }
+        }
+        if (remoteKeys.isEmpty()) {
+            return found;
+        }
+
+        long token = loadToken();
+        Map<Object, Object> fromRemote = remote instanceof RedisCache redisCache
+                ? bulk.getAll(redisCache, remoteKeys)
+                : getEach(remoteKeys);
+        long loadedAt = System.nanoTime();
+        fromRemote.forEach((key, value) -> putLocal(localKey(key), new Entry(value, loadedAt, 0), token));
+        remoteHits.add(fromRemote.size());
+        remoteMisses.add(remoteKeys.size() - fromRemote.size());
+        found.putAll(fromRemote);
+        return found;
+    }
+
+    /**
+     * Fencing token for a load; pass it to {@link #putAll} with the values loaded after taking it.
+     */
+    long loadToken() {
+        return sequence.get();
+    }
+
+    /**
+     * Stores freshly loaded values in both levels, writing Redis in one pipeline. Like a load, this
+     * does not broadcast an eviction: the keys were missing, so no other node should hold them.
+     * Values for keys evicted since {@code token} was taken are not cached.
+     */
+    void putAll(Map<?, ?> values, long token) {
+        Map<Object, Object> current = new HashMap<>();
+        values.forEach((key, value) -> {
+            if (value != null && !fenced(localKey(key), token)) {
+                current.put(key, value);
+            }
+        });
+        if (current.isEmpty()) {
+            return;
+        }
+        if (remote instanceof RedisCache redisCache) {
+            bulk.putAll(redisCache, current);
+        } else {
+            current.forEach(remote::put);
+        }
+        long loadedAt = System.nanoTime();
+        current.forEach((key, value) -> {
+            String localKey = localKey(key);
+            local.put(localKey, new Entry(value, loadedAt, 0));
+            if (fenced(localKey, token)) {
+                local.invalidate(localKey);
+                remote.evict(key);
+            }
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String localKey = localKey(key);
+        fence(localKey);
+        remote.put(key, value);
+        if (value != null) {
+            local.put(localKey, new Entry(value, System.nanoTime(), 0));
+        } else {
+            local.invalidate(localKey);
+        }
+        invalidationBus.publishEvict(name, localKey);
+    }
+
+    @Override
+    public void evict(Object key) {
+        String localKey = localKey(key);
+        fence(localKey);
+        remote.evict(key);
+        local.invalidate(localKey);
+        invalidationBus.publishEvict(name, localKey);
+    }
+
+    @Override
+    public void clear() {
+        clearedAt = sequence.incrementAndGet();
+        remote.clear();
+        local.invalidateAll();
+        invalidationBus.publishClear(name);
+    }
+
+    void evictLocal(String key) {
+        fence(key);
+        local.invalidate(key);
+    }
+
+    void clearLocal() {
+        clearedAt = sequence.incrementAndGet();
+        local.invalidateAll();
+    }
+
+    CacheStatsDTO stats() {
+        CacheStats localStats = local.stats();
+        return CacheStatsDTO.builder()
+                .name(name)
+                .localSize(local.estimatedSize())
+                .localHits(localStats.hitCount())
+                .localMisses(localStats.missCount())
+                .localEvictions(localStats.evictionCount())
+                .localHitRate(localStats.hitRate())
+                .remoteHits(remoteHits.sum())
+                .remoteMisses(remoteMisses.sum())
+                .loads(loads.sum())
+                .coalescedLoads(coalescedLoads.sum())
+                .staleHits(staleHits.sum())
+                .earlyRefreshes(earlyRefreshes.sum())
+                .backgroundRefreshes(backgroundRefreshes.sum())
+                .refreshFailures(refreshFailures.sum())
+                .build();
+    }
+
+    private Map<Object, Object> getEach(List<Object> keys) {
+        Map<Object, Object> found = new HashMap<>();
+        for (Object key : keys) {
+            ValueWrapper wrapper = remote.get(key);
+            if (wrapper != null && wrapper.get() != null) {
+                found.put(key, wrapper.get());
+            }
+        }
+        return found;
+    }
+
+    private ValueWrapper getRemote(Object key, String localKey) {
+        long token = loadToken();
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper != null && wrapper.get() != null) {
+            remoteHits.increment();
+            // Age in Redis is unknown, so the soft TTL counts from now
+            putLocal(localKey, new Entry(wrapper.get(), System.nanoTime(), 0), token);
+            return wrapper;
+        }
+        remoteMisses.increment();
+        return null;
+    }
+
+    private Object loadOnce(Object key, String localKey, Callable<?> valueLoader) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(localKey, mine);
+        if (existing != null) {
+            coalescedLoads.increment();
+            return await(existing);
+        }
+
+        try {
+            // Another thread may have finished loading between our miss and taking the slot
+            Entry entry = local.getIfPresent(localKey);
+            Object value = entry != null ? entry.value : load(key, localKey, valueLoader, false);
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(localKey, mine);
+        }
+    }
+
+    private void refreshAsync(Object key, String localKey, Callable<?> valueLoader) {
+        CompletableFuture<Object> refresh = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(localKey, refresh) != null) {
+            return;
+        }
+        // Re-runs the loader Spring captured for this call; see CacheRefresher for what that implies
+        boolean submitted = refresher.submit(() -> {
+            try {
+                refresh.complete(load(key, localKey, () -> refresher.callInTransaction(valueLoader), true));
+                backgroundRefreshes.increment();
+            } catch (RuntimeException e) {
+                refreshFailures.increment();
+                refresh.completeExceptionally(e);
+                log.warn("Background refresh of {}::{} failed: {}", name, localKey, e.getMessage());
+            } finally {
+                inFlight.remove(localKey, refresh);
+            }
+        });
+        if (!submitted) {
+            inFlight.remove(localKey, refresh);
+        }
+    }
+
+    private Object load(Object key, String localKey, Callable<?> valueLoader, boolean refresh) {
+        loads.increment();
+        long token = loadToken();
+        long start = System.nanoTime();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        long loadedAt = System.nanoTime();
+
+        // Evicted while loading: the value may predate the change, so hand it back without caching it
+        if (value != null && !fenced(localKey, token)) {
+            remote.put(key, value);
+            local.put(localKey, new Entry(value, loadedAt, loadedAt - start));
+            if (fenced(localKey, token)) {
+                local.invalidate(localKey);
+                remote.evict(key);
+            } else if (refresh) {
+                // Other nodes may still hold the previous value in L1
+                invalidationBus.publishEvict(name, localKey);
+            }
+        }
+        return value;
+    }
+
+    private void putLocal(String localKey, Entry entry, long token) {
+        if (fenced(localKey, token)) {
+            return;
+        }
+        local.put(localKey, entry);
+        if (fenced(localKey, token)) {
+            local.invalidate(localKey);
+        }
+    }
+
+    // Stamped before the eviction itself, so a load either sees the stamp or is undone by the eviction
+    private void fence(String localKey) {
+        long stamp = sequence.incrementAndGet();
+        evictedAt.accumulateAndGet(stripe(localKey), stamp, Math::max);
+    }
+
+    private boolean fenced(String localKey, long token) {
+        return clearedAt > token || evictedAt.get(stripe(localKey)) > token;
+    }
+
+    private static int stripe(String localKey) {
+        int hash = localKey.hashCode();
+        return (hash ^ (hash >>> 16)) & (FENCE_STRIPES - 1);
+    }
+
+    private boolean needsRefresh(Entry entry) {
+        if (softTtlNanos <= 0) {
+            return false;
+        }
+        long age = System.nanoTime() - entry.loadedAt;
+        if (age >= softTtlNanos) {
+            staleHits.increment();
+            return true;
+        }
+        // XFetch: -log(U) is exponentially distributed, so the head start scales with compute time
+        double headStart = entry.computeNanos * earlyRefreshBeta * -Math.log(ThreadLocalRandom.current().nextDouble());
+        if (age + headStart >= softTtlNanos) {
+            earlyRefreshes.increment();
+            return true;
+        }
+        return false;
+    }
+
+    private static Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    /**
+     * L1 value with its load time and how long it took to compute (0 when copied from Redis).
+     */
+    static final class Entry {
+        final Object value;
+        final long loadedAt;
+        final long computeNanos;
+
+        Entry(Object value, long loadedAt, long computeNanos) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+            this.computeNanos = computeNanos;
+        }
+    }
+}
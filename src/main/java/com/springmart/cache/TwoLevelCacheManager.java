@@ -0,0 +1,127 @@
+package com.springmart.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.springmart.dto.CacheStatsDTO;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps every Redis cache in a {@link TwoLevelCache} with its own Caffeine L1 (W-TinyLFU eviction,
+ * bounded by {@code app.cache.caches.<name>.local-max-size} and expiring after {@code local-ttl}).
+ * Caches with a {@code soft-ttl} also get stale-while-revalidate for {@code sync = true} reads.
+ */
+public class TwoLevelCacheManager implements CacheManager {
+
+    private final RedisCacheManager redisCacheManager;
+    private final CacheProperties properties;
+    private final CacheInvalidationBus invalidationBus;
+    private final CacheRefresher refresher;
+    private final RedisBulkOperations bulk;
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(RedisCacheManager redisCacheManager, RedisConnectionFactory connectionFactory,
+                                CacheProperties properties, CacheInvalidationBus invalidationBus,
+                                PlatformTransactionManager transactionManager) {
+        this.redisCacheManager = redisCacheManager;
+        this.properties = properties;
+        this.invalidationBus = invalidationBus;
+        this.refresher = new CacheRefresher(transactionManager, properties.getLocal().getRefreshThreads());
+        this.bulk = new RedisBulkOperations(connectionFactory);
+        invalidationBus.subscribe(this::applyRemoteInvalidation);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        if (!properties.getLocal().isEnabled()) {
+            return redisCacheManager.getCache(name);
+        }
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return redisCacheManager.getCacheNames();
+    }
+
+    /**
+     * Cached values for {@code keys} from L1 and a single Redis MGET. Missing keys are absent.
+     */
+    public Map<Object, Object> getAll(String cacheName, Collection<?> keys) {
+        Cache cache = getCache(cacheName);
+        if (cache instanceof TwoLevelCache twoLevelCache) {
+            return twoLevelCache.getAll(keys);
+        }
+        return bulk.getAll((RedisCache) cache, List.copyOf(keys));
+    }
+
+    /**
+     * Fencing token to take before loading values for {@link #putAll}.
+     */
+    public long loadToken(String cacheName) {
+        Cache cache = getCache(cacheName);
+        return cache instanceof TwoLevelCache twoLevelCache ? twoLevelCache.loadToken() : 0L;
+    }
+
+    /**
+     * Caches freshly loaded values, writing Redis in one pipeline. Values for keys evicted since
+     * {@code token} was taken (see {@link #loadToken}) are dropped, so a load that raced an eviction
+     * cannot put the old value back.
+     */
+    public void putAll(String cacheName, Map<?, ?> values, long token) {
+        Cache cache = getCache(cacheName);
+        if (cache instanceof TwoLevelCache twoLevelCache) {
+            twoLevelCache.putAll(values, token);
+        } else {
+            bulk.putAll((RedisCache) cache, values);
+        }
+    }
+
+    /**
+     * Drops this node's L1 copy of a cache without touching Redis or other nodes.
+     */
+    public void clearLocal(String cacheName) {
+        TwoLevelCache cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.clearLocal();
+        }
+    }
+
+    public Map<String, CacheStatsDTO> stats() {
+        Map<String, CacheStatsDTO> stats = new TreeMap<>();
+        caches.forEach((name, cache) -> stats.put(name, cache.stats()));
+        return stats;
+    }
+
+    private TwoLevelCache createCache(String name) {
+        Cache remote = redisCacheManager.getCache(name);
+        com.github.benmanes.caffeine.cache.Cache<String, TwoLevelCache.Entry> local = Caffeine.newBuilder()
+                .maximumSize(properties.localMaxSize(name))
+                .expireAfterWrite(properties.localTtl(name))
+                .recordStats()
+                .build();
+        return new TwoLevelCache(name, local, remote, invalidationBus, refresher, bulk,
+                properties.softTtl(name), properties.getLocal().getEarlyRefreshBeta());
+    }
+
+    private void applyRemoteInvalidation(String cacheName, String key) {
+        TwoLevelCache cache = caches.get(cacheName);
+        if (cache == null) {
+            return;
+        }
+        if (key == null) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(key);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.springmart.cache;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Redis value serializer for one cache whose value type is known up front, so values come back as
+ * the declared DTOs (not maps) and no type ids are stored.
+ *
+ * <p>Every entry starts with a 6-byte header: a magic byte, the {@link CacheCodec} id and a
+ * fingerprint of the value type's fields. Entries written by a different codec or by a build with a
+ * different DTO shape fail the header check and read as a cache miss instead of an error, so caches
+ * survive deploys and codec switches without a flush.
+ */
+@Slf4j
+public class VersionedCacheSerializer implements RedisSerializer<Object> {
+
+    private static final byte MAGIC = (byte) 0xCA;
+    private static final int HEADER_LENGTH = 6;
+
+    private final CacheCodec codec;
+    private final ObjectMapper objectMapper;
+    private final JavaType valueType;
+    private final int schemaFingerprint;
+
+    public VersionedCacheSerializer(CacheCodec codec, JavaType valueType) {
+        this.codec = codec;
+        this.objectMapper = codec.newObjectMapper();
+        this.valueType = valueType;
+        this.schemaFingerprint = fingerprint(valueType);
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        try {
+            byte[] body = objectMapper.writerFor(valueType).writeValueAsBytes(value);
+            return ByteBuffer.allocate(HEADER_LENGTH + body.length)
+                    .put(MAGIC)
+                    .put(codec.id())
+                    .putInt(schemaFingerprint)
+                    .put(body)
+                    .array();
+        } catch (IOException e) {
+            throw new SerializationException("Could not write " + valueType + " as " + codec, e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length < HEADER_LENGTH) {
+            return null;
+        }
+        ByteBuffer header = ByteBuffer.wrap(bytes, 0, HEADER_LENGTH);
+        if (header.get() != MAGIC || header.get() != codec.id() || header.getInt() != schemaFingerprint) {
+            // Written by another codec or DTO version (or the old JSON serializer): treat as a miss
+            return null;
+        }
+        try {
+            return objectMapper.readerFor(valueType).readValue(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+        } catch (IOException e) {
+            log.warn("Discarding unreadable cache entry of type {}: {}", valueType, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * CRC32 over the canonical type name and the field names/types of every application class
+     * reachable from it, so adding, removing or retyping a DTO field changes the fingerprint.
+     */
+    static int fingerprint(JavaType type) {
+        StringBuilder schema = new StringBuilder(type.toCanonical());
+        appendFields(type, schema, new HashSet<>());
+        CRC32 crc = new CRC32();
+        crc.update(schema.toString().getBytes(StandardCharsets.UTF_8));
+        return (int) crc.getValue();
+    }
+
+    private static void appendFields(JavaType type, StringBuilder schema, Set<Class<?>> visited) {
+        if (type.getContentType() != null) {
+            appendFields(type.getContentType(), schema, visited);
+        }
+        Class<?> raw = type.getRawClass();
+        if (!raw.getName().startsWith("com.springmart.") || !visited.add(raw)) {
+            return;
+        }
+        for (Class<?> c = raw; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) {
+                    continue;
+                }
+                schema.append(';').append(field.getName()).append(':').append(field.getGenericType().getTypeName());
+                appendFields(TypeFactory.defaultInstance().constructType(field.getGenericType()), schema, visited);
+            }
+        }
+    }
+}
@@ -14,6 +14,7 @@ import software.amazon.awssdk.services.lambda.LambdaClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.ses.SesClient;
 import software.amazon.awssdk.services.sns.SnsClient;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
 import software.amazon.awssdk.services.sqs.SqsClient;
 
 import java.net.URI;
@@ -70,6 +71,22 @@ public class AwsConfig {
         return builder.build();
     }
 
+    @Bean
+    public SqsAsyncClient sqsAsyncClient() {
+        var builder = SqsAsyncClient.builder()
+                .region(Region.of(region));
+
+        if (useLocalStack && !endpoint.isEmpty()) {
+            log.info("Using LocalStack for async SQS at: {}", endpoint);
+            builder.endpointOverride(URI.create(endpoint))
+                    .credentialsProvider(localStackCredentials());
+        } else if (!accessKey.isEmpty() && !secretKey.isEmpty()) {
+            builder.credentialsProvider(awsCredentials());
+        }
+
+        return builder.build();
+    }
+
     @Bean
     public SnsClient snsClient() {
         var builder = SnsClient.builder()
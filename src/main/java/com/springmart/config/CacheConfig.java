@@ -3,25 +3,65 @@ package com.springmart.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import org.springframework.cache.CacheManager;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.springmart.cache.CacheInvalidationBus;
+import com.springmart.cache.CatalogVersions;
+import com.springmart.cache.CacheProperties;
+import com.springmart.cache.TwoLevelCacheManager;
+import com.springmart.cache.VersionedCacheSerializer;
+import com.springmart.dto.ProductDTO;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
 public class CacheConfig {
 
         @Bean
-        public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+        public CacheInvalidationBus cacheInvalidationBus(StringRedisTemplate redisTemplate,
+                        CacheProperties cacheProperties) {
+                return new CacheInvalidationBus(redisTemplate, cacheProperties.getInvalidationChannel());
+        }
+
+        @Bean
+        public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+                        RedisConnectionFactory connectionFactory, CacheInvalidationBus cacheInvalidationBus,
+                        CatalogVersions catalogVersions, CacheProperties cacheProperties) {
+                RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+                container.setConnectionFactory(connectionFactory);
+                container.addMessageListener(cacheInvalidationBus,
+                                new ChannelTopic(cacheProperties.getInvalidationChannel()));
+                container.addMessageListener(catalogVersions,
+                                new ChannelTopic(cacheProperties.getVersionChannel()));
+                return container;
+        }
+
+        /**
+         * Caffeine L1 per node in front of the shared Redis caches; see {@link TwoLevelCacheManager}.
+         */
+        @Bean
+        public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                        CacheProperties cacheProperties, CacheInvalidationBus cacheInvalidationBus,
+                        PlatformTransactionManager transactionManager) {
                 ObjectMapper objectMapper = new ObjectMapper();
 
                 // Register JavaTimeModule for LocalDateTime support
@@ -35,15 +75,44 @@ public class CacheConfig {
                 GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer(objectMapper);
 
                 RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-                                .entryTtl(Duration.ofHours(1))
+                                .entryTtl(Duration.ofSeconds(cacheProperties.getTtl()))
                                 .serializeKeysWith(RedisSerializationContext.SerializationPair
                                                 .fromSerializer(new StringRedisSerializer()))
                                 .serializeValuesWith(
                                                 RedisSerializationContext.SerializationPair.fromSerializer(serializer))
                                 .disableCachingNullValues();
 
-                return RedisCacheManager.builder(connectionFactory)
+                Map<String, RedisCacheConfiguration> perCacheConfig = new HashMap<>();
+                for (String cacheName : cacheProperties.getCaches().keySet()) {
+                        perCacheConfig.put(cacheName, config.entryTtl(cacheProperties.redisTtl(cacheName)));
+                }
+
+                // Caches with a known value type get a typed serializer in the configured codec
+                cacheValueTypes().forEach((cacheName, valueType) -> perCacheConfig.put(cacheName, config
+                                .entryTtl(cacheProperties.redisTtl(cacheName))
+                                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                                                new VersionedCacheSerializer(cacheProperties.codec(cacheName),
+                                                                valueType)))));
+
+                RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                                 .cacheDefaults(config)
+                                .withInitialCacheConfigurations(perCacheConfig)
                                 .build();
+                redisCacheManager.afterPropertiesSet();
+
+                return new TwoLevelCacheManager(redisCacheManager, connectionFactory, cacheProperties,
+                                cacheInvalidationBus, transactionManager);
+        }
+
+        /**
+         * Value type of each typed cache. Caches not listed here use the generic JSON serializer.
+         */
+        static Map<String, JavaType> cacheValueTypes() {
+                TypeFactory typeFactory = TypeFactory.defaultInstance();
+                Map<String, JavaType> types = new HashMap<>();
+                types.put("products", typeFactory.constructType(ProductDTO.class));
+                types.put("productSlugs", typeFactory.constructType(ProductDTO.class));
+                types.put("productLists", typeFactory.constructCollectionType(List.class, ProductDTO.class));
+                return types;
         }
 }
@@ -0,0 +1,30 @@
+package com.springmart.controller.api;
+
+import com.springmart.cache.TwoLevelCacheManager;
+import com.springmart.dto.CacheStatsDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@Tag(name = "Admin Cache", description = "Admin APIs for cache inspection")
+public class AdminCacheController {
+
+    private final TwoLevelCacheManager cacheManager;
+
+    @GetMapping("/stats")
+    @Operation(summary = "L1 (in-process) and L2 (Redis) hit/miss/eviction stats per cache (Admin only)")
+    public ResponseEntity<Map<String, CacheStatsDTO>> getCacheStats() {
+        return ResponseEntity.ok(cacheManager.stats());
+    }
+}
@@ -0,0 +1,30 @@
+package com.springmart.controller.api;
+
+import com.springmart.dto.ScheduledJobDTO;
+import com.springmart.jobs.ClusterJobRunner;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/jobs")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@Tag(name = "Admin Jobs", description = "Admin APIs for scheduled job inspection")
+public class AdminJobController {
+
+    private final ClusterJobRunner clusterJobRunner;
+
+    @GetMapping
+    @Operation(summary = "Last run, node, duration and rows affected per scheduled job shard (Admin only)")
+    public ResponseEntity<List<ScheduledJobDTO>> getJobs() {
+        return ResponseEntity.ok(clusterJobRunner.registry());
+    }
+}
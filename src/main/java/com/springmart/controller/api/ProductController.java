@@ -1,6 +1,8 @@
 package com.springmart.controller.api;
 
+import com.springmart.dto.CursorSlice;
 import com.springmart.dto.ProductDTO;
+import com.springmart.dto.ProductFacetsDTO;
 import com.springmart.dto.ProductFilterRequest;
 import com.springmart.security.CustomOAuth2User;
 import com.springmart.service.ProductService;
@@ -17,6 +19,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @RestController
@@ -25,6 +28,9 @@ import java.util.List;
 @Tag(name = "Products", description = "Product management APIs")
 public class ProductController {
 
+    // List endpoints are cached per limit, so the limit is clamped to keep the key space small
+    private static final int MAX_LIST_LIMIT = 50;
+
     private final ProductService productService;
 
     @GetMapping
@@ -34,6 +40,31 @@ public class ProductController {
         return ResponseEntity.ok(productService.getAllActiveProducts(pageable));
     }
 
+    @GetMapping("/scroll")
+    @Operation(summary = "Scroll active products",
+            description = "Keyset pagination without a total count. Pass nextCursor from the previous response "
+                    + "to continue; sortBy is one of newest, price_asc, price_desc, name_asc")
+    public ResponseEntity<CursorSlice<ProductDTO>> scrollProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "newest") String sortBy,
+            @RequestParam(defaultValue = "12") int size) {
+        ProductFilterRequest filterRequest = ProductFilterRequest.builder()
+                .categoryIds(categoryId != null ? List.of(categoryId) : null)
+                .sortBy(sortBy)
+                .size(size)
+                .cursor(cursor)
+                .build();
+        return ResponseEntity.ok(productService.scrollFilteredProducts(filterRequest));
+    }
+
+    @GetMapping("/batch")
+    @Operation(summary = "Get products by IDs",
+            description = "Up to 100 comma-separated ids; results follow request order and unknown ids are skipped")
+    public ResponseEntity<List<ProductDTO>> getProductsByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(productService.getProductsByIds(ids));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get product by ID")
     public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id) {
@@ -55,25 +86,36 @@ public class ProductController {
     }
 
     @GetMapping("/search")
-    @Operation(summary = "Search products")
+    @Operation(summary = "Search products",
+            description = "Ranked keyword search, optionally narrowed by category, price range and stock")
     public ResponseEntity<Page<ProductDTO>> searchProducts(
             @RequestParam String keyword,
+            @RequestParam(required = false) List<Long> categoryIds,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Boolean inStock,
             @PageableDefault(size = 12) Pageable pageable) {
-        return ResponseEntity.ok(productService.searchProducts(keyword, pageable));
+        ProductFilterRequest filters = ProductFilterRequest.builder()
+                .categoryIds(categoryIds)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .inStock(inStock)
+                .build();
+        return ResponseEntity.ok(productService.searchProducts(keyword, filters, pageable));
     }
 
     @GetMapping("/latest")
     @Operation(summary = "Get latest products")
     public ResponseEntity<List<ProductDTO>> getLatestProducts(
             @RequestParam(defaultValue = "8") int limit) {
-        return ResponseEntity.ok(productService.getLatestProducts(limit));
+        return ResponseEntity.ok(productService.getLatestProducts(clampLimit(limit)));
     }
 
     @GetMapping("/top-rated")
     @Operation(summary = "Get top rated products")
     public ResponseEntity<List<ProductDTO>> getTopRatedProducts(
             @RequestParam(defaultValue = "8") int limit) {
-        return ResponseEntity.ok(productService.getTopRatedProducts(limit));
+        return ResponseEntity.ok(productService.getTopRatedProducts(clampLimit(limit)));
     }
 
     @PostMapping("/filter")
@@ -82,6 +124,21 @@ public class ProductController {
         return ResponseEntity.ok(productService.getFilteredProducts(filterRequest));
     }
 
+    @PostMapping("/facets")
+    @Operation(summary = "Facet counts for a product filter",
+            description = "Counts per category, price range, rating, stock, sale and featured flag")
+    public ResponseEntity<ProductFacetsDTO> getProductFacets(@RequestBody ProductFilterRequest filterRequest) {
+        return ResponseEntity.ok(productService.getProductFacets(filterRequest));
+    }
+
+    @PostMapping("/filter/scroll")
+    @Operation(summary = "Filter products with keyset pagination",
+            description = "Same filters as /filter; set cursor to the previous nextCursor to continue")
+    public ResponseEntity<CursorSlice<ProductDTO>> scrollFilteredProducts(
+            @RequestBody ProductFilterRequest filterRequest) {
+        return ResponseEntity.ok(productService.scrollFilteredProducts(filterRequest));
+    }
+
     @PostMapping
     @PreAuthorize("hasAnyRole('SELLER', 'ADMIN')")
     @Operation(summary = "Create a new product", description = "Requires SELLER or ADMIN role")
@@ -108,4 +165,8 @@ public class ProductController {
         productService.deleteProduct(id);
         return ResponseEntity.noContent().build();
     }
+
+    private static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIST_LIMIT));
+    }
 }
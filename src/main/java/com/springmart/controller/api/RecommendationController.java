@@ -1,6 +1,7 @@
 package com.springmart.controller.api;
 
 import com.springmart.dto.ProductDTO;
+import com.springmart.enums.SimilarityMode;
 import com.springmart.security.CustomOAuth2User;
 import com.springmart.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -21,15 +22,26 @@ public class RecommendationController {
     private final ProductService productService;
 
     @GetMapping("/similar/{productId}")
-    @Operation(summary = "Get similar products")
+    @Operation(summary = "Get similar products",
+            description = "mode=price (same category, similar price) or mode=content (similar name, description and category)")
     public ResponseEntity<List<ProductDTO>> getSimilarProducts(
+            @PathVariable Long productId,
+            @RequestParam(defaultValue = "6") int limit,
+            @RequestParam(defaultValue = "price") String mode) {
+        return ResponseEntity.ok(productService.getSimilarProducts(productId, limit, SimilarityMode.from(mode)));
+    }
+
+    @GetMapping("/also-bought/{productId}")
+    @Operation(summary = "Customers also bought", description = "Products most often ordered together with this one")
+    public ResponseEntity<List<ProductDTO>> getAlsoBought(
             @PathVariable Long productId,
             @RequestParam(defaultValue = "6") int limit) {
-        return ResponseEntity.ok(productService.getSimilarProducts(productId, limit));
+        return ResponseEntity.ok(productService.getAlsoBought(productId, limit));
     }
 
     @GetMapping("/personalized")
-    @Operation(summary = "Get personalized recommendations for the current user")
+    @Operation(summary = "Get personalized recommendations for the current user",
+            description = "Co-purchase based, topped up with top rated products from categories the user buys from")
     public ResponseEntity<List<ProductDTO>> getPersonalizedRecommendations(
             @AuthenticationPrincipal CustomOAuth2User currentUser,
             @RequestParam(defaultValue = "8") int limit) {
@@ -1,6 +1,8 @@
 package com.springmart.controller.view;
 
+import com.springmart.dto.HomePageSnapshot;
 import com.springmart.service.CategoryService;
+import com.springmart.service.HomePageService;
 import com.springmart.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
@@ -17,14 +19,17 @@ public class HomeController {
 
     private final ProductService productService;
     private final CategoryService categoryService;
+    private final HomePageService homePageService;
 
     @GetMapping({ "/", "/home" })
     public String home(Model model) {
-        model.addAttribute("latestProducts", productService.getLatestProducts(8));
-        model.addAttribute("topRatedProducts", productService.getTopRatedProducts(8));
-        model.addAttribute("featuredProducts", productService.getFeaturedProducts(4));
-        model.addAttribute("flashDeals", productService.getFlashDeals(6));
-        model.addAttribute("categories", categoryService.getAllCategories());
+        // Precomputed in the background; no queries on the request path
+        HomePageSnapshot snapshot = homePageService.getSnapshot();
+        model.addAttribute("latestProducts", snapshot.getLatestProducts());
+        model.addAttribute("topRatedProducts", snapshot.getTopRatedProducts());
+        model.addAttribute("featuredProducts", snapshot.getFeaturedProducts());
+        model.addAttribute("flashDeals", snapshot.getFlashDeals());
+        model.addAttribute("categories", snapshot.getCategories());
         return "home";
     }
 
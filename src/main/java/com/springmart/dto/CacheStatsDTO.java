@@ -0,0 +1,27 @@
+package com.springmart.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CacheStatsDTO {
+    private String name;
+    private long localSize;
+    private long localHits;
+    private long localMisses;
+    private long localEvictions;
+    private double localHitRate;
+    private long remoteHits;      // L1 misses served by Redis
+    private long remoteMisses;    // L1 misses that also missed Redis
+    private long loads;           // loader invocations (misses and refreshes)
+    private long coalescedLoads;  // misses that waited on another thread's load instead of loading
+    private long staleHits;       // reads served past the soft TTL while a refresh ran
+    private long earlyRefreshes;  // probabilistic refreshes triggered before the soft TTL
+    private long backgroundRefreshes;
+    private long refreshFailures;
+}
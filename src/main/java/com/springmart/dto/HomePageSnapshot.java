@@ -0,0 +1,24 @@
+package com.springmart.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Everything the home page renders, built in the background by HomePageService.
+ * Immutable once built; a rebuild swaps in a new instance.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+public class HomePageSnapshot {
+    private final List<ProductDTO> latestProducts;
+    private final List<ProductDTO> topRatedProducts;
+    private final List<ProductDTO> featuredProducts;
+    private final List<ProductDTO> flashDeals;
+    private final List<CategoryDTO> categories;
+    private final LocalDateTime builtAt;
+}
@@ -0,0 +1,21 @@
+package com.springmart.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A CloudWatch data point recorded for later delivery; {@code unit} is a CloudWatch StandardUnit value
+ * such as "Count" and {@code timestamp} is epoch milliseconds.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MetricPoint {
+    private String name;
+    private double value;
+    private String unit;
+    private long timestamp;
+}
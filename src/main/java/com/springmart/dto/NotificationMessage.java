@@ -0,0 +1,21 @@
+package com.springmart.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * An SNS notification: subject, body and string message attributes used for subscription filtering.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationMessage {
+    private String subject;
+    private String message;
+    private Map<String, String> attributes;
+}
@@ -0,0 +1,111 @@
+package com.springmart.dto;
+
+import com.springmart.exception.InvalidCursorException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Set;
+
+/**
+ * Opaque continuation token for keyset (seek) pagination over products.
+ * Encodes the sort order, the sort key of the last returned row and its id as a tie-breaker.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductCursor {
+
+    public static final String NEWEST = "newest";
+    public static final String PRICE_ASC = "price_asc";
+    public static final String PRICE_DESC = "price_desc";
+    public static final String NAME_ASC = "name_asc";
+
+    public static final Set<String> SUPPORTED_SORTS = Set.of(NEWEST, PRICE_ASC, PRICE_DESC, NAME_ASC);
+
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "|";
+
+    private final String sortBy;
+    private final String key;
+    private final Long id;
+
+    public LocalDateTime getCreatedAtKey() {
+        return LocalDateTime.parse(key);
+    }
+
+    public BigDecimal getPriceKey() {
+        return new BigDecimal(key);
+    }
+
+    /**
+     * Normalizes the requested sort for cursor mode, defaulting to newest.
+     */
+    public static String normalizeSort(String sortBy) {
+        if (sortBy == null || sortBy.isEmpty()) {
+            return NEWEST;
+        }
+        if (!SUPPORTED_SORTS.contains(sortBy)) {
+            throw new InvalidCursorException("Cursor pagination supports sortBy " + SUPPORTED_SORTS);
+        }
+        return sortBy;
+    }
+
+    /**
+     * Builds the token that continues after the given product.
+     */
+    public static String encode(String sortBy, ProductDTO last) {
+        String key;
+        switch (sortBy) {
+            case PRICE_ASC:
+            case PRICE_DESC:
+                key = last.getPrice().toPlainString();
+                break;
+            case NAME_ASC:
+                key = last.getName();
+                break;
+            case NEWEST:
+            default:
+                key = last.getCreatedAt().toString();
+                break;
+        }
+        // The key goes last so names containing the separator still round-trip
+        String raw = VERSION + SEPARATOR + sortBy + SEPARATOR + last.getId() + SEPARATOR + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token, verifying it was issued for the same sort order.
+     */
+    public static ProductCursor decode(String token, String sortBy) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed cursor", e);
+        }
+
+        String[] parts = raw.split("\\|", 4);
+        if (parts.length != 4 || !VERSION.equals(parts[0])) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        if (!parts[1].equals(sortBy)) {
+            throw new InvalidCursorException("Cursor was issued for sortBy " + parts[1]);
+        }
+
+        try {
+            ProductCursor cursor = new ProductCursor(parts[1], parts[3], Long.parseLong(parts[2]));
+            // Validate the key eagerly so a tampered token fails here rather than in the query
+            if (NEWEST.equals(sortBy)) {
+                cursor.getCreatedAtKey();
+            } else if (PRICE_ASC.equals(sortBy) || PRICE_DESC.equals(sortBy)) {
+                cursor.getPriceKey();
+            }
+            return cursor;
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Malformed cursor", e);
+        }
+    }
+}
@@ -47,12 +47,16 @@ public class ProductDTO {
     private Boolean isFeatured;
     private Integer discountPercentage;
 
-    private List<String> imageUrls;
+    private List<String> imageUrls; // detail responses only; null on listing cards
     private String primaryImageUrl;
+    private Integer imageCount;
 
     private Double averageRating;
     private Integer reviewCount;
 
+    // Only set on search results: HTML-escaped description excerpt with matches wrapped in <mark>
+    private String searchSnippet;
+
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
@@ -0,0 +1,26 @@
+package com.springmart.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Facet counts for a product filter. Each group is counted with every other active filter applied
+ * but not its own, so the UI can show how many products selecting another value would return.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductFacetsDTO {
+    private long totalHits;
+    private Map<Long, Long> categories;      // category id -> count
+    private Map<String, Long> priceRanges;   // e.g. "25-50", "500+" -> count
+    private Map<Integer, Long> minRatings;   // 1-5 -> count with averageRating >= key
+    private long inStock;
+    private long onSale;
+    private long featured;
+}
@@ -26,4 +26,7 @@ public class ProductFilterRequest {
     private Integer page = 0;
     @Builder.Default
     private Integer size = 12;
+    
+    // For keyset pagination - continuation token from a previous CursorSlice (null for the first slice)
+    private String cursor;
 }
@@ -0,0 +1,15 @@
+package com.springmart.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One ranked full-text search match: the product id, its relevance and a highlighted snippet.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductSearchHit {
+    private final Long productId;
+    private final double rank;
+    private final String snippet;
+}
@@ -0,0 +1,25 @@
+package com.springmart.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScheduledJobDTO {
+    private String jobName;
+    private Integer shard;
+    private String lastNode;
+    private LocalDateTime lastStartedAt;
+    private LocalDateTime lastFinishedAt;
+    private Long lastDurationMs;
+    private Integer lastRowsAffected;
+    private String lastError;
+    private Long runCount;
+    private Long totalRows;
+}
@@ -0,0 +1,57 @@
+package com.springmart.entity;
+
+import com.springmart.enums.OutboxDestination;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A side effect (SQS message, SNS notification or CloudWatch metrics) recorded in the same
+ * transaction as the change that caused it and delivered later by OutboxRelay.
+ */
+@Entity
+@Table(name = "outbox_events")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OutboxDestination destination;
+
+    // The order the event belongs to
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    // JSON, shaped per destination
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    // Set while a relay is delivering the event; other relays skip it until then
+    @Column(name = "leased_until")
+    private LocalDateTime leasedUntil;
+}
@@ -34,7 +34,9 @@ public class Product {
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal price;
 
-    @Column(name = "stock_quantity", nullable = false)
+    // Stock changes with checkout and admin edits concurrently, so it is only ever written by atomic
+    // UPDATE statements (see ProductRepositoryCustom#adjustStock); a product save must not overwrite it
+    @Column(name = "stock_quantity", nullable = false, updatable = false)
     @Builder.Default
     private Integer stockQuantity = 0;
 
@@ -64,10 +66,53 @@ public class Product {
     @Builder.Default
     private Integer discountPercentage = 0;
 
+    // Rating aggregates are maintained with atomic UPDATE statements (see ProductRepository#addRating),
+    // never through entity saves, so they are neither insertable nor updatable here.
+    @Column(name = "rating_sum", nullable = false, insertable = false, updatable = false)
+    @Builder.Default
+    private Long ratingSum = 0L;
+
+    @Column(name = "rating_count", nullable = false, insertable = false, updatable = false)
+    @Builder.Default
+    private Integer reviewCount = 0;
+
+    @Column(name = "rating_1_count", nullable = false, insertable = false, updatable = false)
+    @Builder.Default
+    private Integer rating1Count = 0;
+
+    @Column(name = "rating_2_count", nullable = false, insertable = false, updatable = false)
+    @Builder.Default
+    private Integer rating2Count = 0;
+
+    @Column(name = "rating_3_count", nullable = false, insertable = false, updatable = false)
+    @Builder.Default
+    private Integer rating3Count = 0;
+
+    @Column(name = "rating_4_count", nullable = false, insertable = false, updatable = false)
+    @Builder.Default
+    private Integer rating4Count = 0;
+
+    @Column(name = "rating_5_count", nullable = false, insertable = false, updatable = false)
+    @Builder.Default
+    private Integer rating5Count = 0;
+
+    @Column(name = "average_rating", nullable = false, insertable = false, updatable = false)
+    @Builder.Default
+    private Double averageRating = 0.0;
+
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("displayOrder ASC, id ASC")
     @Builder.Default
     private List<ProductImage> images = new ArrayList<>();
 
+    // Denormalised from images so listings don't have to load them; see refreshImageMetadata()
+    @Column(name = "primary_image_url", length = 500)
+    private String primaryImageUrl;
+
+    @Column(name = "image_count", nullable = false)
+    @Builder.Default
+    private Integer imageCount = 0;
+
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<Review> reviews = new ArrayList<>();
@@ -83,11 +128,27 @@ public class Product {
     public void addImage(ProductImage image) {
         images.add(image);
         image.setProduct(this);
+        refreshImageMetadata();
     }
 
     public void removeImage(ProductImage image) {
         images.remove(image);
         image.setProduct(null);
+        refreshImageMetadata();
+    }
+
+    /**
+     * Recomputes primaryImageUrl and imageCount from images: the image flagged primary, else the
+     * first one. Call after changing an image's primary flag or URL in place.
+     */
+    public void refreshImageMetadata() {
+        imageCount = images.size();
+        primaryImageUrl = images.stream()
+                .filter(image -> Boolean.TRUE.equals(image.getIsPrimary()))
+                .findFirst()
+                .or(() -> images.stream().findFirst())
+                .map(ProductImage::getImageUrl)
+                .orElse(null);
     }
 
     public void addReview(Review review) {
@@ -99,27 +160,4 @@ public class Product {
         reviews.remove(review);
         review.setProduct(null);
     }
-
-    @Transient
-    public Double getAverageRating() {
-        if (reviews.isEmpty()) {
-            return 0.0;
-        }
-        return reviews.stream()
-                .mapToInt(Review::getRating)
-                .average()
-                .orElse(0.0);
-    }
-
-    @Transient
-    public String getPrimaryImageUrl() {
-        if (images == null || images.isEmpty()) {
-            return null;
-        }
-        return images.stream()
-                .filter(ProductImage::getIsPrimary)
-                .findFirst()
-                .map(ProductImage::getImageUrl)
-                .orElse(images.get(0).getImageUrl());
-    }
 }
@@ -0,0 +1,57 @@
+package com.springmart.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Last-run bookkeeping for one shard of a cluster-wide scheduled job, written by ClusterJobRunner.
+ */
+@Entity
+@Table(name = "scheduled_jobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScheduledJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_name", nullable = false, length = 100)
+    private String jobName;
+
+    @Column(nullable = false)
+    private Integer shard;
+
+    // Host that ran the shard last
+    @Column(name = "last_node")
+    private String lastNode;
+
+    @Column(name = "last_started_at")
+    private LocalDateTime lastStartedAt;
+
+    @Column(name = "last_finished_at")
+    private LocalDateTime lastFinishedAt;
+
+    @Column(name = "last_duration_ms")
+    private Long lastDurationMs;
+
+    @Column(name = "last_rows_affected")
+    private Integer lastRowsAffected;
+
+    // Null when the last run succeeded
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "run_count", nullable = false)
+    @Builder.Default
+    private Long runCount = 0L;
+
+    @Column(name = "total_rows", nullable = false)
+    @Builder.Default
+    private Long totalRows = 0L;
+}
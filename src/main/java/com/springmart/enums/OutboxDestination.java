@@ -0,0 +1,7 @@
+package com.springmart.enums;
+
+public enum OutboxDestination {
+    SQS,
+    SNS,
+    CLOUDWATCH
+}
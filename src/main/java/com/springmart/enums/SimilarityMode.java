@@ -0,0 +1,23 @@
+package com.springmart.enums;
+
+import com.springmart.exception.InvalidRequestException;
+
+import java.util.Arrays;
+
+public enum SimilarityMode {
+    PRICE,   // same category, within ±30% of the price
+    CONTENT; // closest name, description and category in the content similarity index
+
+    /**
+     * Case-insensitive lookup of a request parameter; unknown values are a bad request.
+     */
+    public static SimilarityMode from(String value) {
+        for (SimilarityMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(value)) {
+                return mode;
+            }
+        }
+        throw new InvalidRequestException("Unknown similarity mode '" + value + "', expected one of "
+                + Arrays.toString(values()).toLowerCase());
+    }
+}
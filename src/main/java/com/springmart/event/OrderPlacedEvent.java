@@ -0,0 +1,27 @@
+package com.springmart.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Published by OrderService when a user or guest order is created. Listeners use
+ * @TransactionalEventListener so they only see orders that committed.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderPlacedEvent {
+
+    private final Long orderId;
+    private final LocalDateTime placedAt;
+    private final List<Line> lines;
+
+    @Getter
+    @AllArgsConstructor
+    public static class Line {
+        private final Long productId;
+        private final int quantity;
+    }
+}
@@ -0,0 +1,20 @@
+package com.springmart.event;
+
+import com.springmart.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by OrderService when an order's status is changed by hand (admin or API), so the order
+ * lifecycle wheel can schedule the order's next automatic transition from its new status.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderStatusChangedEvent {
+
+    private final Long orderId;
+    private final OrderStatus status;
+    private final LocalDateTime createdAt;
+}
@@ -0,0 +1,57 @@
+package com.springmart.event;
+
+import com.springmart.entity.Product;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by ProductService (and ReviewService for rating changes) whenever a product changes.
+ * In-memory read models and cache invalidation listen with @TransactionalEventListener so they only
+ * see committed changes.
+ *
+ * <p>The flags describe the product at publish time and let listeners decide which derived views
+ * (e.g. the featured or flash-deal lists) the change can affect.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        STOCK_CHANGED,
+        RATING_CHANGED
+    }
+
+    private final Long productId;
+    private final Type type;
+    private final String slug;
+    private final boolean featured;
+    private final boolean onSale;
+    private final boolean rated;
+    // Stock written behind by InventoryReservationService, whose counters already include it
+    private final boolean writtenBehind;
+
+    public static ProductChangedEvent of(Product product, Type type) {
+        return of(product, type, false);
+    }
+
+    /**
+     * STOCK_CHANGED for stock changes the in-memory inventory has just written to the database.
+     */
+    public static ProductChangedEvent stockWrittenBehind(Product product) {
+        return of(product, Type.STOCK_CHANGED, true);
+    }
+
+    private static ProductChangedEvent of(Product product, Type type, boolean writtenBehind) {
+        return new ProductChangedEvent(
+                product.getId(),
+                type,
+                product.getSlug(),
+                Boolean.TRUE.equals(product.getIsFeatured()),
+                product.getDiscountPercentage() != null && product.getDiscountPercentage() > 0,
+                product.getReviewCount() != null && product.getReviewCount() > 0,
+                writtenBehind);
+    }
+}
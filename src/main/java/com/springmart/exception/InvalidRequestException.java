@@ -0,0 +1,11 @@
+package com.springmart.exception;
+
+/**
+ * A request parameter outside what the API accepts, e.g. too many ids in a batch. Mapped to 400
+ * with the message shown to the client, so the message must not leak internals.
+ */
+public class InvalidRequestException extends RuntimeException {
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,374 @@
+package com.springmart.inventory;
+
+import com.springmart.entity.Product;
+import com.springmart.event.ProductChangedEvent;
+import com.springmart.exception.InsufficientStockException;
+import com.springmart.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory stock for flash sales, enabled with {@code app.inventory.mode=memory}. Each product's
+ * available stock is loaded once from {@code products.stock_quantity} into a {@link StripedStock};
+ * checkout reserves from it without touching the database, so orders for one hot product no longer
+ * queue on its row lock.
+ *
+ * <p>A reservation lives until its order transaction completes: commit confirms it, rollback
+ * releases it, and reservations older than {@code app.inventory.reservation-ttl-ms} are released by
+ * a sweep. Confirmed quantities and cancellations are summed per product and written to Postgres in
+ * one statement every {@code app.inventory.flush-ms} (write-behind), which then publishes
+ * STOCK_CHANGED for the products written. Flush, sweep and reloads run on this service's own thread.
+ *
+ * <p>Counters are local to the node, so this mode assumes one application instance (or routing that
+ * pins each product to one instance). Stock edited outside checkout, e.g. by an admin, is picked up
+ * from STOCK_CHANGED events: the product's counter is rebuilt from the database value plus the
+ * deltas not yet written, minus what is reserved. Reservations, confirmations and restocks hold the
+ * product's lock shared, and the rebuild holds it exclusively, so none of them can slip in between
+ * reading those figures and resetting the counter.
+ */
+@Service
+@Slf4j
+public class InventoryReservationService {
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final int stripes;
+    private final long reservationTtlMillis;
+    private final long sweepMillis;
+    private final long flushMillis;
+
+    private final Map<Long, StripedStock> stock = new ConcurrentHashMap<>();
+    private final Map<Long, ReadWriteLock> locks = new ConcurrentHashMap<>();
+    private final Map<Long, Reservation> reservations = new ConcurrentHashMap<>();
+    // Signed stock changes per product not yet written to the database
+    private final Map<Long, AtomicInteger> pendingDeltas = new ConcurrentHashMap<>();
+    // Products whose stock was changed outside checkout, reloaded on the next flush
+    private final Set<Long> staleProducts = ConcurrentHashMap.newKeySet();
+    private final AtomicLong reservationIds = new AtomicLong();
+    private final Object flushLock = new Object();
+    private final ScheduledExecutorService executor;
+
+    public InventoryReservationService(ProductRepository productRepository,
+                                       PlatformTransactionManager transactionManager,
+                                       ApplicationEventPublisher eventPublisher,
+                                       @Value("${app.inventory.mode:database}") String mode,
+                                       @Value("${app.inventory.stripes:8}") int stripes,
+                                       @Value("${app.inventory.reservation-ttl-ms:60000}") long reservationTtlMillis,
+                                       @Value("${app.inventory.sweep-ms:1000}") long sweepMillis,
+                                       @Value("${app.inventory.flush-ms:500}") long flushMillis) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.enabled = "memory".equalsIgnoreCase(mode);
+        this.stripes = stripes;
+        this.reservationTtlMillis = reservationTtlMillis;
+        this.sweepMillis = sweepMillis;
+        this.flushMillis = flushMillis;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        executor.scheduleWithFixedDelay(this::releaseExpired, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::flushAndReload, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (enabled) {
+            // Whatever was confirmed since the last flush
+            flush();
+        }
+    }
+
+    /**
+     * Reserves stock for the current order transaction, confirming it on commit and releasing it on
+     * rollback. Throws InsufficientStockException, having reserved nothing, if any product is short.
+     */
+    public void reserveForCurrentTransaction(Map<Product, Integer> quantities) {
+        Reservation reservation = reserve(quantities);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    confirm(reservation);
+                } else {
+                    release(reservation);
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns stock to the counters and the database once the current transaction commits, e.g. for
+     * a cancelled order.
+     */
+    public void restockAfterCommit(Map<Long, Integer> quantities) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    restock(quantities);
+                }
+            });
+        } else {
+            restock(quantities);
+        }
+    }
+
+    /**
+     * Stock currently available for new reservations, or null if the product is not loaded.
+     */
+    public Integer available(Long productId) {
+        StripedStock counter = stock.get(productId);
+        return counter != null ? counter.available() : null;
+    }
+
+    /**
+     * Queues a reload of a product's counter after its stock was changed outside checkout. The reload
+     * runs on the write-behind thread, not on the thread that committed the change.
+     */
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled || !stock.containsKey(event.getProductId())) {
+            return;
+        }
+        if (event.getType() == ProductChangedEvent.Type.DELETED) {
+            stock.remove(event.getProductId());
+            return;
+        }
+        if (event.getType() == ProductChangedEvent.Type.STOCK_CHANGED && !event.isWrittenBehind()) {
+            staleProducts.add(event.getProductId());
+        }
+    }
+
+    void releaseExpired() {
+        long now = System.currentTimeMillis();
+        reservations.forEach((id, reservation) -> {
+            if (reservation.expiresAt < now) {
+                withSharedLocks(reservation.quantities.keySet(), () -> {
+                    if (reservations.remove(id, reservation)) {
+                        reservation.quantities.forEach((productId, quantity) -> counter(productId).add(quantity));
+                        log.warn("Released expired stock reservation {}", id);
+                    }
+                });
+            }
+        });
+    }
+
+    private void flushAndReload() {
+        try {
+            flush();
+            for (Long productId : new ArrayList<>(staleProducts)) {
+                staleProducts.remove(productId);
+                reload(productId);
+            }
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; a failed reload is retried on the next change
+            log.error("Inventory write-behind failed", e);
+        }
+    }
+
+    /**
+     * Writes the accumulated stock deltas in one UPDATE and publishes STOCK_CHANGED for them once it
+     * commits. Deltas that fail to write are kept for the next attempt.
+     */
+    void flush() {
+        synchronized (flushLock) {
+            Map<Long, Integer> batch = new HashMap<>();
+            pendingDeltas.forEach((productId, delta) -> {
+                int value = delta.getAndSet(0);
+                if (value != 0) {
+                    batch.put(productId, value);
+                }
+            });
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    productRepository.adjustStock(batch);
+                    productRepository.findAllById(batch.keySet()).forEach(product ->
+                            eventPublisher.publishEvent(ProductChangedEvent.stockWrittenBehind(product)));
+                });
+            } catch (RuntimeException e) {
+                batch.forEach(this::addPendingDelta);
+                log.error("Failed to write {} stock deltas, will retry", batch.size(), e);
+            }
+        }
+    }
+
+    private Reservation reserve(Map<Product, Integer> quantities) {
+        // Id order, like the database path, keeps partial reservations of overlapping orders predictable
+        Map<Long, Integer> byId = new TreeMap<>();
+        Map<Long, Product> products = new HashMap<>();
+        quantities.forEach((product, quantity) -> {
+            byId.merge(product.getId(), quantity, Integer::sum);
+            products.put(product.getId(), product);
+        });
+
+        Map<Long, Integer> taken = new LinkedHashMap<>();
+        Reservation reservation = new Reservation(reservationIds.incrementAndGet(), taken,
+                System.currentTimeMillis() + reservationTtlMillis);
+        withSharedLocks(byId.keySet(), () -> {
+            for (Map.Entry<Long, Integer> line : byId.entrySet()) {
+                StripedStock counter = counter(line.getKey());
+                if (!counter.tryTake(line.getValue())) {
+                    taken.forEach((productId, quantity) -> counter(productId).add(quantity));
+                    throw new InsufficientStockException(
+                            products.get(line.getKey()).getName(), line.getValue(), Math.max(counter.available(), 0));
+                }
+                taken.put(line.getKey(), line.getValue());
+            }
+            reservations.put(reservation.id, reservation);
+        });
+        return reservation;
+    }
+
+    private void confirm(Reservation reservation) {
+        withSharedLocks(reservation.quantities.keySet(), () -> {
+            if (!reservations.remove(reservation.id, reservation)) {
+                // Expired before the order committed and its stock went back; the order stands, so take
+                // it again even if that leaves the counter short
+                log.warn("Stock reservation {} expired before its order committed", reservation.id);
+                reservation.quantities.forEach((productId, quantity) -> counter(productId).add(-quantity));
+            }
+            reservation.quantities.forEach((productId, quantity) -> addPendingDelta(productId, -quantity));
+        });
+    }
+
+    private void release(Reservation reservation) {
+        withSharedLocks(reservation.quantities.keySet(), () -> {
+            if (reservations.remove(reservation.id, reservation)) {
+                reservation.quantities.forEach((productId, quantity) -> counter(productId).add(quantity));
+            }
+        });
+    }
+
+    private void restock(Map<Long, Integer> quantities) {
+        withSharedLocks(quantities.keySet(), () -> quantities.forEach((productId, quantity) -> {
+            StripedStock counter = stock.get(productId);
+            if (counter != null) {
+                counter.add(quantity);
+            }
+            addPendingDelta(productId, quantity);
+        }));
+    }
+
+    /**
+     * Rebuilds the counter as database stock plus unwritten deltas minus outstanding reservations.
+     * Holding the flush lock keeps a flush from moving deltas into the database halfway through, and
+     * the product's exclusive lock keeps reservations and confirmations out until the reset is done.
+     */
+    private void reload(Long productId) {
+        synchronized (flushLock) {
+            Lock lock = lock(productId).writeLock();
+            lock.lock();
+            try {
+                StripedStock counter = stock.get(productId);
+                if (counter == null) {
+                    return;
+                }
+                int reserved = reservations.values().stream()
+                        .mapToInt(reservation -> reservation.quantities.getOrDefault(productId, 0))
+                        .sum();
+                AtomicInteger pending = pendingDeltas.get(productId);
+                int unwritten = pending != null ? pending.get() : 0;
+                int inDatabase = productRepository.findStockQuantityById(productId).orElse(0);
+                counter.reset(inDatabase + unwritten - reserved);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Runs {@code action} holding the shared lock of every product, taken in id order.
+     */
+    private void withSharedLocks(Collection<Long> productIds, Runnable action) {
+        List<Lock> held = new ArrayList<>(productIds.size());
+        try {
+            for (Long productId : new TreeSet<>(productIds)) {
+                Lock lock = lock(productId).readLock();
+                lock.lock();
+                held.add(lock);
+            }
+            action.run();
+        } finally {
+            held.forEach(Lock::unlock);
+        }
+    }
+
+    private ReadWriteLock lock(Long productId) {
+        return locks.computeIfAbsent(productId, id -> new ReentrantReadWriteLock());
+    }
+
+    private StripedStock counter(Long productId) {
+        return stock.computeIfAbsent(productId, id ->
+                new StripedStock(stripes, productRepository.findStockQuantityById(id).orElse(0)));
+    }
+
+    private void addPendingDelta(Long productId, int delta) {
+        pendingDeltas.computeIfAbsent(productId, id -> new AtomicInteger()).addAndGet(delta);
+    }
+
+    private static final class Reservation {
+        final long id;
+        final Map<Long, Integer> quantities;
+        final long expiresAt;
+
+        Reservation(long id, Map<Long, Integer> quantities, long expiresAt) {
+            this.id = id;
+            this.quantities = quantities;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
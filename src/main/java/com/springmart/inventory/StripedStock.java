@@ -0,0 +1,169 @@
+package com.springmart.inventory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Available stock of one product split over several CAS counters, so concurrent reservations of the
+ * same product mostly touch different cache lines instead of contending on one. A reservation
+ * starts at a random stripe and drains stripes until it has enough; if the stripes together fall
+ * short it puts back what it took. While it does so, a concurrent reservation can briefly see too
+ * little stock, which only ever errs towards refusing.
+ *
+ * <p>Stripes never go negative. A forced take that the stripes cannot cover is recorded as debt in
+ * its own slot; returned stock pays the debt before it lands on a stripe, and no reservation
+ * succeeds while any debt is outstanding and cannot be settled from the stripes. The available
+ * total is the stripes' sum minus the debt.
+ */
+final class StripedStock {
+
+    // 16 ints = 64 bytes between stripes, one cache line each
+    private static final int PADDING = 16;
+
+    private final int stripes;
+    private final int debtIndex;
+    private final AtomicIntegerArray counts;
+
+    StripedStock(int stripes, int available) {
+        this.stripes = stripes;
+        this.debtIndex = stripes * PADDING;
+        this.counts = new AtomicIntegerArray((stripes + 1) * PADDING);
+        reset(available);
+    }
+
+    /**
+     * Takes {@code quantity} if available in total; returns false and changes nothing otherwise.
+     */
+    boolean tryTake(int quantity) {
+        if (!settleDebt()) {
+            return false;
+        }
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+        int remaining = quantity;
+        int[] taken = null;
+
+        for (int k = 0; k < stripes && remaining > 0; k++) {
+            int stripe = (start + k) % stripes;
+            int take = takeFromStripe(stripe, remaining);
+            remaining -= take;
+            if (take > 0 && remaining > 0) {
+                if (taken == null) {
+                    taken = new int[stripes];
+                }
+                taken[stripe] += take;
+            }
+        }
+
+        if (remaining == 0) {
+            return true;
+        }
+        if (taken != null) {
+            for (int stripe = 0; stripe < stripes; stripe++) {
+                if (taken[stripe] > 0) {
+                    counts.addAndGet(stripe * PADDING, taken[stripe]);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds stock back; a negative quantity forces a take even if it drives the total below zero.
+     * The part of a forced take the stripes cannot cover becomes debt, which returned stock repays
+     * before anything becomes available again.
+     */
+    void add(int quantity) {
+        if (quantity >= 0) {
+            int remaining = repayDebt(quantity);
+            if (remaining > 0) {
+                counts.addAndGet(ThreadLocalRandom.current().nextInt(stripes) * PADDING, remaining);
+            }
+            return;
+        }
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+        int remaining = -quantity;
+        for (int k = 0; k < stripes && remaining > 0; k++) {
+            remaining -= takeFromStripe((start + k) % stripes, remaining);
+        }
+        if (remaining > 0) {
+            counts.addAndGet(debtIndex, remaining);
+        }
+    }
+
+    int available() {
+        int sum = 0;
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            sum += counts.get(stripe * PADDING);
+        }
+        return sum - counts.get(debtIndex);
+    }
+
+    /**
+     * Spreads {@code available} evenly over the stripes and clears any debt. Not atomic with respect
+     * to concurrent takes.
+     */
+    void reset(int available) {
+        int share = Math.max(available, 0) / stripes;
+        int extra = Math.max(available, 0) % stripes;
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            counts.set(stripe * PADDING, share + (stripe < extra ? 1 : 0));
+        }
+        counts.set(debtIndex, Math.max(-available, 0));
+    }
+
+    /**
+     * Takes up to {@code wanted} from one stripe without letting it go below zero; returns how much.
+     */
+    private int takeFromStripe(int stripe, int wanted) {
+        int index = stripe * PADDING;
+        while (true) {
+            int current = counts.get(index);
+            if (current <= 0) {
+                return 0;
+            }
+            int take = Math.min(current, wanted);
+            if (counts.compareAndSet(index, current, current - take)) {
+                return take;
+            }
+        }
+    }
+
+    /**
+     * Pays as much debt as possible out of {@code quantity}; returns what is left of it.
+     */
+    private int repayDebt(int quantity) {
+        int remaining = quantity;
+        while (remaining > 0) {
+            int debt = counts.get(debtIndex);
+            if (debt <= 0) {
+                break;
+            }
+            int pay = Math.min(debt, remaining);
+            if (counts.compareAndSet(debtIndex, debt, debt - pay)) {
+                remaining -= pay;
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * Moves stock from the stripes onto the debt until it is paid; returns false if the stripes could
+     * not cover it. A racing forced take that lands after this check is honoured, never undone.
+     */
+    private boolean settleDebt() {
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+        for (int k = 0; k < stripes; k++) {
+            int debt = counts.get(debtIndex);
+            if (debt <= 0) {
+                return true;
+            }
+            int stripe = (start + k) % stripes;
+            int unused = repayDebt(takeFromStripe(stripe, debt));
+            if (unused > 0) {
+                // A concurrent repayment got there first; the surplus goes back where it came from
+                counts.addAndGet(stripe * PADDING, unused);
+            }
+        }
+        return counts.get(debtIndex) <= 0;
+    }
+}
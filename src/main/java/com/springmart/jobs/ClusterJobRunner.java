@@ -0,0 +1,206 @@
+package com.springmart.jobs;
+
+import com.springmart.dto.ScheduledJobDTO;
+import com.springmart.entity.ScheduledJob;
+import com.springmart.repository.ScheduledJobRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Runs scheduled maintenance jobs once across the cluster instead of once per node.
+ *
+ * <p>A job is split into {@code shards} slices of its id space ({@code mod(id, shards) = shard}).
+ * Each slice is guarded by a Postgres transaction advisory lock on (job name, shard), taken with
+ * {@code pg_try_advisory_xact_lock} in a transaction held open on its own connection while the
+ * slice runs: a node skips slices that another node is working on instead of waiting. The lock ends
+ * with that transaction, so it cannot outlive the run on a pooled connection the way a session lock
+ * whose unlock failed would; the job's own work runs in its own transactions. Nodes start at
+ * different shards so they spread over the slices, and a slice that finished less than
+ * {@code minIntervalMillis} ago is skipped, so each slice runs about once per period however many
+ * nodes fire the job.
+ *
+ * <p>Work that has to run on every node, such as rebuilding an in-memory index, goes through
+ * {@link #runOnEachNode}: it is not shared out, but its runs are recorded like any other job.
+ *
+ * <p>Every slice run is recorded in the {@code scheduled_jobs} registry: node, start, duration,
+ * rows affected and error.
+ */
+@Component
+@Slf4j
+public class ClusterJobRunner {
+
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_xact_lock(hashtext(?), ?)";
+
+    /**
+     * One slice of a job; returns the number of rows it affected.
+     */
+    @FunctionalInterface
+    public interface ShardedJob {
+        int run(int shard, int shards);
+    }
+
+    private final DataSource dataSource;
+    private final ScheduledJobRepository scheduledJobRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String node;
+
+    public ClusterJobRunner(DataSource dataSource, ScheduledJobRepository scheduledJobRepository,
+                            PlatformTransactionManager transactionManager) {
+        this.dataSource = dataSource;
+        this.scheduledJobRepository = scheduledJobRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.node = hostName();
+    }
+
+    /**
+     * Runs every slice of the job this node can lock and that is due. Returns the rows affected by
+     * the slices run here.
+     */
+    public int run(String name, int shards, long minIntervalMillis, ShardedJob job) {
+        int total = 0;
+        int offset = Math.floorMod(node.hashCode(), shards);
+        for (int i = 0; i < shards; i++) {
+            total += runShard(name, (offset + i) % shards, shards, minIntervalMillis, job);
+        }
+        return total;
+    }
+
+    /**
+     * Runs the job on this node, recorded under {@code name@node}; for per-node work such as
+     * rebuilding in-memory state. Returns the rows it affected.
+     */
+    public int runOnEachNode(String name, long minIntervalMillis, ShardedJob job) {
+        return run(name + "@" + node, 1, minIntervalMillis, job);
+    }
+
+    public String getNode() {
+        return node;
+    }
+
+    public List<ScheduledJobDTO> registry() {
+        return scheduledJobRepository.findAllByOrderByJobNameAscShardAsc().stream()
+                .map(job -> ScheduledJobDTO.builder()
+                        .jobName(job.getJobName())
+                        .shard(job.getShard())
+                        .lastNode(job.getLastNode())
+                        .lastStartedAt(job.getLastStartedAt())
+                        .lastFinishedAt(job.getLastFinishedAt())
+                        .lastDurationMs(job.getLastDurationMs())
+                        .lastRowsAffected(job.getLastRowsAffected())
+                        .lastError(job.getLastError())
+                        .runCount(job.getRunCount())
+                        .totalRows(job.getTotalRows())
+                        .build())
+                .toList();
+    }
+
+    private int runShard(String name, int shard, int shards, long minIntervalMillis, ShardedJob job) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                if (!tryLock(connection, name, shard)) {
+                    log.debug("Job {} shard {} is running elsewhere", name, shard);
+                    return 0;
+                }
+                if (ranWithin(name, shard, minIntervalMillis)) {
+                    return 0;
+                }
+                return execute(name, shard, shards, job);
+            } finally {
+                endLockTransaction(connection, name, shard);
+            }
+        } catch (SQLException e) {
+            log.warn("Could not lock job {} shard {}: {}", name, shard, e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Rolls back the lock transaction, which releases the lock. Should that fail, the connection is
+     * aborted rather than handed back to the pool with the transaction, and the lock, still open.
+     */
+    private static void endLockTransaction(Connection connection, String name, int shard) throws SQLException {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            log.warn("Could not release lock of job {} shard {}, closing its connection: {}",
+                    name, shard, e.getMessage());
+            connection.abort(Runnable::run);
+        }
+    }
+
+    private int execute(String name, int shard, int shards, ShardedJob job) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.currentTimeMillis();
+        int rows = 0;
+        String error = null;
+        try {
+            rows = job.run(shard, shards);
+        } catch (RuntimeException e) {
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+            log.error("Job {} shard {} failed", name, shard, e);
+        }
+        record(name, shard, startedAt, System.currentTimeMillis() - start, rows, error);
+        return rows;
+    }
+
+    private boolean ranWithin(String name, int shard, long minIntervalMillis) {
+        LocalDateTime threshold = LocalDateTime.now().minus(Duration.ofMillis(minIntervalMillis));
+        LocalDateTime lastFinished = transactionTemplate.execute(status -> scheduledJobRepository
+                .findByJobNameAndShard(name, shard)
+                .map(ScheduledJob::getLastFinishedAt)
+                .orElse(null));
+        return lastFinished != null && lastFinished.isAfter(threshold);
+    }
+
+    private void record(String name, int shard, LocalDateTime startedAt, long durationMillis, int rows, String error) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                ScheduledJob job = scheduledJobRepository.findByJobNameAndShard(name, shard)
+                        .orElseGet(() -> ScheduledJob.builder().jobName(name).shard(shard).build());
+                job.setLastNode(node);
+                job.setLastStartedAt(startedAt);
+                job.setLastFinishedAt(LocalDateTime.now());
+                job.setLastDurationMs(durationMillis);
+                job.setLastRowsAffected(rows);
+                job.setLastError(error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+                job.setRunCount(job.getRunCount() + 1);
+                job.setTotalRows(job.getTotalRows() + rows);
+                scheduledJobRepository.save(job);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not record run of job {} shard {}: {}", name, shard, e.getMessage());
+        }
+    }
+
+    private static boolean tryLock(Connection connection, String name, int shard) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(TRY_LOCK_SQL)) {
+            statement.setString(1, name);
+            statement.setInt(2, shard);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
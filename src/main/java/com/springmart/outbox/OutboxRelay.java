@@ -0,0 +1,273 @@
+package com.springmart.outbox;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springmart.dto.MetricPoint;
+import com.springmart.dto.NotificationMessage;
+import com.springmart.entity.OutboxEvent;
+import com.springmart.enums.OutboxDestination;
+import com.springmart.jobs.ClusterJobRunner;
+import com.springmart.repository.OutboxEventRepository;
+import com.springmart.service.CloudWatchService;
+import com.springmart.service.SNSService;
+import com.springmart.service.SQSService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import software.amazon.awssdk.services.cloudwatch.model.MetricDatum;
+import software.amazon.awssdk.services.cloudwatch.model.StandardUnit;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the outbox: leases due events in a short transaction (claimed with
+ * {@code FOR UPDATE SKIP LOCKED}, so every node can run the relay at once), delivers each batch with
+ * one SQS SendMessageBatch, SNS PublishBatch and CloudWatch PutMetricData call per 10 (SQS, SNS) or
+ * 20 (CloudWatch) events after that transaction has committed, then records the outcome per event.
+ * No row lock or connection is held while the AWS calls run.
+ *
+ * <p>Delivery is at least once: a crash, or a lease of {@code app.outbox.lease-seconds} running out,
+ * between sending and recording re-sends the event. Failed events are retried with exponential
+ * backoff up to {@code app.outbox.max-attempts} and then left in the table, with their last error,
+ * for inspection. The relay polls on its own thread rather than Spring's scheduler.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private static final long MAX_BACKOFF_SECONDS = 600;
+    private static final String CLEANUP_JOB_NAME = "outbox-cleanup";
+    // The cleanup fires nightly on every node; one run per night is enough
+    private static final long CLEANUP_MIN_INTERVAL_MILLIS = Duration.ofHours(12).toMillis();
+    // CloudWatch takes 1000 metrics per request; smaller requests keep a rejection cheap to retry
+    private static final int METRICS_PER_REQUEST = 20;
+    private static final TypeReference<List<MetricPoint>> METRICS = new TypeReference<>() {
+    };
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final SQSService sqsService;
+    private final SNSService snsService;
+    private final CloudWatchService cloudWatchService;
+    private final ClusterJobRunner clusterJobRunner;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long pollMillis;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final int leaseSeconds;
+    private final int retentionDays;
+    private final ScheduledExecutorService executor;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, SQSService sqsService, SNSService snsService,
+                       CloudWatchService cloudWatchService, ClusterJobRunner clusterJobRunner, ObjectMapper objectMapper,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${app.outbox.relay-enabled:true}") boolean enabled,
+                       @Value("${app.outbox.poll-ms:500}") long pollMillis,
+                       @Value("${app.outbox.batch-size:100}") int batchSize,
+                       @Value("${app.outbox.max-attempts:10}") int maxAttempts,
+                       @Value("${app.outbox.lease-seconds:60}") int leaseSeconds,
+                       @Value("${app.outbox.retention-days:7}") int retentionDays) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sqsService = sqsService;
+        this.snsService = snsService;
+        this.cloudWatchService = cloudWatchService;
+        this.clusterJobRunner = clusterJobRunner;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.pollMillis = pollMillis;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.leaseSeconds = leaseSeconds;
+        this.retentionDays = retentionDays;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            executor.scheduleWithFixedDelay(this::drainSafely, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Relays batches until the outbox has no more due events.
+     */
+    public void drain() {
+        int relayed;
+        do {
+            relayed = relayBatch();
+        } while (relayed == batchSize);
+    }
+
+    @Scheduled(cron = "${app.outbox.cleanup-cron:0 30 3 * * *}")
+    public void deleteProcessed() {
+        clusterJobRunner.run(CLEANUP_JOB_NAME, 1, CLEANUP_MIN_INTERVAL_MILLIS, (shard, shards) -> {
+            Integer deleted = transactionTemplate.execute(status ->
+                    outboxEventRepository.deleteProcessedBefore(LocalDateTime.now().minusDays(retentionDays)));
+            log.info("Deleted {} processed outbox events", deleted);
+            return deleted != null ? deleted : 0;
+        });
+    }
+
+    private void drainSafely() {
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; leased events are picked up again once their lease runs out
+            log.error("Outbox relay failed", e);
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> batch = transactionTemplate.execute(status ->
+                outboxEventRepository.claimBatch(batchSize, maxAttempts, leaseSeconds));
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<OutboxDestination, List<OutboxEvent>> byDestination = new EnumMap<>(OutboxDestination.class);
+        for (OutboxEvent event : batch) {
+            byDestination.computeIfAbsent(event.getDestination(), d -> new ArrayList<>()).add(event);
+        }
+
+        Set<Long> failed = new HashSet<>();
+        Map<Long, String> errors = new LinkedHashMap<>();
+        byDestination.forEach((destination, events) -> {
+            try {
+                failed.addAll(switch (destination) {
+                    case SQS -> sendToSqs(events);
+                    case SNS -> publishToSns(events);
+                    case CLOUDWATCH -> putMetrics(events);
+                });
+            } catch (IOException | RuntimeException e) {
+                log.error("Failed to relay {} {} outbox events", events.size(), destination, e);
+                events.forEach(event -> {
+                    failed.add(event.getId());
+                    errors.put(event.getId(), e.getMessage());
+                });
+            }
+        });
+
+        List<Long> processed = batch.stream().map(OutboxEvent::getId).filter(id -> !failed.contains(id)).toList();
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!processed.isEmpty()) {
+                outboxEventRepository.markProcessed(processed);
+            }
+            for (OutboxEvent event : batch) {
+                if (!failed.contains(event.getId())) {
+                    continue;
+                }
+                int attempts = event.getAttempts() + 1;
+                outboxEventRepository.markFailed(event.getId(),
+                        truncate(errors.getOrDefault(event.getId(), "Rejected by " + event.getDestination())),
+                        now.plusSeconds(Math.min(1L << Math.min(attempts, 20), MAX_BACKOFF_SECONDS)));
+                if (attempts >= maxAttempts) {
+                    log.error("Giving up on outbox event {} ({}) after {} attempts", event.getId(),
+                            event.getDestination(), attempts);
+                }
+            }
+        });
+        log.debug("Relayed {} outbox events, {} failed", processed.size(), failed.size());
+        return batch.size();
+    }
+
+    private Set<Long> sendToSqs(List<OutboxEvent> events) throws IOException {
+        Map<String, Long> orderIds = new LinkedHashMap<>();
+        for (OutboxEvent event : events) {
+            JsonNode payload = objectMapper.readTree(event.getPayload());
+            orderIds.put(event.getId().toString(), payload.get("orderId").asLong());
+        }
+        return toEventIds(sqsService.sendOrderMessages(orderIds));
+    }
+
+    private Set<Long> publishToSns(List<OutboxEvent> events) throws IOException {
+        Map<String, NotificationMessage> messages = new LinkedHashMap<>();
+        for (OutboxEvent event : events) {
+            messages.put(event.getId().toString(), objectMapper.readValue(event.getPayload(), NotificationMessage.class));
+        }
+        return toEventIds(snsService.publishBatch(messages));
+    }
+
+    /**
+     * Sends whole events per PutMetricData request, so a rejected request fails only its own events
+     * and a retry never re-sends metrics that were already accepted.
+     */
+    private Set<Long> putMetrics(List<OutboxEvent> events) throws IOException {
+        Set<Long> failed = new HashSet<>();
+        List<MetricDatum> metrics = new ArrayList<>();
+        List<Long> eventIds = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            List<MetricDatum> eventMetrics = new ArrayList<>();
+            for (MetricPoint point : objectMapper.readValue(event.getPayload(), METRICS)) {
+                eventMetrics.add(MetricDatum.builder()
+                        .metricName(point.getName())
+                        .value(point.getValue())
+                        .unit(StandardUnit.fromValue(point.getUnit()))
+                        .timestamp(Instant.ofEpochMilli(point.getTimestamp()))
+                        .build());
+            }
+            if (!metrics.isEmpty() && metrics.size() + eventMetrics.size() > METRICS_PER_REQUEST) {
+                putMetricRequest(metrics, eventIds, failed);
+            }
+            metrics.addAll(eventMetrics);
+            eventIds.add(event.getId());
+        }
+        if (!eventIds.isEmpty()) {
+            putMetricRequest(metrics, eventIds, failed);
+        }
+        return failed;
+    }
+
+    private void putMetricRequest(List<MetricDatum> metrics, List<Long> eventIds, Set<Long> failed) {
+        if (!metrics.isEmpty() && !cloudWatchService.putMetricRequest(new ArrayList<>(metrics))) {
+            failed.addAll(eventIds);
+        }
+        metrics.clear();
+        eventIds.clear();
+    }
+
+    private static Set<Long> toEventIds(Set<String> entryIds) {
+        Set<Long> ids = new HashSet<>();
+        entryIds.forEach(id -> ids.add(Long.valueOf(id)));
+        return ids;
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
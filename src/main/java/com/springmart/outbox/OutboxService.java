@@ -0,0 +1,76 @@
+package com.springmart.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springmart.dto.MetricPoint;
+import com.springmart.entity.Order;
+import com.springmart.entity.OutboxEvent;
+import com.springmart.enums.OutboxDestination;
+import com.springmart.repository.OutboxEventRepository;
+import com.springmart.service.SNSService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records order side effects in the outbox as part of the caller's transaction, so they are sent
+ * exactly when the order commits and survive a crash right after it. {@link OutboxRelay} delivers
+ * them.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final SNSService snsService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Queues the order for processing, notifies subscribers and records the order metrics.
+     *
+     * @param notifyAs customer shown in the notification (email, or order number for guests)
+     */
+    public void orderPlaced(Order order, String notifyAs) {
+        double amount = order.getTotalAmount().doubleValue();
+        long now = System.currentTimeMillis();
+        record(order.getId(), OutboxDestination.SQS, Map.of("orderId", order.getId()));
+        record(order.getId(), OutboxDestination.SNS, snsService.orderPlacedMessage(order.getId(), notifyAs, amount));
+        record(order.getId(), OutboxDestination.CLOUDWATCH, List.of(
+                new MetricPoint("OrdersPlaced", 1.0, "Count", now),
+                new MetricPoint("Revenue", amount, "None", now)));
+    }
+
+    public void orderShipped(Order order, String userEmail, String trackingNumber) {
+        record(order.getId(), OutboxDestination.SNS,
+                snsService.orderShippedMessage(order.getId(), userEmail, trackingNumber));
+    }
+
+    public void orderDelivered(Order order, String userEmail) {
+        record(order.getId(), OutboxDestination.SNS, snsService.orderDeliveredMessage(order.getId(), userEmail));
+        record(order.getId(), OutboxDestination.CLOUDWATCH, List.of(
+                new MetricPoint("OrdersCompleted", 1.0, "Count", System.currentTimeMillis())));
+    }
+
+    private void record(Long orderId, OutboxDestination destination, Object payload) {
+        LocalDateTime now = LocalDateTime.now();
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise " + destination + " outbox payload", e);
+        }
+        outboxEventRepository.save(OutboxEvent.builder()
+                .destination(destination)
+                .aggregateId(orderId)
+                .payload(json)
+                .availableAt(now)
+                .createdAt(now)
+                .build());
+    }
+}
@@ -0,0 +1,353 @@
+package com.springmart.recommendation;
+
+import com.springmart.event.OrderPlacedEvent;
+import com.springmart.jobs.ClusterJobRunner;
+import com.springmart.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Item-to-item "customers also bought" model: for every purchased product, its top-N co-purchased
+ * products scored by cosine similarity {@code co(a,b) / sqrt(orders(a) * orders(b))}.
+ *
+ * <p>A full build reads order_items once, groups them into baskets and then scores every product's
+ * neighbourhood in parallel on a fork/join pool; products are independent, so workers share nothing
+ * but the read-only baskets. New orders update the affected rows incrementally: existing neighbours
+ * gain counts and new pairs are admitted while a row has room or once they outscore its weakest
+ * entry. The scheduled rebuild restores the exact ranking. The model lives in each node's memory,
+ * so every node rebuilds its own; {@link ClusterJobRunner} records the runs per node.
+ */
+@Component
+@Slf4j
+public class CoPurchaseModel {
+
+    private static final int PAIR_BATCH_SIZE = 10_000;
+    private static final int PRODUCTS_PER_TASK = 256;
+    private static final String JOB_NAME = "co-purchase-rebuild";
+
+    private final OrderRepository orderRepository;
+    private final ClusterJobRunner clusterJobRunner;
+    private final int neighbours;
+    private final ForkJoinPool pool;
+
+    // Sparse matrix: product id -> its top-N row. Rows are immutable and replaced on update
+    private final Map<Long, Row> rows = new ConcurrentHashMap<>();
+    // Number of orders containing each product
+    private final Map<Long, Integer> orderCounts = new ConcurrentHashMap<>();
+    // Guards incremental updates and the swap at the end of a build; the build itself runs unlocked
+    private final Object updateLock = new Object();
+    private volatile boolean ready;
+
+    public CoPurchaseModel(OrderRepository orderRepository, ClusterJobRunner clusterJobRunner,
+                           @Value("${app.recommendations.neighbours:50}") int neighbours,
+                           @Value("${app.recommendations.build-parallelism:0}") int parallelism) {
+        this.orderRepository = orderRepository;
+        this.clusterJobRunner = clusterJobRunner;
+        this.neighbours = neighbours;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Co-purchased product ids for a product, best first.
+     */
+    public List<Long> alsoBought(Long productId, int limit) {
+        Row row = rows.get(productId);
+        if (row == null) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(Math.min(limit, row.ids.length));
+        for (int i = 0; i < row.ids.length && ids.size() < limit; i++) {
+            ids.add(row.ids[i]);
+        }
+        return ids;
+    }
+
+    /**
+     * Products most co-purchased with any of {@code purchased}, summing similarity over the history
+     * and excluding the history itself.
+     */
+    public List<Long> recommendFor(Collection<Long> purchased, int limit) {
+        Map<Long, Double> scores = new HashMap<>();
+        for (Long productId : purchased) {
+            Row row = rows.get(productId);
+            if (row == null) {
+                continue;
+            }
+            for (int i = 0; i < row.ids.length; i++) {
+                scores.merge(row.ids[i], (double) row.scores[i], Double::sum);
+            }
+        }
+        purchased.forEach(scores::remove);
+
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        CompletableFuture.runAsync(this::rebuildQuietly, pool);
+    }
+
+    @Scheduled(cron = "${app.recommendations.rebuild-cron:0 0 4 * * *}")
+    public void scheduledRebuild() {
+        clusterJobRunner.runOnEachNode(JOB_NAME, 0, (shard, shards) -> {
+            rebuild();
+            return rows.size();
+        });
+    }
+
+    public synchronized void rebuild() {
+        // synchronized only serialises builds; order events keep flowing through updateLock
+        long start = System.currentTimeMillis();
+        List<long[]> baskets = loadBaskets();
+
+        // Inverted index: product -> baskets containing it
+        Map<Long, List<Integer>> basketsByProduct = new HashMap<>();
+        for (int b = 0; b < baskets.size(); b++) {
+            for (long productId : baskets.get(b)) {
+                basketsByProduct.computeIfAbsent(productId, id -> new ArrayList<>()).add(b);
+            }
+        }
+        Map<Long, Integer> counts = new HashMap<>();
+        basketsByProduct.forEach((productId, list) -> counts.put(productId, list.size()));
+
+        long[] products = basketsByProduct.keySet().stream().mapToLong(Long::longValue).toArray();
+        Row[] built = new Row[products.length];
+        pool.invoke(new BuildRows(products, 0, products.length, built, baskets, basketsByProduct, counts));
+
+        Map<Long, Row> fresh = new HashMap<>(products.length * 2);
+        for (int i = 0; i < products.length; i++) {
+            if (built[i].ids.length > 0) {
+                fresh.put(products[i], built[i]);
+            }
+        }
+
+        // Orders placed during the build may be counted twice or missed until the next rebuild
+        synchronized (updateLock) {
+            orderCounts.clear();
+            orderCounts.putAll(counts);
+            rows.clear();
+            rows.putAll(fresh);
+        }
+        ready = true;
+
+        log.info("Built co-purchase model: {} baskets, {} products with neighbours in {} ms",
+                baskets.size(), fresh.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        if (!ready) {
+            return;
+        }
+        Set<Long> basket = new LinkedHashSet<>();
+        for (OrderPlacedEvent.Line line : event.getLines()) {
+            basket.add(line.getProductId());
+        }
+        synchronized (updateLock) {
+            for (Long productId : basket) {
+                orderCounts.merge(productId, 1, Integer::sum);
+            }
+            if (basket.size() < 2) {
+                return;
+            }
+            for (Long anchor : basket) {
+                rows.put(anchor, updatedRow(anchor, basket));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private Row updatedRow(Long anchor, Set<Long> basket) {
+        Row row = rows.getOrDefault(anchor, Row.EMPTY);
+        Map<Long, Integer> coCounts = new HashMap<>();
+        for (int i = 0; i < row.ids.length; i++) {
+            coCounts.put(row.ids[i], row.coCounts[i]);
+        }
+        for (Long other : basket) {
+            if (!other.equals(anchor)) {
+                coCounts.merge(other, 1, Integer::sum);
+            }
+        }
+        return Row.topN(anchor, coCounts, orderCounts, neighbours);
+    }
+
+    private List<long[]> loadBaskets() {
+        List<long[]> baskets = new ArrayList<>();
+        long afterOrderId = 0;
+        while (true) {
+            List<Object[]> pairs = orderRepository.findOrderProductPairs(afterOrderId, PAIR_BATCH_SIZE);
+            if (pairs.isEmpty()) {
+                break;
+            }
+            boolean lastBatch = pairs.size() < PAIR_BATCH_SIZE;
+            long lastOrderId = ((Number) pairs.get(pairs.size() - 1)[0]).longValue();
+            long firstOrderId = ((Number) pairs.get(0)[0]).longValue();
+            // The final order of a full batch may continue in the next one; leave it for that batch
+            // unless it is the only order in the batch
+            boolean holdBackLast = !lastBatch && lastOrderId != firstOrderId;
+
+            long currentOrder = -1;
+            Set<Long> basket = new LinkedHashSet<>();
+            for (Object[] pair : pairs) {
+                long orderId = ((Number) pair[0]).longValue();
+                if (holdBackLast && orderId == lastOrderId) {
+                    break;
+                }
+                if (orderId != currentOrder) {
+                    addBasket(baskets, basket);
+                    basket = new LinkedHashSet<>();
+                    currentOrder = orderId;
+                }
+                basket.add(((Number) pair[1]).longValue());
+                afterOrderId = orderId;
+            }
+            addBasket(baskets, basket);
+            if (lastBatch) {
+                break;
+            }
+        }
+        return baskets;
+    }
+
+    private static void addBasket(List<long[]> baskets, Set<Long> basket) {
+        if (!basket.isEmpty()) {
+            baskets.add(basket.stream().mapToLong(Long::longValue).toArray());
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("Failed to build co-purchase model", e);
+        }
+    }
+
+    /**
+     * Scores the neighbourhoods of products[from, to), splitting until ranges are small.
+     */
+    private final class BuildRows extends RecursiveAction {
+
+        private final long[] products;
+        private final int from;
+        private final int to;
+        private final Row[] out;
+        private final List<long[]> baskets;
+        private final Map<Long, List<Integer>> basketsByProduct;
+        private final Map<Long, Integer> counts;
+
+        BuildRows(long[] products, int from, int to, Row[] out, List<long[]> baskets,
+                  Map<Long, List<Integer>> basketsByProduct, Map<Long, Integer> counts) {
+            this.products = products;
+            this.from = from;
+            this.to = to;
+            this.out = out;
+            this.baskets = baskets;
+            this.basketsByProduct = basketsByProduct;
+            this.counts = counts;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PRODUCTS_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    out[i] = buildRow(products[i]);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new BuildRows(products, from, mid, out, baskets, basketsByProduct, counts),
+                    new BuildRows(products, mid, to, out, baskets, basketsByProduct, counts));
+        }
+
+        private Row buildRow(long anchor) {
+            Map<Long, Integer> coCounts = new HashMap<>();
+            for (int b : basketsByProduct.get(anchor)) {
+                for (long other : baskets.get(b)) {
+                    if (other != anchor) {
+                        coCounts.merge(other, 1, Integer::sum);
+                    }
+                }
+            }
+            return Row.topN(anchor, coCounts, counts, neighbours);
+        }
+    }
+
+    /**
+     * One product's neighbours sorted by score, with the raw co-purchase counts kept for
+     * incremental updates.
+     */
+    private static final class Row {
+
+        static final Row EMPTY = new Row(new long[0], new int[0], new float[0]);
+
+        final long[] ids;
+        final int[] coCounts;
+        final float[] scores;
+
+        Row(long[] ids, int[] coCounts, float[] scores) {
+            this.ids = ids;
+            this.coCounts = coCounts;
+            this.scores = scores;
+        }
+
+        static Row topN(long anchor, Map<Long, Integer> coCounts, Map<Long, Integer> orderCounts, int n) {
+            int anchorCount = Math.max(1, orderCounts.getOrDefault(anchor, 1));
+            List<long[]> entries = new ArrayList<>(coCounts.size());
+            float[] allScores = new float[coCounts.size()];
+            int k = 0;
+            for (Map.Entry<Long, Integer> entry : coCounts.entrySet()) {
+                int otherCount = Math.max(1, orderCounts.getOrDefault(entry.getKey(), 1));
+                allScores[k] = (float) (entry.getValue() / Math.sqrt((double) anchorCount * otherCount));
+                entries.add(new long[]{entry.getKey(), entry.getValue(), k});
+                k++;
+            }
+            entries.sort((a, b) -> {
+                int byScore = Float.compare(allScores[(int) b[2]], allScores[(int) a[2]]);
+                return byScore != 0 ? byScore : Long.compare(a[0], b[0]);
+            });
+
+            int size = Math.min(n, entries.size());
+            long[] ids = new long[size];
+            int[] counts = new int[size];
+            float[] scores = new float[size];
+            for (int i = 0; i < size; i++) {
+                long[] entry = entries.get(i);
+                ids[i] = entry[0];
+                counts[i] = (int) entry[1];
+                scores[i] = allScores[(int) entry[2]];
+            }
+            return new Row(ids, counts, scores);
+        }
+    }
+}
@@ -0,0 +1,508 @@
+package com.springmart.recommendation;
+
+import com.springmart.entity.Product;
+import com.springmart.event.ProductChangedEvent;
+import com.springmart.jobs.ClusterJobRunner;
+import com.springmart.repository.ProductRepository;
+import com.springmart.search.Tokenizer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Content-based "similar products": every active product becomes a TF-IDF vector over its name,
+ * description and category name, hashed into a fixed number of dimensions and L2-normalised, and
+ * the vectors are kept in an {@link HnswIndex} for approximate nearest-neighbour lookups that never
+ * touch the database.
+ *
+ * <p>Document frequencies are fixed when the index is built; products indexed afterwards are
+ * weighted against that vocabulary (unseen terms count as rare) until the next full build. The index
+ * is saved to {@code app.recommendations.content.index-file} after builds and periodically while it
+ * has unsaved changes, so a restart loads the file and only re-reads products updated since.
+ *
+ * <p>Builds, nightly rebuilds and compactions run on a dedicated background thread; the scheduled
+ * methods only hand them over, so they never hold up other scheduled work.
+ */
+@Component
+@Slf4j
+public class ContentSimilarityIndex {
+
+    private static final int FILE_MAGIC = 0x53494D31; // "SIM1"
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final String JOB_NAME = "content-similarity-rebuild";
+    private static final double MAX_DELETED_RATIO = 0.25;
+    private static final int NAME_WEIGHT = 2;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    // Products updated this long before the file was written are re-read anyway, to cover clock skew
+    private static final long CATCH_UP_SLACK_SECONDS = 60;
+
+    private final ProductRepository productRepository;
+    private final ClusterJobRunner clusterJobRunner;
+    private final boolean enabled;
+    private final int dimensions;
+    private final int m;
+    private final int efConstruction;
+    private final int efSearch;
+    private final Path indexFile;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "content-similarity-build");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private HnswIndex index;
+    private Vocabulary vocabulary = Vocabulary.EMPTY;
+    private volatile boolean ready;
+    private volatile boolean rebuilding;
+    private volatile boolean dirty;
+
+    public ContentSimilarityIndex(ProductRepository productRepository, ClusterJobRunner clusterJobRunner,
+                                  @Value("${app.recommendations.content.enabled:true}") boolean enabled,
+                                  @Value("${app.recommendations.content.dimensions:512}") int dimensions,
+                                  @Value("${app.recommendations.content.m:16}") int m,
+                                  @Value("${app.recommendations.content.ef-construction:100}") int efConstruction,
+                                  @Value("${app.recommendations.content.ef-search:64}") int efSearch,
+                                  @Value("${app.recommendations.content.index-file:data/content-similarity.idx}") String indexFile) {
+        this.productRepository = productRepository;
+        this.clusterJobRunner = clusterJobRunner;
+        this.enabled = enabled;
+        this.dimensions = dimensions;
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+        this.indexFile = Paths.get(indexFile);
+        this.index = new HnswIndex(dimensions, m, efConstruction);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private int liveCount() {
+        lock.readLock().lock();
+        try {
+            return index.liveCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the products whose content is closest to this one, best first; empty when the product
+     * is not indexed.
+     */
+    public List<Long> similarTo(Long productId, int limit) {
+        lock.readLock().lock();
+        try {
+            float[] vector = index.vector(productId);
+            if (vector == null) {
+                return List.of();
+            }
+            return index.search(vector, limit, efSearch, productId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        runInBackground("build", () -> {
+            if (!loadFromFile()) {
+                rebuild();
+            }
+        });
+    }
+
+    @Scheduled(cron = "${app.recommendations.rebuild-cron:0 0 4 * * *}")
+    public void scheduledRebuild() {
+        if (enabled) {
+            // Per-node index, so every node rebuilds; the runner records each node's runs
+            runInBackground("rebuild", () -> clusterJobRunner.runOnEachNode(JOB_NAME, 0, (shard, shards) -> {
+                rebuild();
+                return liveCount();
+            }));
+        }
+    }
+
+    /**
+     * Rebuilds the graph from the vectors already in memory once tombstones make up too much of it.
+     */
+    @Scheduled(fixedDelayString = "${app.recommendations.content.compaction-check-ms:60000}")
+    public void compactIfNeeded() {
+        if (!ready || rebuilding) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            int deleted = index.deletedCount();
+            if (deleted == 0 || (double) deleted / (deleted + index.liveCount()) <= MAX_DELETED_RATIO) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        runInBackground("compaction", this::compact);
+    }
+
+    @Scheduled(fixedDelayString = "${app.recommendations.content.persist-ms:300000}")
+    public void persistIfDirty() {
+        if (ready && dirty) {
+            persist();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+        persistIfDirty();
+    }
+
+    /**
+     * Builds the vocabulary and graph from the database and swaps them in. Changes that arrive while
+     * the rebuild is running are replayed afterwards.
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        rebuilding = true;
+        changedDuringRebuild.clear();
+        try {
+            // Pass 1: document frequencies; pass 2: vectors. Each pass streams id-ordered batches
+            Map<String, Integer> documentFrequencies = new HashMap<>();
+            int documents = forEachActiveProduct(product -> {
+                for (String term : terms(product).keySet()) {
+                    documentFrequencies.merge(term, 1, Integer::sum);
+                }
+            });
+            Vocabulary fresh = new Vocabulary(documents, documentFrequencies);
+            HnswIndex built = new HnswIndex(dimensions, m, efConstruction);
+            forEachActiveProduct(product -> built.add(product.getId(), vectorize(product, fresh)));
+
+            lock.writeLock().lock();
+            try {
+                vocabulary = fresh;
+                index = built;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            rebuilding = false;
+        }
+
+        for (Long productId : changedDuringRebuild) {
+            reindex(productId);
+        }
+        changedDuringRebuild.clear();
+        ready = true;
+        persist();
+
+        log.info("Built content similarity index: {} products, {} terms in {} ms",
+                index.liveCount(), vocabulary.documentFrequencies.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Re-links the live vectors into a fresh graph without blocking lookups; changes made meanwhile
+     * are replayed on it.
+     */
+    private synchronized void compact() {
+        lock.readLock().lock();
+        try {
+            if (index.deletedCount() == 0) {
+                // A rebuild or an earlier queued compaction already got here
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        rebuilding = true;
+        changedDuringRebuild.clear();
+        try {
+            Map<Long, float[]> live;
+            lock.readLock().lock();
+            try {
+                live = index.liveVectors();
+            } finally {
+                lock.readLock().unlock();
+            }
+            HnswIndex compacted = new HnswIndex(dimensions, m, efConstruction);
+            live.forEach(compacted::add);
+
+            lock.writeLock().lock();
+            try {
+                index = compacted;
+                dirty = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            rebuilding = false;
+        }
+        for (Long productId : changedDuringRebuild) {
+            reindex(productId);
+        }
+        changedDuringRebuild.clear();
+    }
+
+    private void runInBackground(String what, Runnable task) {
+        builder.execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.error("Content similarity index {} failed", what, e);
+            }
+        });
+    }
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductChangedEvent.Type type = event.getType();
+        if (!enabled || type == ProductChangedEvent.Type.STOCK_CHANGED || type == ProductChangedEvent.Type.RATING_CHANGED) {
+            return;
+        }
+        if (rebuilding) {
+            changedDuringRebuild.add(event.getProductId());
+        }
+        if (type == ProductChangedEvent.Type.DELETED) {
+            remove(event.getProductId());
+        } else {
+            reindex(event.getProductId());
+        }
+    }
+
+    private void reindex(Long productId) {
+        // Runs after commit without a session, so load the category eagerly
+        productRepository.findByIdIn(List.of(productId)).stream()
+                .findFirst()
+                .ifPresentOrElse(this::index, () -> remove(productId));
+    }
+
+    private void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            if (Boolean.TRUE.equals(product.getIsActive())) {
+                index.add(product.getId(), vectorize(product, vocabulary));
+            } else {
+                index.remove(product.getId());
+            }
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            index.remove(productId);
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int forEachActiveProduct(Consumer<Product> action) {
+        int count = 0;
+        long lastId = 0;
+        List<Product> batch;
+        do {
+            batch = productRepository.findByIsActiveTrueAndIdGreaterThanOrderByIdAsc(
+                    lastId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            for (Product product : batch) {
+                action.accept(product);
+                lastId = product.getId();
+                count++;
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+        return count;
+    }
+
+    /**
+     * Weighted term counts for a product's name, category name and description.
+     */
+    private static Map<String, Integer> terms(Product product) {
+        Map<String, Integer> counts = new HashMap<>();
+        Tokenizer.tokenize(product.getName()).forEach(t -> counts.merge(t, NAME_WEIGHT, Integer::sum));
+        if (product.getCategory() != null) {
+            Tokenizer.tokenize(product.getCategory().getName())
+                    .forEach(t -> counts.merge(t, CATEGORY_WEIGHT, Integer::sum));
+        }
+        Tokenizer.tokenize(product.getDescription()).forEach(t -> counts.merge(t, DESCRIPTION_WEIGHT, Integer::sum));
+        return counts;
+    }
+
+    /**
+     * Sublinear TF times smoothed IDF, feature-hashed into {@code dimensions} buckets with a sign bit
+     * so that collisions cancel out rather than pile up, then L2-normalised.
+     */
+    private float[] vectorize(Product product, Vocabulary vocab) {
+        float[] vector = new float[dimensions];
+        terms(product).forEach((term, tf) -> {
+            int hash = term.hashCode();
+            int bucket = Math.floorMod(hash, dimensions);
+            float sign = (hash & 0x80000000) == 0 ? 1f : -1f;
+            vector[bucket] += sign * (float) ((1 + Math.log(tf)) * vocab.idf(term));
+        });
+
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+
+    private void persist() {
+        lock.readLock().lock();
+        try {
+            Path parent = indexFile.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path temp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(FILE_MAGIC);
+                out.writeLong(System.currentTimeMillis());
+                vocabulary.writeTo(out);
+                index.writeTo(out);
+            }
+            Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            dirty = false;
+        } catch (IOException e) {
+            log.warn("Could not save content similarity index to {}: {}", indexFile, e.getMessage());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Loads a previously saved index and re-reads the products changed since it was written.
+     * Returns false when there is no usable file.
+     */
+    private synchronized boolean loadFromFile() {
+        if (!Files.isReadable(indexFile)) {
+            return false;
+        }
+        long start = System.currentTimeMillis();
+        long savedAt;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != FILE_MAGIC) {
+                return false;
+            }
+            savedAt = in.readLong();
+            Vocabulary loadedVocabulary = Vocabulary.readFrom(in);
+            HnswIndex loadedIndex = HnswIndex.readFrom(in);
+            if (loadedIndex.dimensions() != dimensions) {
+                log.info("Ignoring content similarity index file built with {} dimensions", loadedIndex.dimensions());
+                return false;
+            }
+            lock.writeLock().lock();
+            try {
+                vocabulary = loadedVocabulary;
+                index = loadedIndex;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (IOException e) {
+            log.warn("Could not load content similarity index from {}: {}", indexFile, e.getMessage());
+            return false;
+        }
+
+        LocalDateTime since = LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(savedAt).minusSeconds(CATCH_UP_SLACK_SECONDS), ZoneId.systemDefault());
+        List<Product> changed = productRepository.findByUpdatedAtAfter(since);
+        changed.forEach(this::index);
+
+        // Hard deletes leave no row to re-read, so drop whatever is no longer active
+        Set<Long> active = new HashSet<>(productRepository.findActiveIds());
+        List<Long> gone;
+        lock.readLock().lock();
+        try {
+            gone = index.liveVectors().keySet().stream().filter(id -> !active.contains(id)).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+        gone.forEach(this::remove);
+        ready = true;
+
+        log.info("Loaded content similarity index: {} products, {} re-read, {} removed, in {} ms",
+                index.liveCount(), changed.size(), gone.size(), System.currentTimeMillis() - start);
+        return true;
+    }
+
+    private static final class Vocabulary {
+
+        static final Vocabulary EMPTY = new Vocabulary(0, Map.of());
+
+        final int documents;
+        final Map<String, Integer> documentFrequencies;
+
+        Vocabulary(int documents, Map<String, Integer> documentFrequencies) {
+            this.documents = documents;
+            this.documentFrequencies = documentFrequencies;
+        }
+
+        double idf(String term) {
+            int df = documentFrequencies.getOrDefault(term, 0);
+            return Math.log((1.0 + documents) / (1.0 + df)) + 1;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(documents);
+            out.writeInt(documentFrequencies.size());
+            for (Map.Entry<String, Integer> entry : documentFrequencies.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue());
+            }
+        }
+
+        static Vocabulary readFrom(DataInputStream in) throws IOException {
+            int documents = in.readInt();
+            int size = in.readInt();
+            Map<String, Integer> documentFrequencies = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                documentFrequencies.put(in.readUTF(), in.readInt());
+            }
+            return new Vocabulary(documents, documentFrequencies);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.springmart.recommendation;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size frequency sketch over long keys. Estimates never undercount; with width w and depth d
+ * an estimate exceeds the true count by more than {@code 2N/w} with probability at most {@code 2^-d},
+ * N being the total count added. Not thread-safe.
+ */
+final class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final int[] table;
+
+    CountMinSketch(int depth, int width) {
+        if (Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("width must be a power of two: " + width);
+        }
+        this.depth = depth;
+        this.width = width;
+        this.table = new int[depth * width];
+    }
+
+    void add(long key, int count) {
+        for (int row = 0; row < depth; row++) {
+            table[index(row, key)] += count;
+        }
+    }
+
+    int estimate(long key) {
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, table[index(row, key)]);
+        }
+        return min;
+    }
+
+    void clear() {
+        Arrays.fill(table, 0);
+    }
+
+    int depth() {
+        return depth;
+    }
+
+    int width() {
+        return width;
+    }
+
+    int cell(int row, int column) {
+        return table[row * width + column];
+    }
+
+    int index(int row, long key) {
+        return row * width + (int) (mix(key + row * 0x9E3779B97F4A7C15L) & (width - 1));
+    }
+
+    // SplitMix64 finalizer: a different seed per row gives (practically) independent hash functions
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
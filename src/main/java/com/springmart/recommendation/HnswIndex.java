@@ -0,0 +1,356 @@
+package com.springmart.recommendation;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+
+/**
+ * Hierarchical navigable small world graph over L2-normalised float vectors, ranking by dot product
+ * (cosine similarity). Nodes are dense ints; re-adding an id tombstones the old node, and tombstoned
+ * nodes keep routing searches but are never returned. Callers rebuild once tombstones pile up.
+ *
+ * <p>Not thread-safe; ContentSimilarityIndex serialises writers against readers.
+ */
+final class HnswIndex {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final int dimensions;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    private long[] ids = new long[1024];
+    private float[][] vectors = new float[1024][];
+    private int[][][] links = new int[1024][][];
+    private final BitSet deleted = new BitSet();
+    private final Map<Long, Integer> nodeById = new HashMap<>();
+
+    private int size;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    private final ThreadLocal<Visited> visited = ThreadLocal.withInitial(Visited::new);
+
+    HnswIndex(int dimensions, int m, int efConstruction) {
+        this.dimensions = dimensions;
+        this.m = m;
+        this.maxM0 = m * 2;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+    }
+
+    int dimensions() {
+        return dimensions;
+    }
+
+    int liveCount() {
+        return nodeById.size();
+    }
+
+    int deletedCount() {
+        return deleted.cardinality();
+    }
+
+    float[] vector(long id) {
+        Integer node = nodeById.get(id);
+        return node != null ? vectors[node] : null;
+    }
+
+    void remove(long id) {
+        Integer node = nodeById.remove(id);
+        if (node != null) {
+            deleted.set(node);
+        }
+    }
+
+    void add(long id, float[] vector) {
+        remove(id);
+        int node = size++;
+        ensureCapacity(size);
+        int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+
+        ids[node] = id;
+        vectors[node] = vector;
+        links[node] = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            links[node][l] = new int[0];
+        }
+        nodeById.put(id, node);
+
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+
+        int current = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            current = greedyClosest(vector, current, l);
+        }
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            List<Scored> candidates = searchLayer(vector, current, efConstruction, l);
+            int maxLinks = l == 0 ? maxM0 : m;
+            int[] neighbours = new int[Math.min(maxLinks, candidates.size())];
+            for (int i = 0; i < neighbours.length; i++) {
+                neighbours[i] = candidates.get(i).node;
+            }
+            links[node][l] = neighbours;
+            for (int neighbour : neighbours) {
+                connect(neighbour, node, l, maxLinks);
+            }
+            current = candidates.get(0).node;
+        }
+
+        if (level > maxLevel) {
+            entryPoint = node;
+            maxLevel = level;
+        }
+    }
+
+    /**
+     * Up to {@code k} live ids most similar to {@code query}, best first, excluding {@code excludeId}.
+     */
+    List<Long> search(float[] query, int k, int ef, long excludeId) {
+        if (entryPoint < 0) {
+            return List.of();
+        }
+        int current = entryPoint;
+        for (int l = maxLevel; l > 0; l--) {
+            current = greedyClosest(query, current, l);
+        }
+        List<Scored> candidates = searchLayer(query, current, Math.max(ef, k + 1), 0);
+
+        List<Long> result = new ArrayList<>(k);
+        for (Scored candidate : candidates) {
+            if (result.size() == k) {
+                break;
+            }
+            if (!deleted.get(candidate.node) && ids[candidate.node] != excludeId) {
+                result.add(ids[candidate.node]);
+            }
+        }
+        return result;
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(dimensions);
+        out.writeInt(m);
+        out.writeInt(efConstruction);
+        out.writeInt(size);
+        out.writeInt(entryPoint);
+        out.writeInt(maxLevel);
+        for (int node = 0; node < size; node++) {
+            out.writeLong(ids[node]);
+            out.writeBoolean(deleted.get(node));
+            for (float value : vectors[node]) {
+                out.writeFloat(value);
+            }
+            out.writeInt(links[node].length);
+            for (int[] level : links[node]) {
+                out.writeInt(level.length);
+                for (int neighbour : level) {
+                    out.writeInt(neighbour);
+                }
+            }
+        }
+    }
+
+    static HnswIndex readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != FORMAT_VERSION) {
+            throw new IOException("Unsupported HNSW index format");
+        }
+        HnswIndex index = new HnswIndex(in.readInt(), in.readInt(), in.readInt());
+        int size = in.readInt();
+        index.ensureCapacity(size);
+        index.size = size;
+        index.entryPoint = in.readInt();
+        index.maxLevel = in.readInt();
+        for (int node = 0; node < size; node++) {
+            long id = in.readLong();
+            boolean isDeleted = in.readBoolean();
+            float[] vector = new float[index.dimensions];
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] = in.readFloat();
+            }
+            int[][] nodeLinks = new int[in.readInt()][];
+            for (int l = 0; l < nodeLinks.length; l++) {
+                nodeLinks[l] = new int[in.readInt()];
+                for (int i = 0; i < nodeLinks[l].length; i++) {
+                    nodeLinks[l][i] = in.readInt();
+                }
+            }
+            index.ids[node] = id;
+            index.vectors[node] = vector;
+            index.links[node] = nodeLinks;
+            if (isDeleted) {
+                index.deleted.set(node);
+            } else {
+                index.nodeById.put(id, node);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Ids and vectors of all live nodes, for rebuilding without tombstones.
+     */
+    Map<Long, float[]> liveVectors() {
+        Map<Long, float[]> live = new HashMap<>(nodeById.size() * 2);
+        nodeById.forEach((id, node) -> live.put(id, vectors[node]));
+        return live;
+    }
+
+    private void connect(int from, int to, int level, int maxLinks) {
+        int[] current = links[from][level];
+        int[] grown = Arrays.copyOf(current, current.length + 1);
+        grown[current.length] = to;
+        if (grown.length <= maxLinks) {
+            links[from][level] = grown;
+            return;
+        }
+        // Over capacity: keep the closest maxLinks neighbours of "from"
+        float[] base = vectors[from];
+        Integer[] boxed = Arrays.stream(grown).boxed().toArray(Integer[]::new);
+        Arrays.sort(boxed, Comparator.comparingDouble((Integer n) -> -dot(base, vectors[n])));
+        int[] pruned = new int[maxLinks];
+        for (int i = 0; i < maxLinks; i++) {
+            pruned[i] = boxed[i];
+        }
+        links[from][level] = pruned;
+    }
+
+    private int greedyClosest(float[] query, int start, int level) {
+        int current = start;
+        float best = dot(query, vectors[current]);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int neighbour : links[current][level]) {
+                float similarity = dot(query, vectors[neighbour]);
+                if (similarity > best) {
+                    best = similarity;
+                    current = neighbour;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Beam search on one layer; returns up to {@code ef} nodes sorted by similarity, best first.
+     */
+    private List<Scored> searchLayer(float[] query, int start, int ef, int level) {
+        Visited seen = visited.get();
+        seen.reset(size);
+
+        PriorityQueue<Scored> frontier = new PriorityQueue<>(Comparator.comparingDouble((Scored s) -> -s.similarity));
+        PriorityQueue<Scored> best = new PriorityQueue<>(Comparator.comparingDouble((Scored s) -> s.similarity));
+
+        Scored first = new Scored(start, dot(query, vectors[start]));
+        seen.mark(start);
+        frontier.add(first);
+        best.add(first);
+
+        while (!frontier.isEmpty()) {
+            Scored candidate = frontier.poll();
+            if (best.size() >= ef && candidate.similarity < best.peek().similarity) {
+                break;
+            }
+            int[][] nodeLinks = links[candidate.node];
+            if (level >= nodeLinks.length) {
+                continue;
+            }
+            for (int neighbour : nodeLinks[level]) {
+                if (!seen.mark(neighbour)) {
+                    continue;
+                }
+                float similarity = dot(query, vectors[neighbour]);
+                if (best.size() < ef || similarity > best.peek().similarity) {
+                    Scored scored = new Scored(neighbour, similarity);
+                    frontier.add(scored);
+                    best.add(scored);
+                    if (best.size() > ef) {
+                        best.poll();
+                    }
+                }
+            }
+        }
+
+        List<Scored> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble((Scored s) -> -s.similarity));
+        return result;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newCapacity);
+        vectors = Arrays.copyOf(vectors, newCapacity);
+        links = Arrays.copyOf(links, newCapacity);
+    }
+
+    private static float dot(float[] a, float[] b) {
+        float sum = 0f;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private static final class Scored {
+        final int node;
+        final float similarity;
+
+        Scored(int node, float similarity) {
+            this.node = node;
+            this.similarity = similarity;
+        }
+    }
+
+    /**
+     * Per-thread visited marks; bumping the generation resets the set without clearing the array.
+     */
+    private static final class Visited {
+        private int[] marks = new int[0];
+        private int generation;
+
+        void reset(int size) {
+            if (marks.length < size) {
+                marks = new int[Math.max(size, marks.length * 2)];
+                generation = 0;
+            }
+            generation++;
+            if (generation == Integer.MAX_VALUE) {
+                Arrays.fill(marks, 0);
+                generation = 1;
+            }
+        }
+
+        /**
+         * Returns true if the node had not been visited yet.
+         */
+        boolean mark(int node) {
+            if (marks[node] == generation) {
+                return false;
+            }
+            marks[node] = generation;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.springmart.recommendation;
+
+import com.springmart.event.OrderPlacedEvent;
+import com.springmart.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Trending products from a sliding window of hourly purchase counts, fed by {@link OrderPlacedEvent}.
+ *
+ * <ul>
+ *   <li>Each hour has its own {@link CountMinSketch}; buckets form a ring of {@code window-hours}
+ *       and the oldest is cleared as the clock moves on, so memory is fixed however many products sell.</li>
+ *   <li>A decayed sketch holds the sum of all buckets weighted by {@code 0.5^(age / half-life)}, so a
+ *       product's score is one sketch lookup rather than one per hour.</li>
+ *   <li>A min-heap keeps the top {@code top-k} products by score; reads return a ranking that is
+ *       republished on every change, so {@link #top(int)} does no work.</li>
+ * </ul>
+ *
+ * The window is seeded from order history at startup.
+ */
+@Component
+@Slf4j
+public class TrendingEngine {
+
+    private final OrderRepository orderRepository;
+    private final int windowHours;
+    private final int topK;
+    private final double hourlyDecay;
+    private final double expiredWeight;
+
+    private final CountMinSketch[] buckets;
+    private final double[] decayed;
+    private final Map<Long, Candidate> candidates = new HashMap<>();
+    private final PriorityQueue<Candidate> heap =
+            new PriorityQueue<>(Comparator.comparingDouble((Candidate c) -> c.score).thenComparing(c -> c.productId));
+
+    private long currentHour;
+    private volatile List<Long> ranking = List.of();
+    private volatile boolean ready;
+
+    public TrendingEngine(OrderRepository orderRepository,
+                          @Value("${app.trending.window-hours:720}") int windowHours,
+                          @Value("${app.trending.half-life-hours:72}") double halfLifeHours,
+                          @Value("${app.trending.top-k:100}") int topK,
+                          @Value("${app.trending.sketch-depth:4}") int sketchDepth,
+                          @Value("${app.trending.sketch-width:2048}") int sketchWidth) {
+        this.orderRepository = orderRepository;
+        this.windowHours = windowHours;
+        this.topK = topK;
+        this.hourlyDecay = halfLifeHours > 0 ? Math.pow(0.5, 1.0 / halfLifeHours) : 1.0;
+        this.expiredWeight = Math.pow(hourlyDecay, windowHours);
+        this.buckets = new CountMinSketch[windowHours];
+        for (int i = 0; i < windowHours; i++) {
+            buckets[i] = new CountMinSketch(sketchDepth, sketchWidth);
+        }
+        this.decayed = new double[sketchDepth * sketchWidth];
+        this.currentHour = hourOf(LocalDateTime.now());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Product ids by descending trend score, at most {@code limit} (and at most top-k).
+     */
+    public List<Long> top(int limit) {
+        List<Long> current = ranking;
+        return current.size() <= limit ? current : current.subList(0, limit);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedFromHistory() {
+        long start = System.currentTimeMillis();
+        LocalDateTime since = LocalDateTime.now().minusHours(windowHours);
+        List<Object[]> rows = orderRepository.sumQuantitiesByProductAndHour(since);
+
+        synchronized (this) {
+            advanceTo(hourOf(LocalDateTime.now()));
+            for (Object[] row : rows) {
+                add(((Number) row[0]).longValue(), ((Number) row[2]).intValue(), ((Number) row[1]).longValue());
+            }
+            for (Object[] row : rows) {
+                offer(((Number) row[0]).longValue());
+            }
+            publish();
+        }
+        ready = true;
+        log.info("Seeded trending engine from {} hourly product counts in {} ms",
+                rows.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        record(event.getLines(), event.getPlacedAt() != null ? event.getPlacedAt() : LocalDateTime.now());
+    }
+
+    public synchronized void record(List<OrderPlacedEvent.Line> lines, LocalDateTime placedAt) {
+        advanceTo(hourOf(LocalDateTime.now()));
+        long hour = hourOf(placedAt);
+        for (OrderPlacedEvent.Line line : lines) {
+            add(line.getProductId(), line.getQuantity(), hour);
+        }
+        for (OrderPlacedEvent.Line line : lines) {
+            offer(line.getProductId());
+        }
+        publish();
+    }
+
+    /**
+     * Moves the window on at the top of every hour, even when nothing sells.
+     */
+    @Scheduled(cron = "${app.trending.rotate-cron:0 0 * * * *}")
+    public synchronized void rotate() {
+        advanceTo(hourOf(LocalDateTime.now()));
+
+        // Every score changed; re-rank the candidates and drop the ones that aged out entirely
+        List<Candidate> rescored = new ArrayList<>(candidates.values());
+        heap.clear();
+        candidates.clear();
+        for (Candidate candidate : rescored) {
+            candidate.score = score(candidate.productId);
+            if (candidate.score > 0) {
+                candidates.put(candidate.productId, candidate);
+                heap.add(candidate);
+            }
+        }
+        publish();
+    }
+
+    private void add(long productId, int quantity, long hour) {
+        long age = currentHour - Math.min(hour, currentHour);
+        if (age >= windowHours || quantity <= 0) {
+            return;
+        }
+        CountMinSketch bucket = buckets[(int) Math.floorMod(hour, (long) windowHours)];
+        bucket.add(productId, quantity);
+
+        double weight = Math.pow(hourlyDecay, age);
+        for (int row = 0; row < bucket.depth(); row++) {
+            decayed[bucket.index(row, productId)] += quantity * weight;
+        }
+    }
+
+    private void advanceTo(long hour) {
+        if (hour <= currentHour) {
+            return;
+        }
+        if (hour - currentHour >= windowHours) {
+            for (CountMinSketch bucket : buckets) {
+                bucket.clear();
+            }
+            Arrays.fill(decayed, 0);
+            currentHour = hour;
+            return;
+        }
+        while (currentHour < hour) {
+            currentHour++;
+            // The bucket for the new hour is the one that just left the window
+            CountMinSketch expired = buckets[(int) Math.floorMod(currentHour, (long) windowHours)];
+            for (int row = 0; row < expired.depth(); row++) {
+                for (int column = 0; column < expired.width(); column++) {
+                    int i = row * expired.width() + column;
+                    decayed[i] = Math.max(0, decayed[i] * hourlyDecay - expired.cell(row, column) * expiredWeight);
+                }
+            }
+            expired.clear();
+        }
+    }
+
+    private double score(long productId) {
+        CountMinSketch any = buckets[0];
+        double min = Double.MAX_VALUE;
+        for (int row = 0; row < any.depth(); row++) {
+            min = Math.min(min, decayed[any.index(row, productId)]);
+        }
+        return min;
+    }
+
+    private void offer(long productId) {
+        double score = score(productId);
+        Candidate existing = candidates.get(productId);
+        if (existing != null) {
+            heap.remove(existing);
+            existing.score = score;
+            heap.add(existing);
+            return;
+        }
+        if (candidates.size() < topK) {
+            Candidate candidate = new Candidate(productId, score);
+            candidates.put(productId, candidate);
+            heap.add(candidate);
+        } else if (heap.peek().score < score) {
+            Candidate evicted = heap.poll();
+            candidates.remove(evicted.productId);
+            Candidate candidate = new Candidate(productId, score);
+            candidates.put(productId, candidate);
+            heap.add(candidate);
+        }
+    }
+
+    private void publish() {
+        List<Candidate> sorted = new ArrayList<>(heap);
+        sorted.sort(Comparator.comparingDouble((Candidate c) -> -c.score).thenComparing(c -> c.productId));
+        List<Long> ids = new ArrayList<>(sorted.size());
+        for (Candidate candidate : sorted) {
+            ids.add(candidate.productId);
+        }
+        ranking = List.copyOf(ids);
+    }
+
+    private static long hourOf(LocalDateTime time) {
+        // Same clock the orders table is written with (LocalDateTime, no zone)
+        return time.toEpochSecond(ZoneOffset.UTC) / 3600;
+    }
+
+    private static final class Candidate {
+        final long productId;
+        double score;
+
+        Candidate(long productId, double score) {
+            this.productId = productId;
+            this.score = score;
+        }
+    }
+}
@@ -2,6 +2,9 @@ package com.springmart.repository;
 
 import com.springmart.entity.GuestSession;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -16,4 +19,16 @@ public interface GuestSessionRepository extends JpaRepository<GuestSession, Long
     Optional<GuestSession> findByEmail(String email);
     
     List<GuestSession> findByExpiresAtBefore(LocalDateTime dateTime);
+
+    // Cart items of the expired sessions in one shard (mod(id, shards) = shard) of the session ids
+    @Modifying
+    @Query(value = "DELETE FROM guest_cart_items WHERE session_id IN (" +
+            "SELECT session_id FROM guest_sessions " +
+            "WHERE expires_at < :now AND mod(id, :shards) = :shard)", nativeQuery = true)
+    int deleteExpiredCartItems(@Param("now") LocalDateTime now, @Param("shard") int shard, @Param("shards") int shards);
+
+    @Modifying
+    @Query(value = "DELETE FROM guest_sessions WHERE expires_at < :now AND mod(id, :shards) = :shard",
+            nativeQuery = true)
+    int deleteExpired(@Param("now") LocalDateTime now, @Param("shard") int shard, @Param("shards") int shards);
 }
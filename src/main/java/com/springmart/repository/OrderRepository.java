@@ -6,13 +6,15 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderRepositoryCustom {
 
     Optional<Order> findByOrderNumber(String orderNumber);
 
@@ -34,4 +36,28 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByGuestEmail(String guestEmail);
 
     Optional<Order> findByOrderNumberAndGuestEmail(String orderNumber, String guestEmail);
+
+    // [productId, epoch hour, quantity] per product and hour since the given time; seeds TrendingEngine
+    @Query(value = "SELECT oi.product_id, " +
+            "CAST(EXTRACT(EPOCH FROM date_trunc('hour', o.created_at)) AS BIGINT) / 3600, " +
+            "SUM(oi.quantity) " +
+            "FROM order_items oi JOIN orders o ON o.id = oi.order_id " +
+            "WHERE o.created_at > :since " +
+            "GROUP BY oi.product_id, date_trunc('hour', o.created_at)", nativeQuery = true)
+    List<Object[]> sumQuantitiesByProductAndHour(@Param("since") LocalDateTime since);
+
+    // [orderId, productId] pairs in order id order, keyset-paged; feeds the co-purchase model build
+    @Query(value = "SELECT oi.order_id, oi.product_id FROM order_items oi " +
+            "WHERE oi.order_id > :afterOrderId ORDER BY oi.order_id, oi.product_id LIMIT :limit", nativeQuery = true)
+    List<Object[]> findOrderProductPairs(@Param("afterOrderId") long afterOrderId, @Param("limit") int limit);
+
+    // [orderId, status, createdAt] of orders still in the given statuses, keyset-paged by id;
+    // rehydrates the order lifecycle wheel at startup
+    @Query(value = "SELECT o.id, o.status, o.created_at FROM orders o " +
+            "WHERE o.status IN (:statuses) AND o.id > :afterId ORDER BY o.id LIMIT :limit", nativeQuery = true)
+    List<Object[]> findLifecycleEntries(@Param("statuses") List<String> statuses, @Param("afterId") long afterId,
+                                        @Param("limit") int limit);
+
+    @Query("SELECT DISTINCT oi.product.id FROM OrderItem oi WHERE oi.order.user.id = :userId")
+    List<Long> findPurchasedProductIds(@Param("userId") Long userId);
 }
@@ -0,0 +1,25 @@
+package com.springmart.repository;
+
+import com.springmart.enums.OrderStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OrderRepositoryCustom {
+
+    /**
+     * Moves up to {@code limit} of the oldest orders in {@code from} created before
+     * {@code createdBefore} to {@code to}, and writes a status history row for each, in one
+     * statement. Orders locked by another transaction are skipped, so callers running concurrently,
+     * e.g. on several nodes, take disjoint chunks. Returns the ids moved.
+     */
+    List<Long> transitionStatus(OrderStatus from, OrderStatus to, LocalDateTime createdBefore, int limit, String notes);
+
+    /**
+     * Moves those of the given orders that are still in {@code from} to {@code to}, and writes a
+     * status history row for each, in one statement. Orders no longer in {@code from} are left
+     * alone. Returns the ids moved.
+     */
+    List<Long> transitionStatusByIds(OrderStatus from, OrderStatus to, Collection<Long> ids, String notes);
+}
@@ -0,0 +1,81 @@
+package com.springmart.repository;
+
+import com.springmart.enums.OrderStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+    // Select a chunk through the (status, created_at) index, update it, and insert the history rows
+    // from the updated ids, all in one round trip. SKIP LOCKED hands concurrent callers disjoint chunks
+    private static final String TRANSITION_SQL = "WITH chunk AS ("
+            + "  SELECT id FROM orders"
+            + "  WHERE status = :fromStatus AND created_at < :createdBefore"
+            + "  ORDER BY created_at"
+            + "  LIMIT :limit"
+            + "  FOR UPDATE SKIP LOCKED"
+            + "), moved AS ("
+            + "  UPDATE orders o SET status = :toStatus, updated_at = now()"
+            + "  FROM chunk WHERE o.id = chunk.id"
+            + "  RETURNING o.id"
+            + "), history AS ("
+            + "  INSERT INTO order_status_history (order_id, status, notes, created_at)"
+            + "  SELECT id, :toStatus, :notes, now() FROM moved"
+            + ") "
+            + "SELECT id FROM moved";
+
+    // Same as above for a known set of orders. Locks are taken in id order and waited for rather than
+    // skipped, and the status check drops any order that moved on meanwhile
+    private static final String TRANSITION_BY_IDS_SQL = "WITH chunk AS ("
+            + "  SELECT id FROM orders"
+            + "  WHERE id IN (:ids) AND status = :fromStatus"
+            + "  ORDER BY id"
+            + "  FOR UPDATE"
+            + "), moved AS ("
+            + "  UPDATE orders o SET status = :toStatus, updated_at = now()"
+            + "  FROM chunk WHERE o.id = chunk.id"
+            + "  RETURNING o.id"
+            + "), history AS ("
+            + "  INSERT INTO order_status_history (order_id, status, notes, created_at)"
+            + "  SELECT id, :toStatus, :notes, now() FROM moved"
+            + ") "
+            + "SELECT id FROM moved";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Long> transitionStatus(OrderStatus from, OrderStatus to, LocalDateTime createdBefore,
+                                       int limit, String notes) {
+        List<Number> ids = entityManager.createNativeQuery(TRANSITION_SQL)
+                .setParameter("fromStatus", from.name())
+                .setParameter("toStatus", to.name())
+                .setParameter("createdBefore", createdBefore)
+                .setParameter("limit", limit)
+                .setParameter("notes", notes)
+                .getResultList();
+        return ids.stream().map(Number::longValue).toList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Long> transitionStatusByIds(OrderStatus from, OrderStatus to, Collection<Long> ids, String notes) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Number> moved = entityManager.createNativeQuery(TRANSITION_BY_IDS_SQL)
+                .setParameter("ids", ids)
+                .setParameter("fromStatus", from.name())
+                .setParameter("toStatus", to.name())
+                .setParameter("notes", notes)
+                .getResultList();
+        return moved.stream().map(Number::longValue).toList();
+    }
+}
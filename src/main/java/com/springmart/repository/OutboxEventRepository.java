@@ -0,0 +1,48 @@
+package com.springmart.repository;
+
+import com.springmart.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Leases up to {@code limit} due events for {@code leaseSeconds} and returns them. Rows locked by
+     * another relay's claim are skipped rather than waited for, and leased rows are not due again
+     * until the lease runs out, so several nodes can drain the outbox at once without handing out an
+     * event twice.
+     */
+    @Query(value = "UPDATE outbox_events SET leased_until = now() + make_interval(secs => :leaseSeconds) " +
+            "WHERE id IN (SELECT id FROM outbox_events " +
+            "WHERE processed_at IS NULL AND available_at <= now() AND attempts < :maxAttempts " +
+            "AND (leased_until IS NULL OR leased_until < now()) " +
+            "ORDER BY id " +
+            "LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED) " +
+            "RETURNING *", nativeQuery = true)
+    List<OutboxEvent> claimBatch(@Param("limit") int limit, @Param("maxAttempts") int maxAttempts,
+                                 @Param("leaseSeconds") int leaseSeconds);
+
+    @Modifying
+    @Query(value = "UPDATE outbox_events SET processed_at = now(), leased_until = NULL " +
+            "WHERE id IN (:ids) AND processed_at IS NULL", nativeQuery = true)
+    int markProcessed(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "UPDATE outbox_events SET attempts = attempts + 1, last_error = :error, " +
+            "available_at = :availableAt, leased_until = NULL " +
+            "WHERE id = :id AND processed_at IS NULL", nativeQuery = true)
+    int markFailed(@Param("id") Long id, @Param("error") String error, @Param("availableAt") LocalDateTime availableAt);
+
+    @Modifying
+    @Query(value = "DELETE FROM outbox_events WHERE processed_at < :before", nativeQuery = true)
+    int deleteProcessedBefore(@Param("before") LocalDateTime before);
+}
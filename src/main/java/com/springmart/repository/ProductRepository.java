@@ -3,13 +3,16 @@ package com.springmart.repository;
 import com.springmart.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,35 +21,74 @@ public interface ProductRepository extends JpaRepository<Product, Long>, Product
 
     Optional<Product> findBySlug(String slug);
 
+    // Listing queries fetch category and seller in the same statement; cards use the denormalized
+    // primary image and image count, so a page costs its select plus, for pages, one count.
+    @EntityGraph(attributePaths = {"category", "seller"})
     Page<Product> findByIsActiveTrue(Pageable pageable);
 
+    @EntityGraph(attributePaths = {"category", "seller"})
     Page<Product> findByCategoryIdAndIsActiveTrue(Long categoryId, Pageable pageable);
 
-    @Query("SELECT p FROM Product p WHERE p.isActive = true AND " +
-            "(LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')))")
-    Page<Product> searchProducts(@Param("keyword") String keyword, Pageable pageable);
+    @EntityGraph(attributePaths = {"category", "seller"})
+    List<Product> findByIdIn(Collection<Long> ids);
+
+    // Current stock straight from the database, bypassing the (possibly stale) persistence context
+    @Query("SELECT p.stockQuantity FROM Product p WHERE p.id = :id")
+    Optional<Integer> findStockQuantityById(@Param("id") Long id);
+
+    // Absolute stock set by an admin edit; stock_quantity is not written by entity saves
+    @Modifying
+    @Query(value = "UPDATE products SET stock_quantity = :quantity, updated_at = now() WHERE id = :productId",
+            nativeQuery = true)
+    int setStockQuantity(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    // Everything the full (detail) ProductDTO needs, for filling the products cache outside of a session
+    @EntityGraph(attributePaths = {"category", "seller", "images"})
+    List<Product> findWithImagesByIdIn(Collection<Long> ids);
 
     List<Product> findBySellerId(Long sellerId);
 
+    // Id-ordered batches for building in-memory indexes
+    @EntityGraph(attributePaths = {"category"})
+    List<Product> findByIsActiveTrueAndIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    // Catch-up after loading an in-memory index from disk
+    @EntityGraph(attributePaths = {"category"})
+    List<Product> findByUpdatedAtAfter(LocalDateTime since);
+
+    // Reconciling in-memory indexes with deletes made elsewhere
+    @Query("SELECT p.id FROM Product p WHERE p.isActive = true")
+    List<Long> findActiveIds();
+
+    long countByIsActiveTrue();
+
+    @EntityGraph(attributePaths = {"category", "seller"})
     @Query("SELECT p FROM Product p WHERE p.isActive = true ORDER BY p.createdAt DESC")
     List<Product> findLatestProducts(Pageable pageable);
 
-    @Query("SELECT p FROM Product p LEFT JOIN p.reviews r WHERE p.isActive = true " +
-            "GROUP BY p.id ORDER BY AVG(r.rating) DESC")
+    @EntityGraph(attributePaths = {"category", "seller"})
+    @Query("SELECT p FROM Product p WHERE p.isActive = true " +
+            "ORDER BY p.averageRating DESC, p.reviewCount DESC")
     List<Product> findTopRatedProducts(Pageable pageable);
 
+    @EntityGraph(attributePaths = {"category", "seller"})
     @Query("SELECT p FROM Product p WHERE p.isFeatured = true AND p.isActive = true ORDER BY p.createdAt DESC")
     List<Product> findFeaturedProducts(Pageable pageable);
 
+    @EntityGraph(attributePaths = {"category", "seller"})
     @Query("SELECT p FROM Product p WHERE p.discountPercentage > 0 AND p.isActive = true ORDER BY p.discountPercentage DESC")
     List<Product> findProductsOnSale(Pageable pageable);
 
     long countByCategoryIdAndIsActiveTrue(Long categoryId);
 
+    // [categoryId, activeProductCount] for every category with at least one active product
+    @Query("SELECT p.category.id, COUNT(p) FROM Product p WHERE p.isActive = true GROUP BY p.category.id")
+    List<Object[]> countActiveProductsByCategory();
+
     // Recommendation queries
+    @EntityGraph(attributePaths = {"category", "seller"})
     @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId AND p.isActive = true " +
-            "AND p.price BETWEEN :minPrice AND :maxPrice ORDER BY p.averageRating DESC")
+            "AND p.price BETWEEN :minPrice AND :maxPrice ORDER BY p.averageRating DESC, p.reviewCount DESC")
     List<Product> findByCategoryAndPriceRange(
             @Param("categoryId") Long categoryId,
             @Param("minPrice") BigDecimal minPrice,
@@ -57,16 +99,82 @@ public interface ProductRepository extends JpaRepository<Product, Long>, Product
             "WHERE o.user.id = :userId")
     List<Long> findCategoriesByUserOrders(@Param("userId") Long userId);
 
+    @EntityGraph(attributePaths = {"category", "seller"})
     @Query("SELECT p FROM Product p WHERE p.category.id IN :categoryIds AND p.isActive = true " +
             "ORDER BY p.averageRating DESC, p.reviewCount DESC")
     List<Product> findTopRatedByCategories(
             @Param("categoryIds") List<Long> categoryIds,
             Pageable pageable);
 
-    @Query("SELECT p FROM Product p JOIN p.items oi JOIN oi.order o " +
+    // Fallback for TrendingEngine while it seeds
+    @Query("SELECT p FROM OrderItem oi JOIN oi.product p JOIN oi.order o " +
             "WHERE o.createdAt > :since AND p.isActive = true " +
-            "GROUP BY p.id ORDER BY COUNT(o.id) DESC")
+            "GROUP BY p ORDER BY SUM(oi.quantity) DESC")
     List<Product> findTrendingProducts(
             @Param("since") LocalDateTime since,
             Pageable pageable);
+
+    // Rating aggregate maintenance - single-row atomic updates, safe under concurrent reviews. They
+    // clear the persistence context so the product is re-read with the new aggregates afterwards, and
+    // touch updated_at so nodes syncing their in-memory indexes see the change.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE products SET " +
+            "rating_sum = rating_sum + :rating, " +
+            "rating_count = rating_count + 1, " +
+            "rating_1_count = rating_1_count + CASE WHEN :rating = 1 THEN 1 ELSE 0 END, " +
+            "rating_2_count = rating_2_count + CASE WHEN :rating = 2 THEN 1 ELSE 0 END, " +
+            "rating_3_count = rating_3_count + CASE WHEN :rating = 3 THEN 1 ELSE 0 END, " +
+            "rating_4_count = rating_4_count + CASE WHEN :rating = 4 THEN 1 ELSE 0 END, " +
+            "rating_5_count = rating_5_count + CASE WHEN :rating = 5 THEN 1 ELSE 0 END, " +
+            "average_rating = CAST(rating_sum + :rating AS DOUBLE PRECISION) / (rating_count + 1), " +
+            "updated_at = now() " +
+            "WHERE id = :productId", nativeQuery = true)
+    int addRating(@Param("productId") Long productId, @Param("rating") int rating);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE products SET " +
+            "rating_sum = rating_sum - :rating, " +
+            "rating_count = rating_count - 1, " +
+            "rating_1_count = rating_1_count - CASE WHEN :rating = 1 THEN 1 ELSE 0 END, " +
+            "rating_2_count = rating_2_count - CASE WHEN :rating = 2 THEN 1 ELSE 0 END, " +
+            "rating_3_count = rating_3_count - CASE WHEN :rating = 3 THEN 1 ELSE 0 END, " +
+            "rating_4_count = rating_4_count - CASE WHEN :rating = 4 THEN 1 ELSE 0 END, " +
+            "rating_5_count = rating_5_count - CASE WHEN :rating = 5 THEN 1 ELSE 0 END, " +
+            "average_rating = CASE WHEN rating_count <= 1 THEN 0 " +
+            "ELSE CAST(rating_sum - :rating AS DOUBLE PRECISION) / (rating_count - 1) END, " +
+            "updated_at = now() " +
+            "WHERE id = :productId AND rating_count > 0", nativeQuery = true)
+    int removeRating(@Param("productId") Long productId, @Param("rating") int rating);
+
+    /**
+     * Recomputes rating aggregates from the reviews table for every product whose
+     * persisted values have drifted. Returns the number of repaired products.
+     */
+    @Modifying
+    @Query(value = "UPDATE products p SET " +
+            "rating_sum = a.rating_sum, " +
+            "rating_count = a.rating_count, " +
+            "rating_1_count = a.rating_1_count, " +
+            "rating_2_count = a.rating_2_count, " +
+            "rating_3_count = a.rating_3_count, " +
+            "rating_4_count = a.rating_4_count, " +
+            "rating_5_count = a.rating_5_count, " +
+            "average_rating = CASE WHEN a.rating_count = 0 THEN 0 " +
+            "ELSE CAST(a.rating_sum AS DOUBLE PRECISION) / a.rating_count END, " +
+            "updated_at = now() " +
+            "FROM (SELECT pr.id AS product_id, " +
+            "COALESCE(SUM(r.rating), 0) AS rating_sum, " +
+            "COUNT(r.id) AS rating_count, " +
+            "COUNT(r.id) FILTER (WHERE r.rating = 1) AS rating_1_count, " +
+            "COUNT(r.id) FILTER (WHERE r.rating = 2) AS rating_2_count, " +
+            "COUNT(r.id) FILTER (WHERE r.rating = 3) AS rating_3_count, " +
+            "COUNT(r.id) FILTER (WHERE r.rating = 4) AS rating_4_count, " +
+            "COUNT(r.id) FILTER (WHERE r.rating = 5) AS rating_5_count " +
+            "FROM products pr LEFT JOIN reviews r ON r.product_id = pr.id GROUP BY pr.id) a " +
+            "WHERE p.id = a.product_id AND (" +
+            "p.rating_sum <> a.rating_sum OR p.rating_count <> a.rating_count " +
+            "OR p.rating_1_count <> a.rating_1_count OR p.rating_2_count <> a.rating_2_count " +
+            "OR p.rating_3_count <> a.rating_3_count OR p.rating_4_count <> a.rating_4_count " +
+            "OR p.rating_5_count <> a.rating_5_count)", nativeQuery = true)
+    int repairRatingAggregates();
 }
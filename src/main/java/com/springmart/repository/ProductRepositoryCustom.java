@@ -1,9 +1,42 @@
 package com.springmart.repository;
 
+import com.springmart.dto.ProductCursor;
 import com.springmart.dto.ProductFilterRequest;
+import com.springmart.dto.ProductSearchHit;
 import com.springmart.entity.Product;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.Map;
 
 public interface ProductRepositoryCustom {
     Page<Product> findWithFilters(ProductFilterRequest filterRequest);
+
+    /**
+     * Keyset variant of {@link #findWithFilters}: seeks past {@code after} (null for the first slice)
+     * and returns a slice without running a count query.
+     */
+    Slice<Product> findWithFiltersAfter(ProductFilterRequest filterRequest, String sortBy, ProductCursor after);
+
+    /**
+     * Full-text search over active products ranked by relevance (ts_rank plus name trigram similarity),
+     * with prefix matching on every keyword and a highlighted description snippet per hit.
+     * {@code filters} may be null; its category, price and stock predicates are honoured.
+     */
+    Page<ProductSearchHit> searchRanked(String keyword, ProductFilterRequest filters, Pageable pageable);
+
+    /**
+     * Takes stock for all {@code quantities} (product id to quantity) in one statement. A product is
+     * decremented only if it has at least the requested quantity; returns the ids that were. Any id
+     * missing from the result means the caller must roll back, since the others were decremented.
+     */
+    List<Long> decrementStock(Map<Long, Integer> quantities);
+
+    /**
+     * Adds signed {@code deltas} (product id to change) to stock in one statement, unconditionally,
+     * e.g. to put back a cancelled order or write out in-memory stock changes.
+     */
+    void adjustStock(Map<Long, Integer> deltas);
 }
@@ -1,24 +1,49 @@
 package com.springmart.repository;
 
+import com.springmart.dto.ProductCursor;
 import com.springmart.dto.ProductFilterRequest;
+import com.springmart.dto.ProductSearchHit;
 import com.springmart.entity.Product;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.*;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.web.util.HtmlUtils;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
 
 @Repository
 public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
 
+    // Totals beyond this are reported as this value; deep search pages are not useful and
+    // counting every match of a common term would dominate search latency.
+    private static final int MAX_COUNTED_SEARCH_HITS = 1000;
+
+    // ts_headline marks matches with these control characters; the snippet is HTML-escaped before
+    // they are turned into <mark> tags, so markup in descriptions is never passed through
+    private static final String MATCH_START = "\u0002";
+    private static final String MATCH_STOP = "\u0003";
+    private static final String HEADLINE_OPTIONS = "StartSel=\"" + MATCH_START + "\", StopSel=\"" + MATCH_STOP + "\", "
+            + "MaxWords=25, MinWords=10, MaxFragments=1";
+
+    private static final String SEARCH_MATCH = "p.is_active = true AND (p.search_vector @@ q.query "
+            + "OR lower(p.name) % :keyword OR lower(p.name) LIKE :pattern)";
+
     @PersistenceContext
     private EntityManager entityManager;
 
@@ -30,8 +55,9 @@ public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
         CriteriaQuery<Product> query = cb.createQuery(Product.class);
         Root<Product> product = query.from(Product.class);
         
-        // Join with reviews for rating filter and sorting
-        Join<Object, Object> reviews = product.join("reviews", JoinType.LEFT);
+        // Fetch the to-one associations a product card needs in the same statement
+        product.fetch("category", JoinType.INNER);
+        product.fetch("seller", JoinType.INNER);
         
         // Build predicates
         List<Predicate> predicates = buildPredicates(cb, product, filterRequest);
@@ -44,11 +70,8 @@ public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
             query.where(predicates.toArray(new Predicate[0]));
         }
         
-        // Group by product id for aggregation
-        query.groupBy(product.get("id"));
-        
         // Apply sorting
-        applySorting(cb, query, product, reviews, filterRequest.getSortBy());
+        applySorting(cb, query, product, filterRequest.getSortBy());
         
         // Create typed query
         TypedQuery<Product> typedQuery = entityManager.createQuery(query);
@@ -70,6 +93,227 @@ public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
         return new PageImpl<>(results, pageable, totalElements);
     }
     
+    @Override
+    public Slice<Product> findWithFiltersAfter(ProductFilterRequest filterRequest, String sortBy,
+                                               ProductCursor after) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        
+        CriteriaQuery<Product> query = cb.createQuery(Product.class);
+        Root<Product> product = query.from(Product.class);
+        product.fetch("category", JoinType.INNER);
+        product.fetch("seller", JoinType.INNER);
+        
+        List<Predicate> predicates = buildPredicates(cb, product, filterRequest);
+        predicates.add(cb.isTrue(product.get("isActive")));
+        
+        // Seek past the last row of the previous slice instead of skipping OFFSET rows
+        if (after != null) {
+            predicates.add(buildSeekPredicate(cb, product, sortBy, after));
+        }
+        
+        query.where(predicates.toArray(new Predicate[0]));
+        applyKeysetSorting(cb, query, product, sortBy);
+        
+        int size = filterRequest.getSize() != null ? filterRequest.getSize() : 12;
+        
+        // Fetch one extra row to learn whether another slice exists, without counting
+        List<Product> results = entityManager.createQuery(query)
+                .setMaxResults(size + 1)
+                .getResultList();
+        
+        boolean hasNext = results.size() > size;
+        if (hasNext) {
+            results = results.subList(0, size);
+        }
+        
+        return new SliceImpl<>(results, PageRequest.of(0, size), hasNext);
+    }
+    
+    @Override
+    public Page<ProductSearchHit> searchRanked(String keyword, ProductFilterRequest filters, Pageable pageable) {
+        String normalized = keyword != null ? keyword.trim().toLowerCase() : "";
+        String tsQuery = toPrefixTsQuery(normalized);
+        if (tsQuery.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        String pattern = "%" + escapeLike(normalized) + "%";
+        String where = SEARCH_MATCH + searchFilters(filters);
+        
+        // Rank and page in the inner query so ts_headline only runs for the rows returned
+        String sql = "SELECT ranked.id, ranked.rank, "
+                + "ts_headline('english', coalesce(p.description, ''), to_tsquery('english', :tsquery), :options) "
+                + "FROM (SELECT p.id, "
+                + "ts_rank(p.search_vector, q.query) + similarity(lower(p.name), :keyword) AS rank "
+                + "FROM products p, to_tsquery('english', :tsquery) AS q(query) "
+                + "WHERE " + where + " "
+                + "ORDER BY rank DESC, p.id DESC "
+                + "LIMIT :limit OFFSET :offset) ranked "
+                + "JOIN products p ON p.id = ranked.id "
+                + "ORDER BY ranked.rank DESC, ranked.id DESC";
+        
+        Query query = entityManager.createNativeQuery(sql)
+                .setParameter("tsquery", tsQuery)
+                .setParameter("keyword", normalized)
+                .setParameter("pattern", pattern)
+                .setParameter("options", HEADLINE_OPTIONS)
+                .setParameter("limit", pageable.getPageSize())
+                .setParameter("offset", pageable.getOffset());
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = bindSearchFilters(query, filters).getResultList();
+        
+        List<ProductSearchHit> hits = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            hits.add(new ProductSearchHit(
+                    ((Number) row[0]).longValue(),
+                    ((Number) row[1]).doubleValue(),
+                    highlight((String) row[2])));
+        }
+        
+        // Skips the count entirely when the first page is not full
+        return PageableExecutionUtils.getPage(hits, pageable,
+                () -> countSearchHits(where, filters, tsQuery, normalized, pattern));
+    }
+    
+    private static String highlight(String headline) {
+        if (headline == null) {
+            return null;
+        }
+        return HtmlUtils.htmlEscape(headline)
+                .replace(MATCH_START, "<mark>")
+                .replace(MATCH_STOP, "</mark>");
+    }
+    
+    private long countSearchHits(String where, ProductFilterRequest filters, String tsQuery, String keyword,
+                                 String pattern) {
+        String sql = "SELECT count(*) FROM (SELECT 1 "
+                + "FROM products p, to_tsquery('english', :tsquery) AS q(query) "
+                + "WHERE " + where + " LIMIT :cap) hits";
+        
+        Query query = entityManager.createNativeQuery(sql)
+                .setParameter("tsquery", tsQuery)
+                .setParameter("keyword", keyword)
+                .setParameter("pattern", pattern)
+                .setParameter("cap", MAX_COUNTED_SEARCH_HITS);
+        return ((Number) bindSearchFilters(query, filters).getSingleResult()).longValue();
+    }
+    
+    // Category, price and stock predicates of a search; parameters are bound by bindSearchFilters
+    private static String searchFilters(ProductFilterRequest filters) {
+        if (filters == null) {
+            return "";
+        }
+        StringBuilder sql = new StringBuilder();
+        if (filters.getCategoryIds() != null && !filters.getCategoryIds().isEmpty()) {
+            sql.append(" AND p.category_id IN (:categoryIds)");
+        }
+        if (filters.getMinPrice() != null) {
+            sql.append(" AND p.price >= :minPrice");
+        }
+        if (filters.getMaxPrice() != null) {
+            sql.append(" AND p.price <= :maxPrice");
+        }
+        if (Boolean.TRUE.equals(filters.getInStock())) {
+            sql.append(" AND p.stock_quantity > 0");
+        }
+        return sql.toString();
+    }
+    
+    private static Query bindSearchFilters(Query query, ProductFilterRequest filters) {
+        if (filters == null) {
+            return query;
+        }
+        if (filters.getCategoryIds() != null && !filters.getCategoryIds().isEmpty()) {
+            query.setParameter("categoryIds", filters.getCategoryIds());
+        }
+        if (filters.getMinPrice() != null) {
+            query.setParameter("minPrice", filters.getMinPrice());
+        }
+        if (filters.getMaxPrice() != null) {
+            query.setParameter("maxPrice", filters.getMaxPrice());
+        }
+        return query;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Long> decrementStock(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return List.of();
+        }
+        // Conditional, set-based decrement: concurrent checkouts serialise on the row locks and the
+        // WHERE clause re-checks stock after waiting, so a product can never go negative
+        lockStockRows(quantities.keySet());
+        String sql = "UPDATE products p SET stock_quantity = p.stock_quantity - v.qty, updated_at = now() "
+                + "FROM (VALUES " + stockValues(quantities.size()) + ") AS v(id, qty) "
+                + "WHERE p.id = v.id AND p.stock_quantity >= v.qty "
+                + "RETURNING p.id";
+        List<Number> ids = bindStockValues(entityManager.createNativeQuery(sql), quantities).getResultList();
+        return ids.stream().map(Number::longValue).toList();
+    }
+
+    @Override
+    public void adjustStock(Map<Long, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        lockStockRows(deltas.keySet());
+        String sql = "UPDATE products p SET stock_quantity = p.stock_quantity + v.qty, updated_at = now() "
+                + "FROM (VALUES " + stockValues(deltas.size()) + ") AS v(id, qty) "
+                + "WHERE p.id = v.id";
+        bindStockValues(entityManager.createNativeQuery(sql), deltas).executeUpdate();
+    }
+
+    private static String stockValues(int rows) {
+        StringJoiner values = new StringJoiner(", ");
+        for (int i = 0; i < rows; i++) {
+            values.add("(CAST(:id" + i + " AS bigint), CAST(:qty" + i + " AS integer))");
+        }
+        return values.toString();
+    }
+
+    /**
+     * Locks the products' rows in id order before a stock UPDATE. The UPDATE itself locks rows in
+     * whatever order its plan visits them, which the order of the VALUES list does not control, so
+     * two orders sharing products could otherwise each hold a row the other is waiting for.
+     */
+    private void lockStockRows(Collection<Long> productIds) {
+        entityManager.createNativeQuery("SELECT id FROM products WHERE id IN (:ids) ORDER BY id FOR UPDATE")
+                .setParameter("ids", productIds)
+                .getResultList();
+    }
+
+    private static Query bindStockValues(Query query, Map<Long, Integer> quantities) {
+        int i = 0;
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            query.setParameter("id" + i, entry.getKey());
+            query.setParameter("qty" + i, entry.getValue());
+            i++;
+        }
+        return query;
+    }
+
+    /**
+     * Turns free text into a prefix tsquery: "wireless head" becomes "wireless:* & head:*".
+     * Only letters and digits survive, so user input cannot inject tsquery operators.
+     */
+    private String toPrefixTsQuery(String keyword) {
+        StringBuilder query = new StringBuilder();
+        for (String token : keyword.split("[^\\p{L}\\p{N}]+")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            if (query.length() > 0) {
+                query.append(" & ");
+            }
+            query.append(token).append(":*");
+        }
+        return query.toString();
+    }
+    
+    private String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+    
     private List<Predicate> buildPredicates(CriteriaBuilder cb, Root<Product> product, 
                                            ProductFilterRequest filterRequest) {
         List<Predicate> predicates = new ArrayList<>();
@@ -102,14 +346,17 @@ public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
             predicates.add(cb.isTrue(product.get("isFeatured")));
         }
         
-        // Rating filter - will be applied with HAVING clause in count query
+        // Rating filter - uses the persisted average maintained by ReviewService
+        if (filterRequest.getMinRating() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(product.get("averageRating"),
+                    filterRequest.getMinRating().doubleValue()));
+        }
         
         return predicates;
     }
     
     private void applySorting(CriteriaBuilder cb, CriteriaQuery<Product> query, 
-                             Root<Product> product, Join<Object, Object> reviews, 
-                             String sortBy) {
+                             Root<Product> product, String sortBy) {
         if (sortBy == null || sortBy.isEmpty()) {
             sortBy = "newest";
         }
@@ -122,7 +369,7 @@ public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
                 query.orderBy(cb.desc(product.get("price")));
                 break;
             case "rating_desc":
-                query.orderBy(cb.desc(cb.avg(reviews.get("rating"))));
+                query.orderBy(cb.desc(product.get("averageRating")), cb.desc(product.get("reviewCount")));
                 break;
             case "name_asc":
                 query.orderBy(cb.asc(product.get("name")));
@@ -134,6 +381,59 @@ public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
         }
     }
     
+    private Predicate buildSeekPredicate(CriteriaBuilder cb, Root<Product> product,
+                                         String sortBy, ProductCursor after) {
+        Path<Long> id = product.get("id");
+        
+        switch (sortBy) {
+            case ProductCursor.PRICE_ASC: {
+                Path<BigDecimal> price = product.get("price");
+                return cb.or(
+                        cb.greaterThan(price, after.getPriceKey()),
+                        cb.and(cb.equal(price, after.getPriceKey()), cb.greaterThan(id, after.getId())));
+            }
+            case ProductCursor.PRICE_DESC: {
+                Path<BigDecimal> price = product.get("price");
+                return cb.or(
+                        cb.lessThan(price, after.getPriceKey()),
+                        cb.and(cb.equal(price, after.getPriceKey()), cb.lessThan(id, after.getId())));
+            }
+            case ProductCursor.NAME_ASC: {
+                Path<String> name = product.get("name");
+                return cb.or(
+                        cb.greaterThan(name, after.getKey()),
+                        cb.and(cb.equal(name, after.getKey()), cb.greaterThan(id, after.getId())));
+            }
+            case ProductCursor.NEWEST:
+            default: {
+                Path<LocalDateTime> createdAt = product.get("createdAt");
+                return cb.or(
+                        cb.lessThan(createdAt, after.getCreatedAtKey()),
+                        cb.and(cb.equal(createdAt, after.getCreatedAtKey()), cb.lessThan(id, after.getId())));
+            }
+        }
+    }
+    
+    private void applyKeysetSorting(CriteriaBuilder cb, CriteriaQuery<Product> query,
+                                    Root<Product> product, String sortBy) {
+        // The id tie-breaker makes the order total, which the seek predicate relies on
+        switch (sortBy) {
+            case ProductCursor.PRICE_ASC:
+                query.orderBy(cb.asc(product.get("price")), cb.asc(product.get("id")));
+                break;
+            case ProductCursor.PRICE_DESC:
+                query.orderBy(cb.desc(product.get("price")), cb.desc(product.get("id")));
+                break;
+            case ProductCursor.NAME_ASC:
+                query.orderBy(cb.asc(product.get("name")), cb.asc(product.get("id")));
+                break;
+            case ProductCursor.NEWEST:
+            default:
+                query.orderBy(cb.desc(product.get("createdAt")), cb.desc(product.get("id")));
+                break;
+        }
+    }
+    
     private long getTotalCount(ProductFilterRequest filterRequest) {
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
@@ -0,0 +1,16 @@
+package com.springmart.repository;
+
+import com.springmart.entity.ScheduledJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ScheduledJobRepository extends JpaRepository<ScheduledJob, Long> {
+
+    Optional<ScheduledJob> findByJobNameAndShard(String jobName, Integer shard);
+
+    List<ScheduledJob> findAllByOrderByJobNameAscShardAsc();
+}
@@ -0,0 +1,67 @@
+package com.springmart.search;
+
+import java.util.Arrays;
+
+/**
+ * Posting list of (doc, term frequency) pairs held in two growable primitive arrays.
+ * Docs are appended in increasing order, so lookups and intersections can binary search.
+ */
+final class IntPostingList {
+
+    private int[] docs = new int[4];
+    private int[] frequencies = new int[4];
+    private int size;
+    // Postings whose doc is still live; BM25 document frequency must not count deleted docs
+    private int live;
+
+    void add(int doc, int frequency) {
+        if (size == docs.length) {
+            docs = Arrays.copyOf(docs, size * 2);
+            frequencies = Arrays.copyOf(frequencies, size * 2);
+        }
+        docs[size] = doc;
+        frequencies[size] = frequency;
+        size++;
+        live++;
+    }
+
+    void markDeleted() {
+        live--;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int liveSize() {
+        return live;
+    }
+
+    int frequency(int doc) {
+        int index = Arrays.binarySearch(docs, 0, size, doc);
+        return index >= 0 ? frequencies[index] : 0;
+    }
+
+    int[] docs() {
+        return Arrays.copyOf(docs, size);
+    }
+
+    /**
+     * Keeps only the candidates present in this list. Returns the new candidate count;
+     * the surviving docs are compacted to the front of {@code candidates}.
+     */
+    int retainAll(int[] candidates, int count) {
+        int kept = 0;
+        int from = 0;
+        for (int i = 0; i < count && from < size; i++) {
+            int index = Arrays.binarySearch(docs, from, size, candidates[i]);
+            if (index >= 0) {
+                candidates[kept++] = candidates[i];
+                from = index + 1;
+            } else {
+                from = -index - 1;
+            }
+        }
+        return kept;
+    }
+}
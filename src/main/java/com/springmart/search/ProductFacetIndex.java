@@ -0,0 +1,390 @@
+package com.springmart.search;
+
+import com.springmart.dto.ProductFacetsDTO;
+import com.springmart.dto.ProductFilterRequest;
+import com.springmart.entity.Product;
+import com.springmart.event.ProductChangedEvent;
+import com.springmart.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compressed bitmaps of active product ids per category, price bucket, rating floor and
+ * in-stock / on-sale / featured flag. Filters become bitmap intersections, so facet counts for a
+ * {@link ProductFilterRequest} are answered without touching the database.
+ *
+ * <p>The index is per node: it follows the {@link ProductChangedEvent}s committed here, and every
+ * {@code app.search.facets.sync-ms} re-reads products updated since the last sync and drops products no
+ * longer active, so changes made on other nodes may lag by up to one interval. Page totals for
+ * filtered listings therefore still come from SQL.
+ *
+ * <p>Arbitrary min/max prices are resolved from whole buckets plus a per-product price check on the
+ * two edge buckets. Products are keyed by id, which must fit in an int.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductFacetIndex {
+
+    // Upper bounds (exclusive) of the price buckets; the last bucket is open-ended
+    private static final int[] PRICE_BOUNDS = {25, 50, 100, 250, 500};
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    // Re-read a little before the last sync: updated_at is set before the writing transaction commits
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Value("${app.search.facets.enabled:true}")
+    private boolean enabled;
+
+    private Bitmaps bitmaps = new Bitmaps();
+    private volatile boolean ready;
+    private volatile LocalDateTime syncedUntil;
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Applies changes committed on other nodes: re-reads products updated since the last sync and,
+     * when the active count disagrees with the database, drops products that are gone.
+     */
+    @Scheduled(fixedDelayString = "${app.search.facets.sync-ms:30000}",
+            initialDelayString = "${app.search.facets.sync-ms:30000}")
+    public synchronized void syncFromDatabase() {
+        if (!enabled || !ready) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<Product> changed = productRepository.findByUpdatedAtAfter(syncedUntil.minus(SYNC_OVERLAP));
+        changed.forEach(this::apply);
+
+        long active;
+        RoaringBitmap indexed;
+        lock.readLock().lock();
+        try {
+            active = bitmaps.active.getLongCardinality();
+            indexed = bitmaps.active.clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+        int removed = 0;
+        if (productRepository.countByIsActiveTrue() != active) {
+            // Read after the snapshot, so anything added since is already committed and listed
+            RoaringBitmap live = new RoaringBitmap();
+            productRepository.findActiveIds().forEach(id -> live.add(Math.toIntExact(id)));
+            for (int id : RoaringBitmap.andNot(indexed, live)) {
+                apply(id, null);
+                removed++;
+            }
+        }
+        syncedUntil = startedAt;
+        if (!changed.isEmpty() || removed > 0) {
+            log.debug("Synced product facet index: {} re-read, {} removed", changed.size(), removed);
+        }
+    }
+
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        LocalDateTime startedAt = LocalDateTime.now();
+        Bitmaps fresh = new Bitmaps();
+        long lastId = 0;
+        List<Product> batch;
+        do {
+            batch = productRepository.findByIsActiveTrueAndIdGreaterThanOrderByIdAsc(
+                    lastId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            for (Product product : batch) {
+                fresh.add(product);
+                lastId = product.getId();
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+
+        fresh.runOptimize();
+        lock.writeLock().lock();
+        try {
+            bitmaps = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        syncedUntil = startedAt;
+        ready = true;
+
+        log.info("Built product facet index: {} products in {} ms",
+                fresh.active.getLongCardinality(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Re-reads the product in a new transaction: the committed transaction's persistence context is
+     * still bound here and would hand back its own copy, which misses stock and rating changes made
+     * by native UPDATEs.
+     */
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Product product = event.getType() == ProductChangedEvent.Type.DELETED
+                ? null
+                : productRepository.findByIdIn(List.of(event.getProductId())).stream().findFirst().orElse(null);
+        apply(event.getProductId(), product);
+    }
+
+    private void apply(Product product) {
+        apply(product.getId(), product);
+    }
+
+    // Replaces the product's bits; a null or inactive product is only removed
+    private void apply(long productId, Product product) {
+        lock.writeLock().lock();
+        try {
+            bitmaps.remove(productId);
+            if (product != null && Boolean.TRUE.equals(product.getIsActive())) {
+                bitmaps.add(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public ProductFacetsDTO facets(ProductFilterRequest filter) {
+        lock.readLock().lock();
+        try {
+            Bitmaps b = bitmaps;
+
+            RoaringBitmap all = b.match(filter, null);
+            RoaringBitmap withoutCategory = b.match(filter, Facet.CATEGORY);
+            RoaringBitmap withoutPrice = b.match(filter, Facet.PRICE);
+            RoaringBitmap withoutRating = b.match(filter, Facet.RATING);
+
+            Map<Long, Long> categories = new TreeMap<>();
+            b.categories.forEach((categoryId, ids) -> {
+                long count = RoaringBitmap.andCardinality(withoutCategory, ids);
+                if (count > 0) {
+                    categories.put((long) categoryId, count);
+                }
+            });
+
+            Map<String, Long> priceRanges = new LinkedHashMap<>();
+            for (int bucket = 0; bucket < b.priceBuckets.length; bucket++) {
+                priceRanges.put(bucketLabel(bucket), (long) RoaringBitmap.andCardinality(withoutPrice, b.priceBuckets[bucket]));
+            }
+
+            Map<Integer, Long> minRatings = new LinkedHashMap<>();
+            for (int rating = 1; rating <= 5; rating++) {
+                minRatings.put(rating, (long) RoaringBitmap.andCardinality(withoutRating, b.ratingAtLeast(rating)));
+            }
+
+            return ProductFacetsDTO.builder()
+                    .totalHits(all.getLongCardinality())
+                    .categories(categories)
+                    .priceRanges(priceRanges)
+                    .minRatings(minRatings)
+                    .inStock(RoaringBitmap.andCardinality(b.match(filter, Facet.IN_STOCK), b.inStock))
+                    .onSale(RoaringBitmap.andCardinality(b.match(filter, Facet.ON_SALE), b.onSale))
+                    .featured(RoaringBitmap.andCardinality(b.match(filter, Facet.FEATURED), b.featured))
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int bucketOf(double price) {
+        for (int i = 0; i < PRICE_BOUNDS.length; i++) {
+            if (price < PRICE_BOUNDS[i]) {
+                return i;
+            }
+        }
+        return PRICE_BOUNDS.length;
+    }
+
+    private static String bucketLabel(int bucket) {
+        if (bucket == PRICE_BOUNDS.length) {
+            return PRICE_BOUNDS[bucket - 1] + "+";
+        }
+        int lower = bucket == 0 ? 0 : PRICE_BOUNDS[bucket - 1];
+        return lower + "-" + PRICE_BOUNDS[bucket];
+    }
+
+    private enum Facet {
+        CATEGORY, PRICE, RATING, IN_STOCK, ON_SALE, FEATURED
+    }
+
+    private static final class Bitmaps {
+
+        final RoaringBitmap active = new RoaringBitmap();
+        final Map<Integer, RoaringBitmap> categories = new HashMap<>();
+        final RoaringBitmap[] priceBuckets = new RoaringBitmap[PRICE_BOUNDS.length + 1];
+        // ratingFloor[r - 1] holds products whose average rating is in [r, r + 1)
+        final RoaringBitmap[] ratingFloor = new RoaringBitmap[5];
+        final RoaringBitmap inStock = new RoaringBitmap();
+        final RoaringBitmap onSale = new RoaringBitmap();
+        final RoaringBitmap featured = new RoaringBitmap();
+        final Map<Integer, Double> prices = new HashMap<>();
+        final Map<Integer, Integer> categoryOf = new HashMap<>();
+
+        Bitmaps() {
+            for (int i = 0; i < priceBuckets.length; i++) {
+                priceBuckets[i] = new RoaringBitmap();
+            }
+            for (int i = 0; i < ratingFloor.length; i++) {
+                ratingFloor[i] = new RoaringBitmap();
+            }
+        }
+
+        void add(Product product) {
+            int id = Math.toIntExact(product.getId());
+            double price = product.getPrice() != null ? product.getPrice().doubleValue() : 0;
+
+            active.add(id);
+            if (product.getCategory() != null) {
+                int categoryId = Math.toIntExact(product.getCategory().getId());
+                categories.computeIfAbsent(categoryId, key -> new RoaringBitmap()).add(id);
+                categoryOf.put(id, categoryId);
+            }
+            priceBuckets[bucketOf(price)].add(id);
+            prices.put(id, price);
+
+            double rating = product.getAverageRating() != null ? product.getAverageRating() : 0;
+            if (rating >= 1) {
+                ratingFloor[Math.min(5, (int) Math.floor(rating)) - 1].add(id);
+            }
+            if (product.getStockQuantity() != null && product.getStockQuantity() > 0) {
+                inStock.add(id);
+            }
+            if (product.getDiscountPercentage() != null && product.getDiscountPercentage() > 0) {
+                onSale.add(id);
+            }
+            if (Boolean.TRUE.equals(product.getIsFeatured())) {
+                featured.add(id);
+            }
+        }
+
+        void remove(Long productId) {
+            int id = Math.toIntExact(productId);
+            if (!active.contains(id)) {
+                return;
+            }
+            active.remove(id);
+            Integer categoryId = categoryOf.remove(id);
+            if (categoryId != null) {
+                categories.get(categoryId).remove(id);
+            }
+            Double price = prices.remove(id);
+            if (price != null) {
+                priceBuckets[bucketOf(price)].remove(id);
+            }
+            for (RoaringBitmap floor : ratingFloor) {
+                floor.remove(id);
+            }
+            inStock.remove(id);
+            onSale.remove(id);
+            featured.remove(id);
+        }
+
+        void runOptimize() {
+            active.runOptimize();
+            categories.values().forEach(RoaringBitmap::runOptimize);
+            inStock.runOptimize();
+            onSale.runOptimize();
+            featured.runOptimize();
+        }
+
+        RoaringBitmap ratingAtLeast(int minRating) {
+            RoaringBitmap result = new RoaringBitmap();
+            for (int rating = Math.max(1, minRating); rating <= 5; rating++) {
+                result.or(ratingFloor[rating - 1]);
+            }
+            return result;
+        }
+
+        /**
+         * Active products matching the filter, ignoring the predicate for {@code skip} (may be null).
+         */
+        RoaringBitmap match(ProductFilterRequest filter, Facet skip) {
+            RoaringBitmap result = active.clone();
+            if (filter == null) {
+                return result;
+            }
+
+            if (skip != Facet.CATEGORY && filter.getCategoryIds() != null && !filter.getCategoryIds().isEmpty()) {
+                RoaringBitmap inCategories = new RoaringBitmap();
+                for (Long categoryId : filter.getCategoryIds()) {
+                    RoaringBitmap ids = categories.get(Math.toIntExact(categoryId));
+                    if (ids != null) {
+                        inCategories.or(ids);
+                    }
+                }
+                result.and(inCategories);
+            }
+            if (skip != Facet.PRICE && (filter.getMinPrice() != null || filter.getMaxPrice() != null)) {
+                result.and(priceRange(filter.getMinPrice(), filter.getMaxPrice()));
+            }
+            if (skip != Facet.RATING && filter.getMinRating() != null) {
+                result.and(ratingAtLeast(filter.getMinRating()));
+            }
+            if (skip != Facet.IN_STOCK && Boolean.TRUE.equals(filter.getInStock())) {
+                result.and(inStock);
+            }
+            if (skip != Facet.ON_SALE && Boolean.TRUE.equals(filter.getOnSale())) {
+                result.and(onSale);
+            }
+            if (skip != Facet.FEATURED && Boolean.TRUE.equals(filter.getFeatured())) {
+                result.and(featured);
+            }
+            return result;
+        }
+
+        private RoaringBitmap priceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+            double min = minPrice != null ? minPrice.doubleValue() : Double.NEGATIVE_INFINITY;
+            double max = maxPrice != null ? maxPrice.doubleValue() : Double.POSITIVE_INFINITY;
+            int firstBucket = minPrice != null ? bucketOf(min) : 0;
+            int lastBucket = maxPrice != null ? bucketOf(max) : priceBuckets.length - 1;
+
+            RoaringBitmap result = new RoaringBitmap();
+            for (int bucket = firstBucket; bucket <= lastBucket; bucket++) {
+                if (bucket > firstBucket && bucket < lastBucket) {
+                    result.or(priceBuckets[bucket]);
+                    continue;
+                }
+                // Edge buckets may be partially covered by the range
+                priceBuckets[bucket].forEach((int id) -> {
+                    double price = prices.get(id);
+                    if (price >= min && price <= max) {
+                        result.add(id);
+                    }
+                });
+            }
+            return result;
+        }
+    }
+}
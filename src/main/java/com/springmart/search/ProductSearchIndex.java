@@ -0,0 +1,480 @@
+package com.springmart.search;
+
+import com.springmart.dto.ProductFilterRequest;
+import com.springmart.entity.Product;
+import com.springmart.event.ProductChangedEvent;
+import com.springmart.repository.ProductRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over active products (name, description, category name and SKU)
+ * with BM25 ranking. Enabled with {@code app.search.engine=memory}; ProductService then serves
+ * keyword search from here instead of PostgreSQL.
+ *
+ * <p>Built at startup, kept current from {@link ProductChangedEvent}s, and rebuilt in the background
+ * once too many postings belong to deleted or replaced documents. Events only fire on the node that
+ * made the change, so every {@code app.search.memory.sync-ms} the index also re-reads products
+ * updated since the last sync and drops products no longer active, which bounds how long another
+ * node's changes take to show up here.
+ *
+ * <p>Query syntax: terms are ANDed; an upper-case {@code OR} separates alternative clauses,
+ * e.g. {@code "wireless headphones OR earbuds"}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int NAME_WEIGHT = 3;
+    private static final int SKU_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final double MAX_DELETED_RATIO = 0.25;
+    // Re-read a little before the last sync: updated_at is set before the writing transaction commits
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.search.engine:database}")
+    private String engine;
+
+    private Segment segment = new Segment();
+    private volatile boolean ready;
+    private volatile boolean rebuilding;
+    private volatile LocalDateTime syncedUntil;
+
+    public boolean isEnabled() {
+        return "memory".equalsIgnoreCase(engine);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (isEnabled()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rebuilds when deleted documents make up too large a share of the index.
+     */
+    @Scheduled(fixedDelayString = "${app.search.memory.compaction-check-ms:60000}")
+    public void compactIfNeeded() {
+        if (!ready || rebuilding) {
+            return;
+        }
+        lock.readLock().lock();
+        boolean needsRebuild;
+        try {
+            needsRebuild = segment.docCount > 0
+                    && (double) segment.deleted.cardinality() / segment.docCount > MAX_DELETED_RATIO;
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (needsRebuild) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Applies changes committed on other nodes: re-indexes products updated since the last sync and,
+     * when the live document count disagrees with the database, drops products that are gone.
+     */
+    @Scheduled(fixedDelayString = "${app.search.memory.sync-ms:30000}",
+            initialDelayString = "${app.search.memory.sync-ms:30000}")
+    public synchronized void syncFromDatabase() {
+        if (!ready || rebuilding) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<Product> changed = productRepository.findByUpdatedAtAfter(syncedUntil.minus(SYNC_OVERLAP));
+        changed.forEach(this::index);
+
+        int liveDocs;
+        List<Long> indexed;
+        lock.readLock().lock();
+        try {
+            liveDocs = segment.liveDocs;
+            indexed = new ArrayList<>(segment.docByProductId.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+        int removed = 0;
+        if (productRepository.countByIsActiveTrue() != liveDocs) {
+            // Read after the snapshot, so anything indexed since is already committed and listed
+            Set<Long> active = new HashSet<>(productRepository.findActiveIds());
+            for (Long productId : indexed) {
+                if (!active.contains(productId)) {
+                    remove(productId);
+                    removed++;
+                }
+            }
+        }
+        syncedUntil = startedAt;
+        if (!changed.isEmpty() || removed > 0) {
+            log.debug("Synced product search index: {} re-indexed, {} removed", changed.size(), removed);
+        }
+    }
+
+    /**
+     * Builds a fresh segment from the database and swaps it in. Changes that arrive while the
+     * rebuild is running are replayed on the new segment.
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        LocalDateTime startedAt = LocalDateTime.now();
+        rebuilding = true;
+        changedDuringRebuild.clear();
+        try {
+            Segment fresh = new Segment();
+            long lastId = 0;
+            List<Product> batch;
+            do {
+                batch = productRepository.findByIsActiveTrueAndIdGreaterThanOrderByIdAsc(
+                        lastId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (Product product : batch) {
+                    fresh.add(product);
+                    lastId = product.getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+
+            lock.writeLock().lock();
+            try {
+                segment = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            syncedUntil = startedAt;
+        } finally {
+            rebuilding = false;
+        }
+
+        for (Long productId : changedDuringRebuild) {
+            reindex(productId);
+        }
+        changedDuringRebuild.clear();
+        ready = true;
+
+        log.info("Built in-memory product search index: {} products, {} terms in {} ms",
+                segment.liveDocs, segment.postings.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Re-reads the product in a new transaction: the committed transaction's persistence context is
+     * still bound here and would hand back its own copy, which misses stock changed by native
+     * UPDATEs (checkout, cancellations, restocks).
+     */
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!isEnabled()) {
+            return;
+        }
+        if (rebuilding) {
+            changedDuringRebuild.add(event.getProductId());
+        }
+        if (event.getType() == ProductChangedEvent.Type.DELETED) {
+            remove(event.getProductId());
+        } else {
+            reindex(event.getProductId());
+        }
+    }
+
+    /**
+     * Indexes (or re-indexes) a product. Inactive products are removed.
+     */
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            segment.delete(product.getId());
+            if (Boolean.TRUE.equals(product.getIsActive())) {
+                segment.add(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            segment.delete(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a ranked query. {@code filters} may be null; its category, price and stock
+     * predicates are honoured.
+     */
+    public SearchResult search(String query, ProductFilterRequest filters, int offset, int limit) {
+        List<List<String>> clauses = parse(query);
+        if (clauses.isEmpty()) {
+            return new SearchResult(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            Segment s = segment;
+
+            // Union of clause matches; each clause is the intersection of its terms' postings
+            BitSet matched = new BitSet(s.docCount);
+            for (List<String> clause : clauses) {
+                int[] candidates = intersect(s, clause);
+                for (int doc : candidates) {
+                    matched.set(doc);
+                }
+            }
+
+            Map<String, IntPostingList> queryTerms = new HashMap<>();
+            for (List<String> clause : clauses) {
+                for (String term : clause) {
+                    IntPostingList postings = s.postings.get(term);
+                    if (postings != null) {
+                        queryTerms.put(term, postings);
+                    }
+                }
+            }
+
+            int wanted = offset + limit;
+            PriorityQueue<ScoredDoc> top = new PriorityQueue<>(Math.max(1, wanted + 1),
+                    Comparator.comparingDouble((ScoredDoc d) -> d.score).thenComparingInt(d -> -d.doc));
+            long total = 0;
+            float averageLength = s.averageLength();
+
+            for (int doc = matched.nextSetBit(0); doc >= 0; doc = matched.nextSetBit(doc + 1)) {
+                if (s.deleted.get(doc) || !s.matches(doc, filters)) {
+                    continue;
+                }
+                total++;
+                top.offer(new ScoredDoc(doc, score(s, doc, queryTerms.values(), averageLength)));
+                if (top.size() > wanted) {
+                    top.poll();
+                }
+            }
+
+            List<ScoredDoc> ranked = new ArrayList<>(top);
+            ranked.sort(Comparator.comparingDouble((ScoredDoc d) -> -d.score).thenComparingInt(d -> d.doc));
+
+            List<Long> productIds = new ArrayList<>(limit);
+            for (int i = offset; i < ranked.size(); i++) {
+                productIds.add(s.productIds[ranked.get(i).doc]);
+            }
+            return new SearchResult(productIds, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void reindex(Long productId) {
+        // Indexing reads the category, so load it with the product
+        productRepository.findByIdIn(List.of(productId)).stream()
+                .findFirst()
+                .ifPresentOrElse(this::index, () -> remove(productId));
+    }
+
+    private static List<List<String>> parse(String query) {
+        List<List<String>> clauses = new ArrayList<>();
+        if (query == null) {
+            return clauses;
+        }
+        for (String clause : query.split("\\s+OR\\s+")) {
+            List<String> terms = Tokenizer.tokenize(clause);
+            if (!terms.isEmpty()) {
+                clauses.add(terms);
+            }
+        }
+        return clauses;
+    }
+
+    private static int[] intersect(Segment s, List<String> terms) {
+        List<IntPostingList> lists = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            IntPostingList postings = s.postings.get(term);
+            if (postings == null) {
+                return new int[0];
+            }
+            lists.add(postings);
+        }
+        // Start from the rarest term so the candidate set is as small as possible
+        lists.sort(Comparator.comparingInt(IntPostingList::size));
+
+        int[] candidates = lists.get(0).docs();
+        int count = candidates.length;
+        for (int i = 1; i < lists.size() && count > 0; i++) {
+            count = lists.get(i).retainAll(candidates, count);
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    private static float score(Segment s, int doc, Collection<IntPostingList> terms, float averageLength) {
+        float score = 0f;
+        float lengthNorm = K1 * (1 - B + B * s.docLengths[doc] / averageLength);
+        for (IntPostingList postings : terms) {
+            int tf = postings.frequency(doc);
+            if (tf == 0) {
+                continue;
+            }
+            int df = postings.liveSize();
+            double idf = Math.log(1 + (s.liveDocs - df + 0.5) / (df + 0.5));
+            score += (float) (idf * tf * (K1 + 1) / (tf + lengthNorm));
+        }
+        return score;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class SearchResult {
+        private final List<Long> productIds;
+        private final long totalHits;
+    }
+
+    private static final class ScoredDoc {
+        final int doc;
+        final float score;
+
+        ScoredDoc(int doc, float score) {
+            this.doc = doc;
+            this.score = score;
+        }
+    }
+
+    /**
+     * The index itself. Documents get dense int ids in insertion order; updates delete the old
+     * document and append a new one, so posting lists stay sorted without in-place edits.
+     */
+    private static final class Segment {
+
+        final Map<String, IntPostingList> postings = new HashMap<>();
+        final Map<Long, Integer> docByProductId = new HashMap<>();
+        final BitSet deleted = new BitSet();
+
+        long[] productIds = new long[1024];
+        // Posting lists each doc appears in, so a delete can adjust their live document frequency
+        IntPostingList[][] docPostings = new IntPostingList[1024][];
+        int[] docLengths = new int[1024];
+        double[] prices = new double[1024];
+        long[] categoryIds = new long[1024];
+        int[] stock = new int[1024];
+
+        int docCount;
+        int liveDocs;
+        long totalLength;
+
+        void add(Product product) {
+            Map<String, Integer> termFrequencies = new HashMap<>();
+            addTerms(termFrequencies, product.getName(), NAME_WEIGHT);
+            addTerms(termFrequencies, product.getDescription(), DESCRIPTION_WEIGHT);
+            addTerms(termFrequencies, product.getCategory() != null ? product.getCategory().getName() : null,
+                    CATEGORY_WEIGHT);
+            addTerms(termFrequencies, product.getSku(), SKU_WEIGHT);
+
+            ensureCapacity(docCount + 1);
+            int doc = docCount++;
+            int length = 0;
+            IntPostingList[] lists = new IntPostingList[termFrequencies.size()];
+            int term = 0;
+            for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+                IntPostingList list = postings.computeIfAbsent(entry.getKey(), key -> new IntPostingList());
+                list.add(doc, entry.getValue());
+                lists[term++] = list;
+                length += entry.getValue();
+            }
+
+            productIds[doc] = product.getId();
+            docPostings[doc] = lists;
+            docLengths[doc] = length;
+            prices[doc] = product.getPrice() != null ? product.getPrice().doubleValue() : 0;
+            categoryIds[doc] = product.getCategory() != null ? product.getCategory().getId() : 0;
+            stock[doc] = product.getStockQuantity() != null ? product.getStockQuantity() : 0;
+
+            docByProductId.put(product.getId(), doc);
+            liveDocs++;
+            totalLength += length;
+        }
+
+        void delete(Long productId) {
+            Integer doc = docByProductId.remove(productId);
+            if (doc != null) {
+                deleted.set(doc);
+                liveDocs--;
+                totalLength -= docLengths[doc];
+                for (IntPostingList list : docPostings[doc]) {
+                    list.markDeleted();
+                }
+                docPostings[doc] = null;
+            }
+        }
+
+        float averageLength() {
+            return liveDocs == 0 ? 1f : Math.max(1f, (float) totalLength / liveDocs);
+        }
+
+        boolean matches(int doc, ProductFilterRequest filters) {
+            if (filters == null) {
+                return true;
+            }
+            if (filters.getCategoryIds() != null && !filters.getCategoryIds().isEmpty()
+                    && !filters.getCategoryIds().contains(categoryIds[doc])) {
+                return false;
+            }
+            BigDecimal minPrice = filters.getMinPrice();
+            if (minPrice != null && prices[doc] < minPrice.doubleValue()) {
+                return false;
+            }
+            BigDecimal maxPrice = filters.getMaxPrice();
+            if (maxPrice != null && prices[doc] > maxPrice.doubleValue()) {
+                return false;
+            }
+            return !Boolean.TRUE.equals(filters.getInStock()) || stock[doc] > 0;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity <= productIds.length) {
+                return;
+            }
+            int newCapacity = Math.max(capacity, productIds.length * 2);
+            productIds = Arrays.copyOf(productIds, newCapacity);
+            docPostings = Arrays.copyOf(docPostings, newCapacity);
+            docLengths = Arrays.copyOf(docLengths, newCapacity);
+            prices = Arrays.copyOf(prices, newCapacity);
+            categoryIds = Arrays.copyOf(categoryIds, newCapacity);
+            stock = Arrays.copyOf(stock, newCapacity);
+        }
+
+        private static void addTerms(Map<String, Integer> termFrequencies, String text, int weight) {
+            for (String token : Tokenizer.tokenize(text)) {
+                termFrequencies.merge(token, weight, Integer::sum);
+            }
+        }
+    }
+}
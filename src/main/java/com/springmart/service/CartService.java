@@ -3,7 +3,6 @@ package com.springmart.service;
 import com.springmart.dto.CartItemDTO;
 import com.springmart.entity.CartItem;
 import com.springmart.entity.Product;
-import com.springmart.entity.ProductImage;
 import com.springmart.entity.User;
 import com.springmart.exception.InsufficientStockException;
 import com.springmart.exception.ResourceNotFoundException;
@@ -118,18 +117,12 @@ public class CartService {
         BigDecimal subtotal = cartItem.getProduct().getPrice()
                 .multiply(BigDecimal.valueOf(cartItem.getQuantity()));
 
-        String imageUrl = cartItem.getProduct().getImages().stream()
-                .filter(ProductImage::getIsPrimary)
-                .findFirst()
-                .map(ProductImage::getImageUrl)
-                .orElse(null);
-
         return CartItemDTO.builder()
                 .id(cartItem.getId())
                 .productId(cartItem.getProduct().getId())
                 .productName(cartItem.getProduct().getName())
                 .productPrice(cartItem.getProduct().getPrice())
-                .productImageUrl(imageUrl)
+                .productImageUrl(cartItem.getProduct().getPrimaryImageUrl())
                 .quantity(cartItem.getQuantity())
                 .subtotal(subtotal)
                 .build();
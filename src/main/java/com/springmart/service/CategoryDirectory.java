@@ -0,0 +1,166 @@
+package com.springmart.service;
+
+import com.springmart.dto.CategoryDTO;
+import com.springmart.entity.Category;
+import com.springmart.jobs.ClusterJobRunner;
+import com.springmart.repository.CategoryRepository;
+import com.springmart.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory directory of categories with their active product counts.
+ *
+ * <p>Loaded with one aggregate query, then kept current by ProductService through
+ * {@link #productAdded}, {@link #productRemoved} and {@link #productMoved}. Adjustments are
+ * applied after the surrounding transaction commits; the scheduled reconciliation reloads from the
+ * database and corrects anything that drifted (rollbacks after commit hooks, SQL run by hand, ...).
+ * The directory is per node, so every node reconciles its own; {@link ClusterJobRunner} records the
+ * runs under a per-node job name.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryDirectory {
+
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final ClusterJobRunner clusterJobRunner;
+
+    private final Map<Long, AtomicLong> activeCounts = new ConcurrentHashMap<>();
+    private volatile List<Category> categories;
+
+    public boolean isLoaded() {
+        return categories != null;
+    }
+
+    public List<CategoryDTO> getAll() {
+        List<CategoryDTO> result = new ArrayList<>(categories.size());
+        for (Category category : categories) {
+            result.add(toDTO(category));
+        }
+        return result;
+    }
+
+    public long getActiveProductCount(Long categoryId) {
+        AtomicLong count = activeCounts.get(categoryId);
+        return count != null ? count.get() : 0L;
+    }
+
+    public void productAdded(Long categoryId, boolean active) {
+        if (active) {
+            adjustAfterCommit(categoryId, 1);
+        }
+    }
+
+    public void productRemoved(Long categoryId, boolean wasActive) {
+        if (wasActive) {
+            adjustAfterCommit(categoryId, -1);
+        }
+    }
+
+    public void productMoved(Long fromCategoryId, boolean wasActive, Long toCategoryId, boolean active) {
+        productRemoved(fromCategoryId, wasActive);
+        productAdded(toCategoryId, active);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${app.categories.reconcile-ms:300000}",
+            initialDelayString = "${app.categories.reconcile-ms:300000}")
+    public void scheduledReconcile() {
+        clusterJobRunner.runOnEachNode("category-reconcile", 0, (shard, shards) -> reconcile());
+    }
+
+    /**
+     * Reloads categories and counts, logging and returning how many counters had drifted.
+     */
+    public int reconcile() {
+        long start = System.currentTimeMillis();
+        List<Category> loaded = new ArrayList<>(categoryRepository.findAll());
+        loaded.sort(Comparator.comparing(Category::getId));
+        Map<Long, Long> counts = loadActiveCounts();
+
+        int drifted = 0;
+        Set<Long> ids = new HashSet<>();
+        for (Category category : loaded) {
+            ids.add(category.getId());
+            long actual = counts.getOrDefault(category.getId(), 0L);
+            AtomicLong counter = activeCounts.computeIfAbsent(category.getId(), id -> new AtomicLong());
+            if (isLoaded() && counter.get() != actual) {
+                drifted++;
+            }
+            counter.set(actual);
+        }
+        activeCounts.keySet().retainAll(ids);
+        categories = List.copyOf(loaded);
+
+        if (drifted > 0) {
+            log.warn("Corrected {} drifted category counters in {} ms", drifted, System.currentTimeMillis() - start);
+        } else {
+            log.debug("Category directory reconciled in {} ms", System.currentTimeMillis() - start);
+        }
+        return drifted;
+    }
+
+    /**
+     * Active product count per category id, from a single GROUP BY query.
+     */
+    public Map<Long, Long> loadActiveCounts() {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : productRepository.countActiveProductsByCategory()) {
+            counts.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    private void adjustAfterCommit(Long categoryId, int delta) {
+        if (categoryId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    adjust(categoryId, delta);
+                }
+            });
+        } else {
+            adjust(categoryId, delta);
+        }
+    }
+
+    private void adjust(Long categoryId, int delta) {
+        activeCounts.computeIfAbsent(categoryId, id -> new AtomicLong()).addAndGet(delta);
+    }
+
+    private CategoryDTO toDTO(Category category) {
+        return CategoryDTO.builder()
+                .id(category.getId())
+                .name(category.getName())
+                .description(category.getDescription())
+                .slug(category.getSlug())
+                .imageUrl(category.getImageUrl())
+                .productCount(getActiveProductCount(category.getId()))
+                .build();
+    }
+}
@@ -7,11 +7,11 @@ import com.springmart.repository.CategoryRepository;
 import com.springmart.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,11 +22,19 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
+    private final CategoryDirectory categoryDirectory;
 
-    // @Cacheable(value = "categories", key = "'all-v2'")
+    /**
+     * Served from the in-memory CategoryDirectory; until it has loaded, counts come from a single
+     * GROUP BY query rather than one count per category.
+     */
     public List<CategoryDTO> getAllCategories() {
+        if (categoryDirectory.isLoaded()) {
+            return categoryDirectory.getAll();
+        }
+        Map<Long, Long> counts = categoryDirectory.loadActiveCounts();
         return categoryRepository.findAll().stream()
-                .map(this::convertToDTO)
+                .map(category -> convertToDTO(category, counts.getOrDefault(category.getId(), 0L)))
                 .collect(Collectors.toList());
     }
 
@@ -43,7 +51,13 @@ public class CategoryService {
     }
 
     private CategoryDTO convertToDTO(Category category) {
-        long productCount = productRepository.countByCategoryIdAndIsActiveTrue(category.getId());
+        long productCount = categoryDirectory.isLoaded()
+                ? categoryDirectory.getActiveProductCount(category.getId())
+                : productRepository.countByCategoryIdAndIsActiveTrue(category.getId());
+        return convertToDTO(category, productCount);
+    }
+
+    private CategoryDTO convertToDTO(Category category, long productCount) {
         return CategoryDTO.builder()
                 .id(category.getId())
                 .name(category.getName())
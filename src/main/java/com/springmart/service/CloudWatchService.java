@@ -143,12 +143,33 @@ public class CloudWatchService {
         }
     }
 
+    /**
+     * Records up to 1000 metrics in a single PutMetricData request, so they are accepted or rejected
+     * together.
+     *
+     * @param metrics list of metric data
+     * @return true if the request was accepted
+     */
+    public boolean putMetricRequest(List<MetricDatum> metrics) {
+        try {
+            cloudWatchClient.putMetricData(PutMetricDataRequest.builder()
+                    .namespace(namespace)
+                    .metricData(metrics)
+                    .build());
+            return true;
+        } catch (Exception e) {
+            log.warn("Failed to send {} metrics to CloudWatch", metrics.size(), e);
+            return false;
+        }
+    }
+
     /**
      * Records multiple metrics in a batch.
      *
      * @param metrics list of metric data
+     * @return true if every batch was accepted
      */
-    public void putMetrics(List<MetricDatum> metrics) {
+    public boolean putMetrics(List<MetricDatum> metrics) {
         try {
             // CloudWatch allows max 1000 metrics per request, but we'll use smaller batches
             int batchSize = 20;
@@ -165,9 +186,11 @@ public class CloudWatchService {
             }
 
             log.debug("Sent {} metrics to CloudWatch", metrics.size());
+            return true;
 
         } catch (Exception e) {
             log.warn("Failed to send batch metrics to CloudWatch", e);
+            return false;
         }
     }
 }
@@ -213,20 +213,18 @@ public class GuestCartService {
     }
 
     /**
-     * Cleanup expired guest sessions (scheduled task)
+     * Deletes the expired guest sessions in one shard of the session ids, with their cart items, and
+     * returns the number of sessions removed. Run by GuestSessionCleanupScheduler.
      */
     @Transactional
-    public void cleanupExpiredSessions() {
-        List<GuestSession> expiredSessions = guestSessionRepository
-                .findByExpiresAtBefore(LocalDateTime.now());
-        
-        for (GuestSession session : expiredSessions) {
-            guestCartItemRepository.deleteBySessionId(session.getSessionId());
-            guestSessionRepository.delete(session);
-        }
-        
-        if (!expiredSessions.isEmpty()) {
-            log.info("Cleaned up {} expired guest sessions", expiredSessions.size());
+    public int cleanupExpiredSessions(int shard, int shards) {
+        LocalDateTime now = LocalDateTime.now();
+        int items = guestSessionRepository.deleteExpiredCartItems(now, shard, shards);
+        int sessions = guestSessionRepository.deleteExpired(now, shard, shards);
+
+        if (sessions > 0) {
+            log.info("Cleaned up {} expired guest sessions ({} cart items), shard {}/{}", sessions, items, shard, shards);
         }
+        return sessions;
     }
 }
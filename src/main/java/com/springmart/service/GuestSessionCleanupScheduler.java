@@ -0,0 +1,44 @@
+package com.springmart.service;
+
+import com.springmart.jobs.ClusterJobRunner;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Removes expired guest sessions and their carts. Fired on every node; {@link ClusterJobRunner}
+ * makes sure each shard of the session ids is cleaned by one node per interval.
+ */
+@Service
+@Slf4j
+public class GuestSessionCleanupScheduler {
+
+    private static final String JOB_NAME = "guest-session-cleanup";
+
+    private final GuestCartService guestCartService;
+    private final ClusterJobRunner clusterJobRunner;
+    private final long intervalMillis;
+    private final int shards;
+
+    public GuestSessionCleanupScheduler(GuestCartService guestCartService, ClusterJobRunner clusterJobRunner,
+                                        @Value("${app.guest.cleanup-ms:900000}") long intervalMillis,
+                                        @Value("${app.guest.cleanup-shards:2}") int shards) {
+        this.guestCartService = guestCartService;
+        this.clusterJobRunner = clusterJobRunner;
+        this.intervalMillis = intervalMillis;
+        this.shards = shards;
+    }
+
+    /**
+     * Runs every 15 minutes by default (app.guest.cleanup-ms).
+     */
+    @Scheduled(fixedDelayString = "${app.guest.cleanup-ms:900000}", initialDelayString = "${app.guest.cleanup-ms:900000}")
+    public void cleanupExpiredSessions() {
+        long start = System.currentTimeMillis();
+        int removed = clusterJobRunner.run(JOB_NAME, shards, intervalMillis / 2,
+                guestCartService::cleanupExpiredSessions);
+        log.debug("Guest session cleanup removed {} sessions on this node in {} ms",
+                removed, System.currentTimeMillis() - start);
+    }
+}
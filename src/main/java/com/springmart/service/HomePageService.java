@@ -0,0 +1,135 @@
+package com.springmart.service;
+
+import com.springmart.dto.CategoryDTO;
+import com.springmart.dto.HomePageSnapshot;
+import com.springmart.dto.ProductDTO;
+import com.springmart.event.ProductChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves the home page from a precomputed {@link HomePageSnapshot} so a page view does no SQL.
+ *
+ * <p>The snapshot is rebuilt on a schedule and shortly after catalog changes (changes arriving
+ * within the debounce window share one rebuild). A rebuild runs the five independent queries in
+ * parallel, each through the cached service methods in its own read-only transaction.
+ */
+@Service
+@Slf4j
+public class HomePageService {
+
+    private static final int LATEST_LIMIT = 8;
+    private static final int TOP_RATED_LIMIT = 8;
+    private static final int FEATURED_LIMIT = 4;
+    private static final int FLASH_DEALS_LIMIT = 6;
+
+    private final ProductService productService;
+    private final CategoryService categoryService;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    @Value("${app.home.rebuild-debounce-ms:500}")
+    private long rebuildDebounceMs;
+
+    private volatile HomePageSnapshot snapshot;
+
+    public HomePageService(ProductService productService, CategoryService categoryService) {
+        this.productService = productService;
+        this.categoryService = categoryService;
+        AtomicInteger counter = new AtomicInteger();
+        // One thread per query plus one for the debounced rebuild that waits on them
+        this.executor = Executors.newScheduledThreadPool(6, runnable -> {
+            Thread thread = new Thread(runnable, "home-snapshot-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Current snapshot; only the very first request after startup may have to wait for a build.
+     */
+    public HomePageSnapshot getSnapshot() {
+        HomePageSnapshot current = snapshot;
+        return current != null ? current : rebuild();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        executor.execute(this::rebuildQuietly);
+    }
+
+    @Scheduled(fixedDelayString = "${app.home.refresh-ms:60000}")
+    public void scheduledRebuild() {
+        rebuildQuietly();
+    }
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        // Delay slightly so cache invalidation for the same commit has run first
+        if (rebuildPending.compareAndSet(false, true)) {
+            executor.schedule(() -> {
+                rebuildPending.set(false);
+                rebuildQuietly();
+            }, rebuildDebounceMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public synchronized HomePageSnapshot rebuild() {
+        long start = System.currentTimeMillis();
+
+        CompletableFuture<List<ProductDTO>> latest = CompletableFuture.supplyAsync(
+                () -> productService.getLatestProducts(LATEST_LIMIT), executor);
+        CompletableFuture<List<ProductDTO>> topRated = CompletableFuture.supplyAsync(
+                () -> productService.getTopRatedProducts(TOP_RATED_LIMIT), executor);
+        CompletableFuture<List<ProductDTO>> featured = CompletableFuture.supplyAsync(
+                () -> productService.getFeaturedProducts(FEATURED_LIMIT), executor);
+        CompletableFuture<List<ProductDTO>> flashDeals = CompletableFuture.supplyAsync(
+                () -> productService.getFlashDeals(FLASH_DEALS_LIMIT), executor);
+        CompletableFuture<List<CategoryDTO>> categories = CompletableFuture.supplyAsync(
+                categoryService::getAllCategories, executor);
+
+        CompletableFuture.allOf(latest, topRated, featured, flashDeals, categories).join();
+
+        HomePageSnapshot rebuilt = HomePageSnapshot.builder()
+                .latestProducts(List.copyOf(latest.join()))
+                .topRatedProducts(List.copyOf(topRated.join()))
+                .featuredProducts(List.copyOf(featured.join()))
+                .flashDeals(List.copyOf(flashDeals.join()))
+                .categories(List.copyOf(categories.join()))
+                .builtAt(LocalDateTime.now())
+                .build();
+        snapshot = rebuilt;
+
+        log.debug("Rebuilt home page snapshot in {} ms", System.currentTimeMillis() - start);
+        return rebuilt;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // Keep serving the previous snapshot
+            log.error("Failed to rebuild home page snapshot", e);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.springmart.service;
+
+import com.springmart.enums.OrderStatus;
+import com.springmart.event.OrderPlacedEvent;
+import com.springmart.event.OrderStatusChangedEvent;
+import com.springmart.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires the automatic order lifecycle ({@link OrderStatusScheduler#STAGES}) from a
+ * {@link TimingWheel} instead of polling the orders table. Each order's next transition is scheduled
+ * when it is placed or its status is changed, and again each time the wheel moves it; at startup the
+ * wheel is rehydrated from the orders not yet in a final status. Every {@code tick-ms} the due
+ * transitions are applied as set-based updates of up to {@code chunk-size} orders, so the work done
+ * follows the number of orders falling due rather than the size of the table, and an order moves
+ * within about a tick of being due.
+ *
+ * <p>Enabled by {@code app.orders.lifecycle.mode=wheel}. The wheel only knows about orders placed
+ * on or loaded by this node; {@link OrderStatusScheduler} keeps a slow sweep for anything it misses.
+ */
+@Component
+@Slf4j
+public class OrderLifecycleWheel {
+
+    private static final long RETRY_MILLIS = 5000;
+
+    /**
+     * A scheduled transition for one order.
+     */
+    private static final class Timer {
+        private final long orderId;
+        private final OrderStatusScheduler.Stage stage;
+        private final long createdMillis;
+
+        private Timer(long orderId, OrderStatusScheduler.Stage stage, long createdMillis) {
+            this.orderId = orderId;
+            this.stage = stage;
+            this.createdMillis = createdMillis;
+        }
+    }
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long tickMillis;
+    private final int chunkSize;
+    private final TimingWheel<Timer> wheel;
+    private final Map<String, Integer> moved = new LinkedHashMap<>();
+    private final ScheduledExecutorService executor;
+
+    public OrderLifecycleWheel(OrderRepository orderRepository, PlatformTransactionManager transactionManager,
+                               @Value("${app.orders.lifecycle.mode:polling}") String mode,
+                               @Value("${app.orders.lifecycle.wheel.tick-ms:100}") long tickMillis,
+                               @Value("${app.orders.lifecycle.wheel.slots:256}") int slots,
+                               @Value("${app.orders.lifecycle.chunk-size:1000}") int chunkSize) {
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = "wheel".equalsIgnoreCase(mode);
+        this.tickMillis = tickMillis;
+        this.chunkSize = chunkSize;
+        // Four levels of 256 slots at 100 ms reach about 13 years; nothing waits in the overflow queue
+        this.wheel = new TimingWheel<>(tickMillis, slots, 4, System.currentTimeMillis());
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-lifecycle-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        rehydrate();
+        executor.scheduleWithFixedDelay(this::fire, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @TransactionalEventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        if (enabled) {
+            LocalDateTime placedAt = event.getPlacedAt() != null ? event.getPlacedAt() : LocalDateTime.now();
+            schedule(event.getOrderId(), OrderStatus.PENDING, toMillis(placedAt));
+        }
+    }
+
+    @TransactionalEventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (enabled) {
+            LocalDateTime createdAt = event.getCreatedAt() != null ? event.getCreatedAt() : LocalDateTime.now();
+            schedule(event.getOrderId(), event.getStatus(), toMillis(createdAt));
+        }
+    }
+
+    /**
+     * Orders moved per transition since the last call.
+     */
+    public Map<String, Integer> drainMoved() {
+        synchronized (moved) {
+            Map<String, Integer> drained = new LinkedHashMap<>(moved);
+            moved.clear();
+            return drained;
+        }
+    }
+
+    public int pending() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    /**
+     * Schedules the order's next transition from {@code status}; final statuses have none.
+     */
+    private void schedule(long orderId, OrderStatus status, long createdMillis) {
+        OrderStatusScheduler.Stage stage = OrderStatusScheduler.stageFrom(status);
+        if (stage != null) {
+            schedule(new Timer(orderId, stage, createdMillis),
+                    createdMillis + stage.getAfterCreation().toMillis());
+        }
+    }
+
+    private void schedule(Timer timer, long dueMillis) {
+        synchronized (wheel) {
+            wheel.schedule(timer, dueMillis);
+        }
+    }
+
+    private void rehydrate() {
+        long start = System.currentTimeMillis();
+        List<String> statuses = OrderStatusScheduler.STAGES.stream().map(stage -> stage.getFrom().name()).toList();
+        long afterId = 0;
+        int loaded = 0;
+        while (true) {
+            List<Object[]> rows = orderRepository.findLifecycleEntries(statuses, afterId, chunkSize);
+            for (Object[] row : rows) {
+                afterId = ((Number) row[0]).longValue();
+                schedule(afterId, OrderStatus.valueOf((String) row[1]), rowMillis(row[2]));
+            }
+            loaded += rows.size();
+            if (rows.size() < chunkSize) {
+                break;
+            }
+        }
+        log.info("Rehydrated order lifecycle wheel with {} open orders in {} ms",
+                loaded, System.currentTimeMillis() - start);
+    }
+
+    private void fire() {
+        List<Timer> due;
+        synchronized (wheel) {
+            due = wheel.advance(System.currentTimeMillis());
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+
+        Map<OrderStatusScheduler.Stage, Map<Long, Timer>> byStage = new LinkedHashMap<>();
+        for (Timer timer : due) {
+            byStage.computeIfAbsent(timer.stage, stage -> new LinkedHashMap<>()).put(timer.orderId, timer);
+        }
+        byStage.forEach((stage, timers) -> {
+            List<Long> ids = new ArrayList<>(timers.keySet());
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+                try {
+                    transition(stage, chunk, timers);
+                } catch (RuntimeException e) {
+                    log.warn("Order lifecycle transition {} failed for {} orders, retrying in {} ms: {}",
+                            stage.getName(), chunk.size(), RETRY_MILLIS, e.getMessage());
+                    long retryAt = System.currentTimeMillis() + RETRY_MILLIS;
+                    chunk.forEach(id -> schedule(timers.get(id), retryAt));
+                }
+            }
+        });
+    }
+
+    /**
+     * Moves the orders still in the stage's status and schedules their next transition; orders whose
+     * status was changed meanwhile were rescheduled by that change.
+     */
+    private void transition(OrderStatusScheduler.Stage stage, List<Long> ids, Map<Long, Timer> timers) {
+        List<Long> movedIds = transactionTemplate.execute(status -> orderRepository.transitionStatusByIds(
+                stage.getFrom(), stage.getTo(), ids, OrderStatusScheduler.NOTES));
+        if (movedIds == null || movedIds.isEmpty()) {
+            return;
+        }
+        for (Long id : movedIds) {
+            schedule(id, stage.getTo(), timers.get(id).createdMillis);
+        }
+        synchronized (moved) {
+            moved.merge(stage.getName(), movedIds.size(), Integer::sum);
+        }
+    }
+
+    private static long rowMillis(Object value) {
+        LocalDateTime time = value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+        return toMillis(time);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
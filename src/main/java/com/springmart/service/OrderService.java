@@ -5,11 +5,17 @@ import com.springmart.dto.OrderDTO;
 import com.springmart.dto.OrderItemDTO;
 import com.springmart.entity.*;
 import com.springmart.enums.OrderStatus;
+import com.springmart.event.OrderPlacedEvent;
+import com.springmart.event.OrderStatusChangedEvent;
+import com.springmart.event.ProductChangedEvent;
 import com.springmart.exception.InsufficientStockException;
 import com.springmart.exception.ResourceNotFoundException;
+import com.springmart.inventory.InventoryReservationService;
+import com.springmart.outbox.OutboxService;
 import com.springmart.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -17,7 +23,13 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -32,13 +44,13 @@ public class OrderService {
         private final ProductRepository productRepository;
         private final UserRepository userRepository;
         private final CartService cartService;
-        private final SQSService sqsService;
-        private final SNSService snsService;
-        private final CloudWatchService cloudWatchService;
         private final OrderStatusHistoryRepository orderStatusHistoryRepository;
         private final PromoCodeService promoCodeService;
         private final GuestCartItemRepository guestCartItemRepository;
         private final PromoCodeRepository promoCodeRepository;
+        private final ApplicationEventPublisher eventPublisher;
+        private final InventoryReservationService inventoryReservationService;
+        private final OutboxService outboxService;
 
         public OrderDTO getOrderById(Long id) {
                 Order order = orderRepository.findById(id)
@@ -66,16 +78,10 @@ public class OrderService {
                         throw new IllegalStateException("Cart is empty");
                 }
 
-                // Validate stock availability
-                for (CartItem cartItem : cartItems) {
-                        Product product = cartItem.getProduct();
-                        if (product.getStockQuantity() < cartItem.getQuantity()) {
-                                throw new InsufficientStockException(
-                                                product.getName(),
-                                                cartItem.getQuantity(),
-                                                product.getStockQuantity());
-                        }
-                }
+                // Take stock up front; a short product fails the order before anything else is written
+                Map<Product, Integer> quantities = new LinkedHashMap<>();
+                cartItems.forEach(item -> quantities.merge(item.getProduct(), item.getQuantity(), Integer::sum));
+                takeStock(quantities);
 
                 // Calculate totals
                 BigDecimal subtotal = cartItems.stream()
@@ -112,13 +118,10 @@ public class OrderService {
                                 .discountAmount(discountAmount)
                                 .build();
 
-                // Create order items and update stock
+                // Create order items
                 List<OrderItem> orderItems = cartItems.stream()
                                 .map(cartItem -> {
                                         Product product = cartItem.getProduct();
-                                        product.setStockQuantity(product.getStockQuantity() - cartItem.getQuantity());
-                                        productRepository.save(product);
-
                                         return OrderItem.builder()
                                                         .order(order)
                                                         .product(product)
@@ -135,24 +138,10 @@ public class OrderService {
                 cartService.clearCart(userId);
 
                 log.info("Created order {} for user {}", savedOrder.getOrderNumber(), userId);
+                eventPublisher.publishEvent(toOrderPlacedEvent(savedOrder));
 
-                // AWS Integrations
-                try {
-                        // Send order to SQS for async processing
-                        sqsService.sendOrderMessage(savedOrder.getId());
-
-                        // Publish SNS notification
-                        snsService.publishOrderPlaced(
-                                        savedOrder.getId(),
-                                        user.getEmail(),
-                                        savedOrder.getTotalAmount().doubleValue());
-
-                        // Record CloudWatch metrics
-                        cloudWatchService.recordOrderPlaced(savedOrder.getTotalAmount().doubleValue());
-                } catch (Exception e) {
-                        log.error("Failed to process AWS integrations for order {}", savedOrder.getId(), e);
-                        // Don't fail the order - AWS integrations are supplementary
-                }
+                // SQS, SNS and CloudWatch side effects are relayed from the outbox after commit
+                outboxService.orderPlaced(savedOrder, user.getEmail());
 
                 return convertToDTO(savedOrder);
         }
@@ -167,22 +156,16 @@ public class OrderService {
                 Order updatedOrder = orderRepository.save(order);
 
                 log.info("Updated order {} status to {}", order.getOrderNumber(), newStatus);
-
-                // AWS Integrations - Publish status change notifications
-                try {
-                        if (newStatus == OrderStatus.SHIPPED) {
-                                snsService.publishOrderShipped(
-                                                updatedOrder.getId(),
-                                                updatedOrder.getUser().getEmail(),
-                                                "TRACK-" + updatedOrder.getOrderNumber());
-                        } else if (newStatus == OrderStatus.DELIVERED) {
-                                snsService.publishOrderDelivered(
-                                                updatedOrder.getId(),
-                                                updatedOrder.getUser().getEmail());
-                                cloudWatchService.recordOrderCompleted();
-                        }
-                } catch (Exception e) {
-                        log.error("Failed to process AWS integrations for order status update", e);
+                eventPublisher.publishEvent(toOrderStatusChangedEvent(updatedOrder));
+
+                // Status change notifications go through the outbox
+                String email = updatedOrder.getUser() != null
+                                ? updatedOrder.getUser().getEmail()
+                                : Objects.requireNonNullElse(updatedOrder.getGuestEmail(), updatedOrder.getOrderNumber());
+                if (newStatus == OrderStatus.SHIPPED) {
+                        outboxService.orderShipped(updatedOrder, email, "TRACK-" + updatedOrder.getOrderNumber());
+                } else if (newStatus == OrderStatus.DELIVERED) {
+                        outboxService.orderDelivered(updatedOrder, email);
                 }
 
                 return convertToDTO(updatedOrder);
@@ -198,10 +181,14 @@ public class OrderService {
                 }
 
                 // Restore stock
-                for (OrderItem item : order.getItems()) {
-                        Product product = item.getProduct();
-                        product.setStockQuantity(product.getStockQuantity() + item.getQuantity());
-                        productRepository.save(product);
+                Map<Long, Integer> quantities = new HashMap<>();
+                order.getItems().forEach(item -> quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum));
+                if (inventoryReservationService.isEnabled()) {
+                        inventoryReservationService.restockAfterCommit(quantities);
+                } else {
+                        productRepository.adjustStock(quantities);
+                        order.getItems().forEach(item -> eventPublisher.publishEvent(
+                                        ProductChangedEvent.of(item.getProduct(), ProductChangedEvent.Type.STOCK_CHANGED)));
                 }
 
                 order.setStatus(OrderStatus.CANCELLED);
@@ -210,7 +197,7 @@ public class OrderService {
                 log.info("Cancelled order {}", order.getOrderNumber());
         }
 
-        private OrderDTO convertToDTO(Order order) {
+        OrderDTO convertToDTO(Order order) {
                 List<OrderItemDTO> items = order.getItems().stream()
                                 .map(this::convertOrderItemToDTO)
                                 .collect(Collectors.toList());
@@ -247,25 +234,58 @@ public class OrderService {
         }
 
         private OrderItemDTO convertOrderItemToDTO(OrderItem item) {
-                String imageUrl = item.getProduct().getImages().stream()
-                                .filter(ProductImage::getIsPrimary)
-                                .findFirst()
-                                .map(ProductImage::getImageUrl)
-                                .orElse(null);
-
                 BigDecimal subtotal = item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
 
                 return OrderItemDTO.builder()
                                 .id(item.getId())
                                 .productId(item.getProduct().getId())
                                 .productName(item.getProduct().getName())
-                                .productImageUrl(imageUrl)
+                                .productImageUrl(item.getProduct().getPrimaryImageUrl())
                                 .quantity(item.getQuantity())
                                 .price(item.getPrice())
                                 .subtotal(subtotal)
                                 .build();
         }
 
+        /**
+         * Decrements stock for every product with one conditional UPDATE, or reserves it in memory when
+         * the inventory reservation engine is enabled. If any product is short the order fails with
+         * InsufficientStockException and the rollback restores the others.
+         */
+        private void takeStock(Map<Product, Integer> quantities) {
+                if (inventoryReservationService.isEnabled()) {
+                        inventoryReservationService.reserveForCurrentTransaction(quantities);
+                        return;
+                }
+
+                Map<Long, Integer> byId = new HashMap<>();
+                quantities.forEach((product, quantity) -> byId.put(product.getId(), quantity));
+                Set<Long> taken = new HashSet<>(productRepository.decrementStock(byId));
+
+                for (Map.Entry<Product, Integer> line : quantities.entrySet()) {
+                        Product product = line.getKey();
+                        if (!taken.contains(product.getId())) {
+                                throw new InsufficientStockException(
+                                                product.getName(),
+                                                line.getValue(),
+                                                productRepository.findStockQuantityById(product.getId()).orElse(0));
+                        }
+                }
+                quantities.keySet().forEach(product -> eventPublisher.publishEvent(
+                                ProductChangedEvent.of(product, ProductChangedEvent.Type.STOCK_CHANGED)));
+        }
+
+        private OrderPlacedEvent toOrderPlacedEvent(Order order) {
+                List<OrderPlacedEvent.Line> lines = order.getItems().stream()
+                                .map(item -> new OrderPlacedEvent.Line(item.getProduct().getId(), item.getQuantity()))
+                                .collect(Collectors.toList());
+                return new OrderPlacedEvent(order.getId(), LocalDateTime.now(), lines);
+        }
+
+        private OrderStatusChangedEvent toOrderStatusChangedEvent(Order order) {
+                return new OrderStatusChangedEvent(order.getId(), order.getStatus(), order.getCreatedAt());
+        }
+
         private String generateOrderNumber() {
                 return "ORD-" + LocalDateTime.now().getYear() +
                                 String.format("%02d", LocalDateTime.now().getMonthValue()) +
@@ -291,6 +311,7 @@ public class OrderService {
                 order = orderRepository.save(order);
                 
                 log.info("Order {} status updated from {} to {}", orderId, oldStatus, newStatus);
+                eventPublisher.publishEvent(toOrderStatusChangedEvent(order));
                 
                 return convertToDTO(order);
         }
@@ -332,16 +353,10 @@ public class OrderService {
                         throw new IllegalStateException("Cart is empty");
                 }
 
-                // Validate stock availability
-                for (GuestCartItem cartItem : cartItems) {
-                        Product product = cartItem.getProduct();
-                        if (product.getStockQuantity() < cartItem.getQuantity()) {
-                                throw new InsufficientStockException(
-                                                product.getName(),
-                                                cartItem.getQuantity(),
-                                                product.getStockQuantity());
-                        }
-                }
+                // Take stock up front; a short product fails the order before anything else is written
+                Map<Product, Integer> quantities = new LinkedHashMap<>();
+                cartItems.forEach(item -> quantities.merge(item.getProduct(), item.getQuantity(), Integer::sum));
+                takeStock(quantities);
 
                 // Calculate totals
                 BigDecimal subtotal = cartItems.stream()
@@ -385,13 +400,10 @@ public class OrderService {
                                 .discountAmount(discountAmount)
                                 .build();
 
-                // Create order items and update stock
+                // Create order items
                 List<OrderItem> orderItems = cartItems.stream()
                                 .map(cartItem -> {
                                         Product product = cartItem.getProduct();
-                                        product.setStockQuantity(product.getStockQuantity() - cartItem.getQuantity());
-                                        productRepository.save(product);
-
                                         return OrderItem.builder()
                                                         .order(order)
                                                         .product(product)
@@ -408,24 +420,10 @@ public class OrderService {
                 guestCartItemRepository.deleteBySessionId(guestSessionId);
 
                 log.info("Created guest order {} for session {}", savedOrder.getOrderNumber(), guestSessionId);
+                eventPublisher.publishEvent(toOrderPlacedEvent(savedOrder));
 
-                // AWS Integrations
-                try {
-                        // Send order to SQS for async processing
-                        sqsService.sendOrderMessage(savedOrder.getId());
-
-                        // Publish SNS notification
-                        snsService.publishOrderPlaced(
-                                        savedOrder.getId(),
-                                        savedOrder.getOrderNumber(),
-                                        savedOrder.getTotalAmount().doubleValue());
-
-                        // Log CloudWatch metric
-                        cloudWatchService.recordOrderPlaced(savedOrder.getTotalAmount().doubleValue());
-                } catch (Exception e) {
-                        log.error("Failed to process AWS integrations for order {}", savedOrder.getId(), e);
-                        // Continue even if AWS integrations fail
-                }
+                // SQS, SNS and CloudWatch side effects are relayed from the outbox after commit
+                outboxService.orderPlaced(savedOrder, savedOrder.getOrderNumber());
 
                 return convertToDTO(savedOrder);
         }
@@ -1,79 +1,215 @@
 package com.springmart.service;
 
-import com.springmart.entity.Order;
 import com.springmart.enums.OrderStatus;
+import com.springmart.jobs.ClusterJobRunner;
 import com.springmart.repository.OrderRepository;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import software.amazon.awssdk.services.cloudwatch.model.Dimension;
+import software.amazon.awssdk.services.cloudwatch.model.MetricDatum;
+import software.amazon.awssdk.services.cloudwatch.model.StandardUnit;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service to handle automatic order status transitions based on time.
  * Simulates the order lifecycle from PENDING to DELIVERED.
+ *
+ * <p>Each transition runs as set-based chunks of {@code app.orders.lifecycle.chunk-size} orders, one
+ * short transaction per chunk (see {@link OrderRepository#transitionStatus}), and a run stops once
+ * it has used {@code max-run-ms}; whatever is left is picked up by the next run. Every node runs the
+ * transitions (recorded through {@link ClusterJobRunner#runOnEachNode}); chunks are claimed with
+ * SKIP LOCKED, so concurrent nodes move disjoint orders and share the work without splitting the
+ * table up front. Every run reports how many orders this node moved, and how fast, to CloudWatch.
+ *
+ * <p>With {@code app.orders.lifecycle.mode=wheel} the transitions are fired by
+ * {@link OrderLifecycleWheel} as they fall due, and this scheduler only reports what the wheel moved
+ * plus, every {@code wheel.sweep-ms}, sweeps up orders more than {@code wheel.sweep-grace-ms} overdue
+ * (e.g. placed on a node that has since gone away).
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class OrderStatusScheduler {
 
-    private final OrderRepository orderRepository;
+    static final String NOTES = "Automatic status update";
 
     /**
-     * Runs every 30 seconds to check and update order statuses.
      * Order lifecycle:
      * - PENDING -> CONFIRMED (after 1 minute)
      * - CONFIRMED -> PROCESSING (after 2 minutes)
      * - PROCESSING -> SHIPPED (after 5 minutes)
      * - SHIPPED -> DELIVERED (after 10 minutes)
      */
-    @Scheduled(fixedRate = 30000) // Run every 30 seconds
-    @Transactional
-    public void updateOrderStatuses() {
-        LocalDateTime now = LocalDateTime.now();
-
-        // PENDING -> CONFIRMED (after 1 minute)
-        List<Order> pendingOrders = orderRepository.findByStatus(OrderStatus.PENDING);
-        for (Order order : pendingOrders) {
-            if (order.getCreatedAt().plusMinutes(1).isBefore(now)) {
-                order.setStatus(OrderStatus.CONFIRMED);
-                orderRepository.save(order);
-                log.info("Order {} transitioned from PENDING to CONFIRMED", order.getOrderNumber());
-            }
+    static final List<Stage> STAGES = List.of(
+            new Stage(OrderStatus.PENDING, OrderStatus.CONFIRMED, Duration.ofMinutes(1)),
+            new Stage(OrderStatus.CONFIRMED, OrderStatus.PROCESSING, Duration.ofMinutes(2)),
+            new Stage(OrderStatus.PROCESSING, OrderStatus.SHIPPED, Duration.ofMinutes(5)),
+            new Stage(OrderStatus.SHIPPED, OrderStatus.DELIVERED, Duration.ofMinutes(10)));
+
+    /**
+     * One automatic transition: orders in {@code from} move to {@code to} once they are
+     * {@code afterCreation} old.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    static final class Stage {
+        private final OrderStatus from;
+        private final OrderStatus to;
+        private final Duration afterCreation;
+
+        String getName() {
+            return from + "->" + to;
         }
+    }
 
-        // CONFIRMED -> PROCESSING (after 2 minutes from creation)
-        List<Order> confirmedOrders = orderRepository.findByStatus(OrderStatus.CONFIRMED);
-        for (Order order : confirmedOrders) {
-            if (order.getCreatedAt().plusMinutes(2).isBefore(now)) {
-                order.setStatus(OrderStatus.PROCESSING);
-                orderRepository.save(order);
-                log.info("Order {} transitioned from CONFIRMED to PROCESSING", order.getOrderNumber());
+    static Stage stageFrom(OrderStatus status) {
+        for (Stage stage : STAGES) {
+            if (stage.getFrom() == status) {
+                return stage;
             }
         }
+        return null;
+    }
+
+    private static final String JOB_NAME = "order-lifecycle";
+
+    private final OrderRepository orderRepository;
+    private final CloudWatchService cloudWatchService;
+    private final OrderLifecycleWheel lifecycleWheel;
+    private final ClusterJobRunner clusterJobRunner;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final long maxRunMillis;
+    private final long intervalMillis;
+    private final long sweepMillis;
+    private final long sweepGraceMillis;
+
+    private long lastReport = System.currentTimeMillis();
+
+    public OrderStatusScheduler(OrderRepository orderRepository, CloudWatchService cloudWatchService,
+                                OrderLifecycleWheel lifecycleWheel, ClusterJobRunner clusterJobRunner,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.orders.lifecycle.chunk-size:1000}") int chunkSize,
+                                @Value("${app.orders.lifecycle.max-run-ms:20000}") long maxRunMillis,
+                                @Value("${app.orders.lifecycle.interval-ms:30000}") long intervalMillis,
+                                @Value("${app.orders.lifecycle.wheel.sweep-ms:600000}") long sweepMillis,
+                                @Value("${app.orders.lifecycle.wheel.sweep-grace-ms:60000}") long sweepGraceMillis) {
+        this.orderRepository = orderRepository;
+        this.cloudWatchService = cloudWatchService;
+        this.lifecycleWheel = lifecycleWheel;
+        this.clusterJobRunner = clusterJobRunner;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxRunMillis = maxRunMillis;
+        this.intervalMillis = intervalMillis;
+        this.sweepMillis = sweepMillis;
+        this.sweepGraceMillis = sweepGraceMillis;
+    }
+
+    /**
+     * Runs every 30 seconds on every node to check and update order statuses (see {@link #STAGES}).
+     * A node skips the run if it ran within the last half interval (or, in wheel mode, the last
+     * sweep interval).
+     */
+    @Scheduled(fixedDelayString = "${app.orders.lifecycle.interval-ms:30000}")
+    public void updateOrderStatuses() {
+        long minIntervalMillis = intervalMillis / 2;
+        Duration grace = Duration.ZERO;
+        if (lifecycleWheel.isEnabled()) {
+            reportWheel();
+            minIntervalMillis = sweepMillis;
+            grace = Duration.ofMillis(sweepGraceMillis);
+        }
 
-        // PROCESSING -> SHIPPED (after 5 minutes from creation)
-        List<Order> processingOrders = orderRepository.findByStatus(OrderStatus.PROCESSING);
-        for (Order order : processingOrders) {
-            if (order.getCreatedAt().plusMinutes(5).isBefore(now)) {
-                order.setStatus(OrderStatus.SHIPPED);
-                orderRepository.save(order);
-                log.info("Order {} transitioned from PROCESSING to SHIPPED", order.getOrderNumber());
+        LocalDateTime now = LocalDateTime.now().minus(grace);
+        long start = System.currentTimeMillis();
+        long deadline = start + maxRunMillis;
+
+        Map<String, Integer> moved = new LinkedHashMap<>();
+        clusterJobRunner.runOnEachNode(JOB_NAME, minIntervalMillis, (shard, shards) -> {
+            int count = 0;
+            for (Stage stage : STAGES) {
+                int stageCount = transition(stage.getFrom(), stage.getTo(), now.minus(stage.getAfterCreation()),
+                        deadline);
+                moved.merge(stage.getName(), stageCount, Integer::sum);
+                count += stageCount;
             }
+            return count;
+        });
+
+        long elapsed = Math.max(System.currentTimeMillis() - start, 1);
+        int total = moved.values().stream().mapToInt(Integer::intValue).sum();
+        if (total > 0) {
+            log.info("Order lifecycle run moved {} orders in {} ms ({} orders/s){}: {}", total, elapsed,
+                    total * 1000L / elapsed, System.currentTimeMillis() >= deadline ? ", stopped at time limit" : "",
+                    moved);
+            reportMetrics(moved, total, elapsed);
+        }
+    }
+
+    /**
+     * Reports what the wheel moved since the last report, as a rate over the whole interval.
+     */
+    private void reportWheel() {
+        long now = System.currentTimeMillis();
+        long elapsed = Math.max(now - lastReport, 1);
+        lastReport = now;
+        Map<String, Integer> moved = lifecycleWheel.drainMoved();
+        int total = moved.values().stream().mapToInt(Integer::intValue).sum();
+        if (total > 0) {
+            log.info("Order lifecycle wheel moved {} orders in the last {} ms ({} pending): {}", total, elapsed,
+                    lifecycleWheel.pending(), moved);
+            reportMetrics(moved, total, elapsed);
         }
+    }
 
-        // SHIPPED -> DELIVERED (after 10 minutes from creation)
-        List<Order> shippedOrders = orderRepository.findByStatus(OrderStatus.SHIPPED);
-        for (Order order : shippedOrders) {
-            if (order.getCreatedAt().plusMinutes(10).isBefore(now)) {
-                order.setStatus(OrderStatus.DELIVERED);
-                orderRepository.save(order);
-                log.info("Order {} transitioned from SHIPPED to DELIVERED", order.getOrderNumber());
+    /**
+     * Moves orders chunk by chunk until none are due or the run is out of time.
+     */
+    private int transition(OrderStatus from, OrderStatus to, LocalDateTime createdBefore, long deadline) {
+        int moved = 0;
+        while (System.currentTimeMillis() < deadline) {
+            List<Long> ids = transactionTemplate.execute(status ->
+                    orderRepository.transitionStatus(from, to, createdBefore, chunkSize, NOTES));
+            int count = ids != null ? ids.size() : 0;
+            moved += count;
+            if (count < chunkSize) {
+                break;
             }
         }
+        return moved;
+    }
+
+    private void reportMetrics(Map<String, Integer> moved, int total, long elapsedMillis) {
+        Instant now = Instant.now();
+        Dimension nodeDimension = Dimension.builder().name("Node").value(clusterJobRunner.getNode()).build();
+        List<MetricDatum> metrics = new ArrayList<>();
+        moved.forEach((transition, count) -> metrics.add(MetricDatum.builder()
+                .metricName("OrderTransitions")
+                .value((double) count)
+                .unit(StandardUnit.COUNT)
+                .timestamp(now)
+                .dimensions(nodeDimension, Dimension.builder().name("Transition").value(transition).build())
+                .build()));
+        metrics.add(MetricDatum.builder()
+                .metricName("OrderTransitionRate")
+                .value(total * 1000.0 / elapsedMillis)
+                .unit(StandardUnit.COUNT_SECOND)
+                .timestamp(now)
+                .dimensions(nodeDimension)
+                .build());
+        cloudWatchService.putMetrics(metrics);
     }
 }
@@ -0,0 +1,102 @@
+package com.springmart.service;
+
+import com.springmart.entity.Product;
+import com.springmart.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Micro-batches single-product loads: ids requested by concurrent cache misses within
+ * {@code app.products.batch-window-ms} of each other are fetched with one {@code IN} query. A batch
+ * is sent early once it reaches {@code app.products.max-batch-size}, and a repeated id joins the
+ * pending load instead of adding another.
+ *
+ * <p>Products come back with category, seller and images fetched, so callers can map them outside
+ * of a session.
+ */
+@Component
+@Slf4j
+public class ProductBatchLoader {
+
+    private final ProductRepository productRepository;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService executor;
+
+    private final Object lock = new Object();
+    private Map<Long, CompletableFuture<Product>> pending = new HashMap<>();
+
+    public ProductBatchLoader(ProductRepository productRepository,
+                              @Value("${app.products.batch-window-ms:2}") long windowMillis,
+                              @Value("${app.products.max-batch-size:100}") int maxBatchSize,
+                              @Value("${app.products.batch-threads:4}") int threads) {
+        this.productRepository = productRepository;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "product-batch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Completes with the product, or with null if it does not exist.
+     */
+    public CompletableFuture<Product> load(Long id) {
+        synchronized (lock) {
+            CompletableFuture<Product> existing = pending.get(id);
+            if (existing != null) {
+                return existing;
+            }
+            CompletableFuture<Product> future = new CompletableFuture<>();
+            pending.put(id, future);
+            if (pending.size() == 1) {
+                executor.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            } else if (pending.size() >= maxBatchSize) {
+                executor.execute(this::flush);
+            }
+            return future;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void flush() {
+        Map<Long, CompletableFuture<Product>> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                // A size-triggered flush already took the batch this timer was set for
+                return;
+            }
+            batch = pending;
+            pending = new HashMap<>();
+        }
+
+        try {
+            Map<Long, Product> found = new HashMap<>();
+            for (Product product : productRepository.findWithImagesByIdIn(new ArrayList<>(batch.keySet()))) {
+                found.put(product.getId(), product);
+            }
+            batch.forEach((id, future) -> future.complete(found.get(id)));
+            log.debug("Loaded {} products in one batch", batch.size());
+        } catch (RuntimeException e) {
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.springmart.service;
+
+import com.springmart.jobs.ClusterJobRunner;
+import com.springmart.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+/**
+ * Repairs drift between the persisted product rating aggregates and the reviews table.
+ * The aggregates are maintained incrementally by ReviewService; this job is the safety net
+ * for reviews written or removed outside of it (manual SQL, cascading product deletes, etc.).
+ * Fired on every node; {@link ClusterJobRunner} runs it on one of them per night.
+ */
+@Service
+@Slf4j
+public class ProductRatingScheduler {
+
+    private static final String JOB_NAME = "rating-repair";
+    // Nodes whose clocks disagree still fire within minutes of each other, well inside this
+    private static final long MIN_INTERVAL_MILLIS = Duration.ofHours(12).toMillis();
+
+    private final ProductRepository productRepository;
+    private final ClusterJobRunner clusterJobRunner;
+    private final TransactionTemplate transactionTemplate;
+
+    public ProductRatingScheduler(ProductRepository productRepository, ClusterJobRunner clusterJobRunner,
+                                  PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.clusterJobRunner = clusterJobRunner;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Runs nightly by default (app.ratings.repair-cron).
+     */
+    @Scheduled(cron = "${app.ratings.repair-cron:0 30 3 * * *}")
+    public void repairRatingAggregates() {
+        clusterJobRunner.run(JOB_NAME, 1, MIN_INTERVAL_MILLIS, (shard, shards) -> repair());
+    }
+
+    private int repair() {
+        long start = System.currentTimeMillis();
+        Integer repaired = transactionTemplate.execute(status -> productRepository.repairRatingAggregates());
+
+        if (repaired != null && repaired > 0) {
+            log.warn("Repaired rating aggregates for {} products in {} ms",
+                    repaired, System.currentTimeMillis() - start);
+        } else {
+            log.debug("Rating aggregates are consistent ({} ms)", System.currentTimeMillis() - start);
+        }
+        return repaired != null ? repaired : 0;
+    }
+}
@@ -1,28 +1,53 @@
 package com.springmart.service;
 
+import com.springmart.cache.TwoLevelCacheManager;
+import com.springmart.dto.CursorSlice;
+import com.springmart.dto.ProductCursor;
 import com.springmart.dto.ProductDTO;
+import com.springmart.dto.ProductFacetsDTO;
 import com.springmart.dto.ProductFilterRequest;
+import com.springmart.dto.ProductSearchHit;
 import com.springmart.entity.Category;
 import com.springmart.entity.Product;
 import com.springmart.entity.ProductImage;
 import com.springmart.entity.User;
+import com.springmart.enums.SimilarityMode;
+import com.springmart.event.ProductChangedEvent;
+import com.springmart.exception.InvalidRequestException;
 import com.springmart.exception.ResourceNotFoundException;
+import com.springmart.recommendation.CoPurchaseModel;
+import com.springmart.recommendation.ContentSimilarityIndex;
+import com.springmart.recommendation.TrendingEngine;
 import com.springmart.repository.CategoryRepository;
+import com.springmart.repository.OrderRepository;
 import com.springmart.repository.ProductRepository;
 import com.springmart.repository.UserRepository;
+import com.springmart.search.ProductFacetIndex;
+import com.springmart.search.ProductSearchIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,17 +56,66 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class ProductService {
 
+    private static final int MAX_BATCH_IDS = 100;
+    private static final int MAX_SCROLL_SIZE = 100;
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final UserRepository userRepository;
-
-    @Cacheable(value = "products", key = "#id")
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final CategoryDirectory categoryDirectory;
+    private final TrendingEngine trendingEngine;
+    private final CoPurchaseModel coPurchaseModel;
+    private final ContentSimilarityIndex contentSimilarityIndex;
+    private final ProductBatchLoader productBatchLoader;
+    private final TwoLevelCacheManager cacheManager;
+    private final OrderRepository orderRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Misses from concurrent requests are loaded together by ProductBatchLoader. No transaction here:
+    // the caller would hold a pooled connection while waiting for the batch to use another
+    @Cacheable(value = "products", key = "#id", sync = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ProductDTO getProductById(Long id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
+        Product product = productBatchLoader.load(id).join();
+        if (product == null) {
+            throw new ResourceNotFoundException("Product", "id", id);
+        }
         return convertToDTO(product);
     }
 
+    /**
+     * Products for {@code ids} in request order, skipping unknown ids. Cached products come from one
+     * multi-get on the products cache; the rest are loaded with a single query and cached.
+     */
+    public List<ProductDTO> getProductsByIds(List<Long> ids) {
+        if (ids.size() > MAX_BATCH_IDS) {
+            throw new InvalidRequestException("At most " + MAX_BATCH_IDS + " ids can be requested at once");
+        }
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+        long token = cacheManager.loadToken("products");
+        Map<Long, ProductDTO> byId = new HashMap<>();
+        cacheManager.getAll("products", distinct)
+                .forEach((key, value) -> byId.put((Long) key, (ProductDTO) value));
+
+        List<Long> misses = distinct.stream().filter(id -> !byId.containsKey(id)).toList();
+        if (!misses.isEmpty()) {
+            Map<Long, ProductDTO> loaded = new HashMap<>();
+            for (Product product : productRepository.findWithImagesByIdIn(misses)) {
+                loaded.put(product.getId(), convertToDTO(product));
+            }
+            cacheManager.putAll("products", loaded, token);
+            byId.putAll(loaded);
+        }
+
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Cacheable(value = "productSlugs", key = "#slug", sync = true)
     public ProductDTO getProductBySlug(String slug) {
         Product product = productRepository.findBySlug(slug)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "slug", slug));
@@ -50,54 +124,163 @@ public class ProductService {
 
     public Page<ProductDTO> getAllActiveProducts(Pageable pageable) {
         return productRepository.findByIsActiveTrue(pageable)
-                .map(this::convertToDTO);
+                .map(this::convertToCardDTO);
     }
 
     public Page<ProductDTO> getProductsByCategory(Long categoryId, Pageable pageable) {
         return productRepository.findByCategoryIdAndIsActiveTrue(categoryId, pageable)
-                .map(this::convertToDTO);
+                .map(this::convertToCardDTO);
     }
 
     public Page<ProductDTO> searchProducts(String keyword, Pageable pageable) {
-        return productRepository.searchProducts(keyword, pageable)
-                .map(this::convertToDTO);
+        return searchProducts(keyword, null, pageable);
+    }
+
+    /**
+     * Keyword search; {@code filters} may be null, otherwise its category, price and stock predicates
+     * narrow the hits.
+     */
+    public Page<ProductDTO> searchProducts(String keyword, ProductFilterRequest filters, Pageable pageable) {
+        if (productSearchIndex.isEnabled() && productSearchIndex.isReady()) {
+            return searchInMemory(keyword, filters, pageable);
+        }
+
+        Page<ProductSearchHit> hits = productRepository.searchRanked(keyword, filters, pageable);
+        if (hits.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, hits.getTotalElements());
+        }
+
+        // Hydrate the ranked ids in one query, then restore relevance order
+        List<Long> ids = hits.map(ProductSearchHit::getProductId).getContent();
+        Map<Long, Product> productsById = productRepository.findByIdIn(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        // A product deleted between ranking and hydration is dropped from the page
+        List<ProductDTO> content = hits.getContent().stream()
+                .filter(hit -> productsById.containsKey(hit.getProductId()))
+                .map(hit -> {
+                    ProductDTO dto = convertToCardDTO(productsById.get(hit.getProductId()));
+                    dto.setSearchSnippet(hit.getSnippet());
+                    return dto;
+                })
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, hits.getTotalElements());
+    }
+
+    // Hits are hydrated from the products cache, so only cold products are read from the database;
+    // those are mapped as cards and not cached, since the products cache holds full products
+    private Page<ProductDTO> searchInMemory(String keyword, ProductFilterRequest filters, Pageable pageable) {
+        ProductSearchIndex.SearchResult result = productSearchIndex.search(
+                keyword, filters, (int) pageable.getOffset(), pageable.getPageSize());
+        if (result.getProductIds().isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, result.getTotalHits());
+        }
+
+        Map<Long, ProductDTO> byId = new HashMap<>();
+        cacheManager.getAll("products", result.getProductIds())
+                .forEach((key, value) -> byId.put((Long) key, (ProductDTO) value));
+        List<Long> misses = result.getProductIds().stream().filter(id -> !byId.containsKey(id)).toList();
+        if (!misses.isEmpty()) {
+            productRepository.findByIdIn(misses).forEach(product -> byId.put(product.getId(), convertToCardDTO(product)));
+        }
+
+        List<ProductDTO> content = result.getProductIds().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, result.getTotalHits());
     }
 
     public Page<ProductDTO> getFilteredProducts(ProductFilterRequest filterRequest) {
-        return productRepository.findWithFilters(filterRequest)
-                .map(this::convertToDTO);
+        // Total comes from SQL: the facet index is per node and only eventually consistent
+        return productRepository.findWithFilters(filterRequest).map(this::convertToCardDTO);
     }
 
+    /**
+     * Facet counts (category, price range, rating, stock, sale, featured) for a filter.
+     * Served from the in-memory facet index; while it is still building only the total is returned.
+     */
+    public ProductFacetsDTO getProductFacets(ProductFilterRequest filterRequest) {
+        if (productFacetIndex.isReady()) {
+            return productFacetIndex.facets(filterRequest);
+        }
+        return ProductFacetsDTO.builder()
+                .totalHits(productRepository.findWithFilters(filterRequest).getTotalElements())
+                .categories(Map.of())
+                .priceRanges(Map.of())
+                .minRatings(Map.of())
+                .build();
+    }
+
+    /**
+     * Keyset-paginated variant of getFilteredProducts: cost stays flat however deep the client scrolls
+     * and no count query is run.
+     */
+    public CursorSlice<ProductDTO> scrollFilteredProducts(ProductFilterRequest filterRequest) {
+        Integer size = filterRequest.getSize();
+        if (size != null && (size < 1 || size > MAX_SCROLL_SIZE)) {
+            throw new InvalidRequestException("size must be between 1 and " + MAX_SCROLL_SIZE);
+        }
+        String sortBy = ProductCursor.normalizeSort(filterRequest.getSortBy());
+        ProductCursor after = filterRequest.getCursor() != null && !filterRequest.getCursor().isEmpty()
+                ? ProductCursor.decode(filterRequest.getCursor(), sortBy)
+                : null;
+
+        Slice<ProductDTO> slice = productRepository.findWithFiltersAfter(filterRequest, sortBy, after)
+                .map(this::convertToCardDTO);
+
+        List<ProductDTO> content = slice.getContent();
+        String nextCursor = slice.hasNext()
+                ? ProductCursor.encode(sortBy, content.get(content.size() - 1))
+                : null;
+
+        return CursorSlice.<ProductDTO>builder()
+                .content(content)
+                .size(slice.getSize())
+                .hasNext(slice.hasNext())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    // List caches are keyed by a catalog version that ProductCacheInvalidator bumps when a change
+    // can affect that list, so stale entries are simply never read again and expire via TTL.
+    @Cacheable(value = "productLists",
+            key = "'latest:v' + @catalogVersions.get('latest') + ':' + #limit", sync = true)
     public List<ProductDTO> getLatestProducts(int limit) {
         return productRepository.findLatestProducts(Pageable.ofSize(limit))
                 .stream()
-                .map(this::convertToDTO)
+                .map(this::convertToCardDTO)
                 .collect(Collectors.toList());
     }
 
+    @Cacheable(value = "productLists",
+            key = "'topRated:v' + @catalogVersions.get('topRated') + ':' + #limit", sync = true)
     public List<ProductDTO> getTopRatedProducts(int limit) {
         return productRepository.findTopRatedProducts(Pageable.ofSize(limit))
                 .stream()
-                .map(this::convertToDTO)
+                .map(this::convertToCardDTO)
                 .collect(Collectors.toList());
     }
 
+    @Cacheable(value = "productLists",
+            key = "'featured:v' + @catalogVersions.get('featured') + ':' + #limit", sync = true)
     public List<ProductDTO> getFeaturedProducts(int limit) {
         return productRepository.findFeaturedProducts(Pageable.ofSize(limit))
                 .stream()
-                .map(this::convertToDTO)
+                .map(this::convertToCardDTO)
                 .collect(Collectors.toList());
     }
 
+    @Cacheable(value = "productLists",
+            key = "'flashDeals:v' + @catalogVersions.get('flashDeals') + ':' + #limit", sync = true)
     public List<ProductDTO> getFlashDeals(int limit) {
         return productRepository.findProductsOnSale(Pageable.ofSize(limit))
                 .stream()
-                .map(this::convertToDTO)
+                .map(this::convertToCardDTO)
                 .collect(Collectors.toList());
     }
 
     @Transactional
-    @CacheEvict(value = "products", allEntries = true)
     public ProductDTO createProduct(ProductDTO productDTO, Long sellerId) {
         Category category = categoryRepository.findById(productDTO.getCategoryId())
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", productDTO.getCategoryId()));
@@ -118,16 +301,19 @@ public class ProductService {
                 .build();
 
         Product savedProduct = productRepository.save(product);
+        categoryDirectory.productAdded(category.getId(), true);
         log.info("Created new product: {} (ID: {})", savedProduct.getName(), savedProduct.getId());
+        eventPublisher.publishEvent(ProductChangedEvent.of(savedProduct, ProductChangedEvent.Type.CREATED));
 
         return convertToDTO(savedProduct);
     }
 
     @Transactional
-    @CacheEvict(value = "products", allEntries = true)
     public ProductDTO updateProduct(Long id, ProductDTO productDTO) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
+        Long previousCategoryId = product.getCategory().getId();
+        boolean wasActive = Boolean.TRUE.equals(product.getIsActive());
 
         if (productDTO.getCategoryId() != null) {
             Category category = categoryRepository.findById(productDTO.getCategoryId())
@@ -144,27 +330,34 @@ public class ProductService {
         if (productDTO.getPrice() != null) {
             product.setPrice(productDTO.getPrice());
         }
-        if (productDTO.getStockQuantity() != null) {
-            product.setStockQuantity(productDTO.getStockQuantity());
-        }
         if (productDTO.getIsActive() != null) {
             product.setIsActive(productDTO.getIsActive());
         }
 
         Product updatedProduct = productRepository.save(product);
+        categoryDirectory.productMoved(previousCategoryId, wasActive,
+                updatedProduct.getCategory().getId(), Boolean.TRUE.equals(updatedProduct.getIsActive()));
         log.info("Updated product: {} (ID: {})", updatedProduct.getName(), updatedProduct.getId());
+        eventPublisher.publishEvent(ProductChangedEvent.of(updatedProduct, ProductChangedEvent.Type.UPDATED));
+
+        if (productDTO.getStockQuantity() != null) {
+            productRepository.setStockQuantity(id, productDTO.getStockQuantity());
+            updatedProduct.setStockQuantity(productDTO.getStockQuantity());
+            eventPublisher.publishEvent(ProductChangedEvent.of(updatedProduct, ProductChangedEvent.Type.STOCK_CHANGED));
+        }
 
         return convertToDTO(updatedProduct);
     }
 
     @Transactional
-    @CacheEvict(value = "products", allEntries = true)
     public void deleteProduct(Long id) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
 
         productRepository.delete(product);
+        categoryDirectory.productRemoved(product.getCategory().getId(), Boolean.TRUE.equals(product.getIsActive()));
         log.info("Deleted product: {} (ID: {})", product.getName(), id);
+        eventPublisher.publishEvent(ProductChangedEvent.of(product, ProductChangedEvent.Type.DELETED));
     }
 
     @Transactional
@@ -172,21 +365,27 @@ public class ProductService {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
 
-        product.setStockQuantity(product.getStockQuantity() + quantity);
-        productRepository.save(product);
+        productRepository.adjustStock(Map.of(productId, quantity));
+        eventPublisher.publishEvent(ProductChangedEvent.of(product, ProductChangedEvent.Type.STOCK_CHANGED));
     }
 
-    private ProductDTO convertToDTO(Product product) {
-        List<String> imageUrls = product.getImages().stream()
-                .map(ProductImage::getImageUrl)
-                .collect(Collectors.toList());
-
-        String primaryImageUrl = product.getImages().stream()
-                .filter(ProductImage::getIsPrimary)
-                .findFirst()
-                .map(ProductImage::getImageUrl)
-                .orElse(imageUrls.isEmpty() ? null : imageUrls.get(0));
+    /**
+     * Full product for the detail page and the products cache, with every image URL.
+     */
+    ProductDTO convertToDTO(Product product) {
+        ProductDTO dto = convertToCardDTO(product);
+        // Products without images skip loading the collection altogether
+        dto.setImageUrls(product.getImageCount() > 0
+                ? product.getImages().stream().map(ProductImage::getImageUrl).collect(Collectors.toList())
+                : new ArrayList<>());
+        return dto;
+    }
 
+    /**
+     * Product card for listings: the denormalized primary image URL and image count stand in for
+     * the images, so the collection is never loaded. {@code imageUrls} is left null.
+     */
+    ProductDTO convertToCardDTO(Product product) {
         return ProductDTO.builder()
                 .id(product.getId())
                 .name(product.getName())
@@ -202,10 +401,10 @@ public class ProductService {
                 .isActive(product.getIsActive())
                 .isFeatured(product.getIsFeatured())
                 .discountPercentage(product.getDiscountPercentage())
-                .imageUrls(imageUrls)
-                .primaryImageUrl(primaryImageUrl)
+                .primaryImageUrl(product.getPrimaryImageUrl())
+                .imageCount(product.getImageCount())
                 .averageRating(product.getAverageRating())
-                .reviewCount(product.getReviews().size())
+                .reviewCount(product.getReviewCount())
                 .createdAt(product.getCreatedAt())
                 .updatedAt(product.getUpdatedAt())
                 .build();
@@ -230,6 +429,23 @@ public class ProductService {
      * Get similar products based on category and price range
      */
     public List<ProductDTO> getSimilarProducts(Long productId, int limit) {
+        return getSimilarProducts(productId, limit, SimilarityMode.PRICE);
+    }
+
+    /**
+     * Similar products by {@code mode}: CONTENT ranks by name/description/category similarity from
+     * the in-memory vector index; PRICE picks same-category products within ±30% of the price.
+     * Content mode falls back to price while the index is building or when the product is not
+     * indexed.
+     */
+    public List<ProductDTO> getSimilarProducts(Long productId, int limit, SimilarityMode mode) {
+        if (mode == SimilarityMode.CONTENT && contentSimilarityIndex.isReady()) {
+            List<Long> ids = contentSimilarityIndex.similarTo(productId, limit * 2);
+            if (!ids.isEmpty()) {
+                return loadActiveInOrder(ids, limit);
+            }
+        }
+
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
 
@@ -247,42 +463,89 @@ public class ProductService {
         return similarProducts.stream()
                 .filter(p -> !p.getId().equals(productId)) // Exclude current product
                 .limit(limit)
-                .map(this::convertToDTO)
+                .map(this::convertToCardDTO)
                 .collect(Collectors.toList());
     }
 
     /**
-     * Get personalized recommendations based on user's order history
+     * Get personalized recommendations: products co-purchased with the user's order history,
+     * topped up with top rated products from the categories they buy from
      */
     public List<ProductDTO> getPersonalizedRecommendations(Long userId, int limit) {
-        // Get categories from user's past orders
-        List<Long> categoryIds = productRepository.findCategoriesByUserOrders(userId);
-
-        if (categoryIds.isEmpty()) {
+        List<Long> purchased = orderRepository.findPurchasedProductIds(userId);
+        if (purchased.isEmpty()) {
             // If no order history, return top rated products
             return getTopRatedProducts(limit);
         }
 
-        // Get top rated products from these categories
-        List<Product> recommendedProducts = productRepository.findTopRatedByCategories(
-                categoryIds,
-                PageRequest.of(0, limit));
+        List<ProductDTO> recommendations = new ArrayList<>();
+        if (coPurchaseModel.isReady()) {
+            recommendations.addAll(loadActiveInOrder(coPurchaseModel.recommendFor(purchased, limit * 2), limit));
+        }
+        if (recommendations.size() >= limit) {
+            return recommendations;
+        }
 
-        return recommendedProducts.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        // Get top rated products from the categories of past orders
+        List<Long> categoryIds = productRepository.findCategoriesByUserOrders(userId);
+        if (categoryIds.isEmpty()) {
+            return recommendations;
+        }
+        Set<Long> exclude = new HashSet<>(purchased);
+        recommendations.forEach(dto -> exclude.add(dto.getId()));
+        List<Product> topRated = productRepository.findTopRatedByCategories(
+                categoryIds,
+                PageRequest.of(0, limit + exclude.size()));
+
+        topRated.stream()
+                .filter(product -> !exclude.contains(product.getId()))
+                .limit(limit - recommendations.size())
+                .map(this::convertToCardDTO)
+                .forEach(recommendations::add);
+        return recommendations;
     }
 
     /**
-     * Get trending products (most purchased in last 30 days)
+     * Get trending products (most purchased recently, see TrendingEngine for window and decay)
      */
     public List<ProductDTO> getTrendingProducts(int limit) {
-        List<Product> trendingProducts = productRepository.findTrendingProducts(
-                LocalDateTime.now().minusDays(30),
-                PageRequest.of(0, limit));
+        if (!trendingEngine.isReady()) {
+            return productRepository.findTrendingProducts(
+                    LocalDateTime.now().minusDays(30),
+                    PageRequest.of(0, limit)).stream()
+                    .map(this::convertToCardDTO)
+                    .collect(Collectors.toList());
+        }
+
+        // Ask for a few extra ids in case some products were deactivated since they sold
+        return loadActiveInOrder(trendingEngine.top(limit * 2), limit);
+    }
 
-        return trendingProducts.stream()
-                .map(this::convertToDTO)
+    /**
+     * "Customers also bought": products most often ordered together with this one.
+     */
+    public List<ProductDTO> getAlsoBought(Long productId, int limit) {
+        if (!coPurchaseModel.isReady()) {
+            return getSimilarProducts(productId, limit);
+        }
+        return loadActiveInOrder(coPurchaseModel.alsoBought(productId, limit * 2), limit);
+    }
+
+    /**
+     * Loads products by id in one query and returns the active ones as DTOs in the order given.
+     */
+    private List<ProductDTO> loadActiveInOrder(List<Long> ids, int limit) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Product> productsById = productRepository.findByIdIn(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        return ids.stream()
+                .map(productsById::get)
+                .filter(product -> product != null && Boolean.TRUE.equals(product.getIsActive()))
+                .limit(limit)
+                .map(this::convertToCardDTO)
                 .collect(Collectors.toList());
     }
 }
@@ -5,12 +5,14 @@ import com.springmart.dto.ReviewDTO;
 import com.springmart.entity.Product;
 import com.springmart.entity.Review;
 import com.springmart.entity.User;
+import com.springmart.event.ProductChangedEvent;
 import com.springmart.exception.ResourceNotFoundException;
 import com.springmart.repository.ProductRepository;
 import com.springmart.repository.ReviewRepository;
 import com.springmart.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -30,6 +32,7 @@ public class ReviewService {
     private final ReviewRepository reviewRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ReviewDTO createReview(CreateReviewRequest request, String userEmail) {
         log.info("Creating review for product {} by user {}", request.getProductId(), userEmail);
@@ -53,6 +56,8 @@ public class ReviewService {
                 .build();
 
         review = reviewRepository.save(review);
+        productRepository.addRating(product.getId(), review.getRating());
+        publishRatingChanged(product.getId());
         log.info("Review created successfully with ID: {}", review.getId());
 
         return mapToDTO(review);
@@ -101,10 +106,19 @@ public class ReviewService {
             throw new IllegalStateException("You can only delete your own reviews");
         }
 
+        Long productId = review.getProduct().getId();
         reviewRepository.delete(review);
+        productRepository.removeRating(productId, review.getRating());
+        publishRatingChanged(productId);
         log.info("Review {} deleted by user {}", reviewId, userEmail);
     }
 
+    // The rating UPDATE cleared the persistence context, so this reads the new aggregates
+    private void publishRatingChanged(Long productId) {
+        productRepository.findById(productId).ifPresent(product -> eventPublisher.publishEvent(
+                ProductChangedEvent.of(product, ProductChangedEvent.Type.RATING_CHANGED)));
+    }
+
     private ReviewDTO mapToDTO(Review review) {
         return ReviewDTO.builder()
                 .id(review.getId())
@@ -1,5 +1,6 @@
 package com.springmart.service;
 
+import com.springmart.dto.NotificationMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -7,7 +8,12 @@ import org.springframework.stereotype.Service;
 import software.amazon.awssdk.services.sns.SnsClient;
 import software.amazon.awssdk.services.sns.model.*;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Service for managing SNS notifications.
@@ -18,6 +24,9 @@ import java.util.Map;
 @Slf4j
 public class SNSService {
 
+    // SNS PublishBatch accepts at most 10 entries per request
+    private static final int MAX_BATCH_ENTRIES = 10;
+
     private final SnsClient snsClient;
 
     @Value("${app.aws.sns.order-topic-arn}")
@@ -33,87 +42,152 @@ public class SNSService {
      * @param totalAmount the total order amount
      */
     public void publishOrderPlaced(Long orderId, String userEmail, Double totalAmount) {
-        String message = String.format(
-                "New order #%d placed!\nCustomer: %s\nTotal: $%.2f",
-                orderId, userEmail, totalAmount);
-
-        publishMessage(
-                "Order Placed",
-                message,
-                Map.of(
+        publishMessage(orderPlacedMessage(orderId, userEmail, totalAmount));
+    }
+
+    /**
+     * Publishes an order shipped notification.
+     *
+     * @param orderId        the order ID
+     * @param userEmail      the customer's email
+     * @param trackingNumber the shipping tracking number
+     */
+    public void publishOrderShipped(Long orderId, String userEmail, String trackingNumber) {
+        publishMessage(orderShippedMessage(orderId, userEmail, trackingNumber));
+    }
+
+    /**
+     * Publishes an order delivered notification.
+     *
+     * @param orderId   the order ID
+     * @param userEmail the customer's email
+     */
+    public void publishOrderDelivered(Long orderId, String userEmail) {
+        publishMessage(orderDeliveredMessage(orderId, userEmail));
+    }
+
+    /**
+     * Builds the order placed notification.
+     *
+     * @param orderId     the order ID
+     * @param userEmail   the customer's email
+     * @param totalAmount the total order amount
+     * @return the notification
+     */
+    public NotificationMessage orderPlacedMessage(Long orderId, String userEmail, Double totalAmount) {
+        return NotificationMessage.builder()
+                .subject("Order Placed")
+                .message(String.format(
+                        "New order #%d placed!\nCustomer: %s\nTotal: $%.2f",
+                        orderId, userEmail, totalAmount))
+                .attributes(Map.of(
                         "orderId", orderId.toString(),
                         "userEmail", userEmail,
                         "amount", totalAmount.toString(),
-                        "eventType", "ORDER_PLACED"));
+                        "eventType", "ORDER_PLACED"))
+                .build();
     }
 
     /**
-     * Publishes an order shipped notification.
+     * Builds the order shipped notification.
      *
      * @param orderId        the order ID
      * @param userEmail      the customer's email
      * @param trackingNumber the shipping tracking number
+     * @return the notification
      */
-    public void publishOrderShipped(Long orderId, String userEmail, String trackingNumber) {
-        String message = String.format(
-                "Order #%d has been shipped!\nTracking Number: %s",
-                orderId, trackingNumber);
-
-        publishMessage(
-                "Order Shipped",
-                message,
-                Map.of(
+    public NotificationMessage orderShippedMessage(Long orderId, String userEmail, String trackingNumber) {
+        return NotificationMessage.builder()
+                .subject("Order Shipped")
+                .message(String.format(
+                        "Order #%d has been shipped!\nTracking Number: %s",
+                        orderId, trackingNumber))
+                .attributes(Map.of(
                         "orderId", orderId.toString(),
                         "userEmail", userEmail,
                         "trackingNumber", trackingNumber,
-                        "eventType", "ORDER_SHIPPED"));
+                        "eventType", "ORDER_SHIPPED"))
+                .build();
     }
 
     /**
-     * Publishes an order delivered notification.
+     * Builds the order delivered notification.
      *
      * @param orderId   the order ID
      * @param userEmail the customer's email
+     * @return the notification
      */
-    public void publishOrderDelivered(Long orderId, String userEmail) {
-        String message = String.format(
-                "Order #%d has been delivered!\nThank you for shopping with us.",
-                orderId);
-
-        publishMessage(
-                "Order Delivered",
-                message,
-                Map.of(
+    public NotificationMessage orderDeliveredMessage(Long orderId, String userEmail) {
+        return NotificationMessage.builder()
+                .subject("Order Delivered")
+                .message(String.format(
+                        "Order #%d has been delivered!\nThank you for shopping with us.",
+                        orderId))
+                .attributes(Map.of(
                         "orderId", orderId.toString(),
                         "userEmail", userEmail,
-                        "eventType", "ORDER_DELIVERED"));
+                        "eventType", "ORDER_DELIVERED"))
+                .build();
     }
 
     /**
-     * Publishes a generic message to the SNS topic.
+     * Publishes notifications with PublishBatch, up to 10 per request.
      *
-     * @param subject    the message subject
-     * @param message    the message body
-     * @param attributes message attributes for filtering
+     * @param messages notifications keyed by a batch entry ID (letters, digits, hyphens, underscores)
+     * @return entry IDs that could not be published
      */
-    private void publishMessage(String subject, String message, Map<String, String> attributes) {
+    public Set<String> publishBatch(Map<String, NotificationMessage> messages) {
+        Set<String> failed = new HashSet<>();
+        if (messages.isEmpty()) {
+            return failed;
+        }
+        List<Map.Entry<String, NotificationMessage>> entries = new ArrayList<>(messages.entrySet());
+        for (int i = 0; i < entries.size(); i += MAX_BATCH_ENTRIES) {
+            List<Map.Entry<String, NotificationMessage>> chunk =
+                    entries.subList(i, Math.min(i + MAX_BATCH_ENTRIES, entries.size()));
+            try {
+                PublishBatchRequest request = PublishBatchRequest.builder()
+                        .topicArn(getActualTopicArn())
+                        .publishBatchRequestEntries(chunk.stream()
+                                .map(entry -> PublishBatchRequestEntry.builder()
+                                        .id(entry.getKey())
+                                        .subject(entry.getValue().getSubject())
+                                        .message(entry.getValue().getMessage())
+                                        .messageAttributes(toMessageAttributes(entry.getValue().getAttributes()))
+                                        .build())
+                                .toList())
+                        .build();
+
+                PublishBatchResponse response = snsClient.publishBatch(request);
+                response.failed().forEach(entry -> {
+                    log.warn("Failed to publish SNS batch entry {}: {}", entry.id(), entry.message());
+                    failed.add(entry.id());
+                });
+                log.info("Published {} SNS messages in one batch", response.successful().size());
+
+            } catch (Exception e) {
+                log.error("Failed to publish SNS batch of {} messages", chunk.size(), e);
+                chunk.forEach(entry -> failed.add(entry.getKey()));
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Publishes a message to the SNS topic.
+     *
+     * @param notification the subject, body and message attributes for filtering
+     */
+    private void publishMessage(NotificationMessage notification) {
+        String subject = notification.getSubject();
         try {
             ensureTopicExists();
 
-            // Convert string attributes to SNS message attributes
-            Map<String, MessageAttributeValue> messageAttributes = attributes.entrySet().stream()
-                    .collect(java.util.stream.Collectors.toMap(
-                            Map.Entry::getKey,
-                            entry -> MessageAttributeValue.builder()
-                                    .stringValue(entry.getValue())
-                                    .dataType("String")
-                                    .build()));
-
             PublishRequest publishRequest = PublishRequest.builder()
                     .topicArn(getActualTopicArn())
                     .subject(subject)
-                    .message(message)
-                    .messageAttributes(messageAttributes)
+                    .message(notification.getMessage())
+                    .messageAttributes(toMessageAttributes(notification.getAttributes()))
                     .build();
 
             PublishResponse response = snsClient.publish(publishRequest);
@@ -125,6 +199,22 @@ public class SNSService {
         }
     }
 
+    /**
+     * Converts string attributes to SNS message attributes.
+     *
+     * @param attributes attribute names and values
+     * @return SNS message attributes
+     */
+    private Map<String, MessageAttributeValue> toMessageAttributes(Map<String, String> attributes) {
+        return attributes.entrySet().stream()
+                .collect(Collectors.toMap(
+                        Map.Entry::getKey,
+                        entry -> MessageAttributeValue.builder()
+                                .stringValue(entry.getValue())
+                                .dataType("String")
+                                .build()));
+    }
+
     /**
      * Gets the actual topic ARN, ensuring the topic exists.
      *
@@ -1,16 +1,32 @@
 package com.springmart.service;
 
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
 import software.amazon.awssdk.services.sqs.SqsClient;
 import software.amazon.awssdk.services.sqs.model.*;
 
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 /**
  * Service for managing SQS operations.
  * Handles sending and receiving messages from SQS queues for asynchronous
  * processing.
+ *
+ * <p>The queues and the redrive policy are set up once, at startup (or on the first send if SQS was
+ * unreachable then). Order messages go through a {@link SqsBatchProducer} on the async client, which
+ * coalesces concurrent sends into SendMessageBatch calls of up to 10 and retries partial failures.
  */
 @Service
 @RequiredArgsConstructor
@@ -18,6 +34,7 @@ import software.amazon.awssdk.services.sqs.model.*;
 public class SQSService {
 
     private final SqsClient sqsClient;
+    private final SqsAsyncClient sqsAsyncClient;
 
     @Value("${app.aws.sqs.order-queue-name}")
     private String orderQueueName;
@@ -25,8 +42,43 @@ public class SQSService {
     @Value("${app.aws.sqs.order-dlq-name}")
     private String orderDlqName;
 
+    @Value("${app.aws.sqs.producer.buffer-size:10000}")
+    private int bufferSize;
+
+    @Value("${app.aws.sqs.producer.linger-ms:5}")
+    private long lingerMillis;
+
+    @Value("${app.aws.sqs.producer.max-in-flight:8}")
+    private int maxInFlight;
+
+    @Value("${app.aws.sqs.producer.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.aws.sqs.producer.offer-timeout-ms:1000}")
+    private long offerTimeoutMillis;
+
     private String orderQueueUrl;
     private String orderDlqUrl;
+    private volatile SqsBatchProducer orderProducer;
+
+    /**
+     * Creates the queues and configures the redrive policy once, before traffic arrives.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        try {
+            ensureQueueExists();
+        } catch (Exception e) {
+            log.warn("SQS bootstrap failed, retrying on first send: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (orderProducer != null) {
+            orderProducer.close(5000);
+        }
+    }
 
     /**
      * Sends an order message to the SQS queue.
@@ -36,26 +88,9 @@ public class SQSService {
      */
     public String sendOrderMessage(Long orderId) {
         try {
-            ensureQueueExists();
-
-            SendMessageRequest sendMessageRequest = SendMessageRequest.builder()
-                    .queueUrl(getOrderQueueUrl())
-                    .messageBody(orderId.toString())
-                    .messageAttributes(java.util.Map.of(
-                            "OrderId", MessageAttributeValue.builder()
-                                    .stringValue(orderId.toString())
-                                    .dataType("String")
-                                    .build(),
-                            "Timestamp", MessageAttributeValue.builder()
-                                    .stringValue(String.valueOf(System.currentTimeMillis()))
-                                    .dataType("Number")
-                                    .build()))
-                    .build();
-
-            SendMessageResponse response = sqsClient.sendMessage(sendMessageRequest);
-            log.info("Sent order #{} to SQS queue. Message ID: {}", orderId, response.messageId());
-
-            return response.messageId();
+            String messageId = sendOrderMessageAsync(orderId).join();
+            log.info("Sent order #{} to SQS queue. Message ID: {}", orderId, messageId);
+            return messageId;
 
         } catch (Exception e) {
             log.error("Failed to send order #{} to SQS", orderId, e);
@@ -63,6 +98,63 @@ public class SQSService {
         }
     }
 
+    /**
+     * Queues an order message for the next batch.
+     *
+     * @param orderId the ID of the order to process
+     * @return completes with the message ID once SQS has accepted it
+     */
+    public CompletableFuture<String> sendOrderMessageAsync(Long orderId) {
+        try {
+            return ensureQueueExists().send(orderId.toString(), orderMessageAttributes(orderId));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Sends order messages with SendMessageBatch, up to 10 per request.
+     *
+     * @param orderIds order IDs keyed by a caller entry ID
+     * @return entry IDs that could not be sent
+     */
+    public Set<String> sendOrderMessages(Map<String, Long> orderIds) {
+        Map<String, CompletableFuture<String>> results = new LinkedHashMap<>();
+        orderIds.forEach((entryId, orderId) -> results.put(entryId, sendOrderMessageAsync(orderId)));
+
+        Set<String> failed = new HashSet<>();
+        results.forEach((entryId, result) -> {
+            try {
+                result.join();
+            } catch (CompletionException | CancellationException e) {
+                log.warn("Failed to send SQS entry {}: {}", entryId, e.getMessage());
+                failed.add(entryId);
+            }
+        });
+        if (!orderIds.isEmpty()) {
+            log.info("Sent {} orders to SQS, {} failed", orderIds.size() - failed.size(), failed.size());
+        }
+        return failed;
+    }
+
+    /**
+     * Builds the message attributes sent with every order message.
+     *
+     * @param orderId the order ID
+     * @return message attributes
+     */
+    private Map<String, MessageAttributeValue> orderMessageAttributes(Long orderId) {
+        return Map.of(
+                "OrderId", MessageAttributeValue.builder()
+                        .stringValue(orderId.toString())
+                        .dataType("String")
+                        .build(),
+                "Timestamp", MessageAttributeValue.builder()
+                        .stringValue(String.valueOf(System.currentTimeMillis()))
+                        .dataType("Number")
+                        .build());
+    }
+
     /**
      * Gets the order queue URL, fetching it if not already cached.
      *
@@ -132,36 +224,54 @@ public class SQSService {
     }
 
     /**
-     * Ensures the main queue and DLQ exist.
-     * Creates them if they don't exist.
+     * Ensures the main queue and DLQ exist, creating them if they don't, and configures the redrive
+     * policy. Runs until it succeeds once; later calls return the producer straight away.
+     *
+     * @return the order queue producer
      */
-    private void ensureQueueExists() {
-        try {
+    private SqsBatchProducer ensureQueueExists() {
+        SqsBatchProducer producer = orderProducer;
+        if (producer != null) {
+            return producer;
+        }
+        synchronized (this) {
+            if (orderProducer != null) {
+                return orderProducer;
+            }
             // Create DLQ first
             getOrderDlqUrl();
 
             // Then create main queue with DLQ configuration
             String mainQueueUrl = getOrderQueueUrl();
-            String dlqArn = getQueueArn(getOrderDlqUrl());
-
-            // Configure redrive policy
-            String redrivePolicy = String.format(
-                    "{\"deadLetterTargetArn\":\"%s\",\"maxReceiveCount\":\"3\"}",
-                    dlqArn);
-
-            SetQueueAttributesRequest setAttributesRequest = SetQueueAttributesRequest.builder()
-                    .queueUrl(mainQueueUrl)
-                    .attributes(java.util.Map.of(
-                            QueueAttributeName.REDRIVE_POLICY, redrivePolicy,
-                            QueueAttributeName.VISIBILITY_TIMEOUT, "300" // 5 minutes
-                    ))
-                    .build();
+            try {
+                String dlqArn = getQueueArn(getOrderDlqUrl());
 
-            sqsClient.setQueueAttributes(setAttributesRequest);
-            log.info("Configured queue {} with DLQ", orderQueueName);
+                // Configure redrive policy
+                String redrivePolicy = String.format(
+                        "{\"deadLetterTargetArn\":\"%s\",\"maxReceiveCount\":\"3\"}",
+                        dlqArn);
 
-        } catch (Exception e) {
-            log.warn("Failed to configure queue attributes: {}", e.getMessage());
+                SetQueueAttributesRequest setAttributesRequest = SetQueueAttributesRequest.builder()
+                        .queueUrl(mainQueueUrl)
+                        .attributes(Map.of(
+                                QueueAttributeName.REDRIVE_POLICY, redrivePolicy,
+                                QueueAttributeName.VISIBILITY_TIMEOUT, "300" // 5 minutes
+                        ))
+                        .build();
+
+                sqsClient.setQueueAttributes(setAttributesRequest);
+                log.info("Configured queue {} with DLQ", orderQueueName);
+
+            } catch (Exception e) {
+                // No producer until the queue has its DLQ: messages sent before that could never be
+                // dead-lettered. The next send tries again.
+                log.warn("Failed to configure queue attributes: {}", e.getMessage());
+                throw new RuntimeException("Failed to configure SQS queue " + orderQueueName, e);
+            }
+
+            orderProducer = new SqsBatchProducer(sqsAsyncClient, mainQueueUrl, bufferSize, lingerMillis,
+                    maxInFlight, maxAttempts, offerTimeoutMillis);
+            return orderProducer;
         }
     }
 
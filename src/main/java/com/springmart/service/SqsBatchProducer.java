@@ -0,0 +1,236 @@
+package com.springmart.service;
+
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro-batching producer for one queue. Messages are buffered and coalesced into SendMessageBatch
+ * calls of up to 10 entries (and 256 KiB) on the async client: a batch is sent as soon as it is
+ * full, or {@code lingerMillis} after its first message.
+ *
+ * <p>Backpressure comes from two bounds: the buffer, where {@link #send} waits up to
+ * {@code offerTimeoutMillis} for room before rejecting, and the number of batches in flight, past
+ * which the flusher stops draining the buffer. Entries that fail on the service side (throttling,
+ * internal errors) or whose whole request fails are retried with exponential backoff up to
+ * {@code maxAttempts}; entries SQS rejects as the sender's fault fail right away.
+ */
+@Slf4j
+final class SqsBatchProducer {
+
+    // SendMessageBatch limits: 10 entries and 256 KiB of bodies plus attributes per request
+    private static final int MAX_BATCH_ENTRIES = 10;
+    private static final int MAX_BATCH_BYTES = 256 * 1024;
+    private static final long MAX_BACKOFF_MILLIS = 5000;
+
+    private static final class Pending implements Delayed {
+        private final String body;
+        private final Map<String, MessageAttributeValue> attributes;
+        private final int bytes;
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+        private int attempts;
+        private long retryAt;
+
+        private Pending(String body, Map<String, MessageAttributeValue> attributes) {
+            this.body = body;
+            this.attributes = attributes;
+            int size = body.getBytes(StandardCharsets.UTF_8).length;
+            for (Map.Entry<String, MessageAttributeValue> attribute : attributes.entrySet()) {
+                size += attribute.getKey().length() + attribute.getValue().dataType().length();
+                if (attribute.getValue().stringValue() != null) {
+                    size += attribute.getValue().stringValue().getBytes(StandardCharsets.UTF_8).length;
+                }
+            }
+            this.bytes = size;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(retryAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+
+    private final SqsAsyncClient client;
+    private final String queueUrl;
+    private final long lingerNanos;
+    private final long offerTimeoutMillis;
+    private final int maxAttempts;
+    private final BlockingQueue<Pending> buffer;
+    // Entries waiting out their backoff; poll() only hands out those that are due
+    private final DelayQueue<Pending> retries = new DelayQueue<>();
+    private final Semaphore inFlight;
+    private final Thread flusher;
+
+    private volatile boolean running = true;
+
+    SqsBatchProducer(SqsAsyncClient client, String queueUrl, int bufferSize, long lingerMillis, int maxInFlight,
+                     int maxAttempts, long offerTimeoutMillis) {
+        this.client = client;
+        this.queueUrl = queueUrl;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.maxAttempts = maxAttempts;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.inFlight = new Semaphore(maxInFlight);
+        this.flusher = new Thread(this::run, "sqs-batch-producer");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Queues a message; completes with its SQS message ID, or exceptionally once it has failed for
+     * good or the buffer stayed full for {@code offerTimeoutMillis}.
+     */
+    CompletableFuture<String> send(String body, Map<String, MessageAttributeValue> attributes) {
+        Pending pending = new Pending(body, attributes);
+        try {
+            if (!running) {
+                pending.result.completeExceptionally(new RejectedExecutionException("SQS producer is closed"));
+            } else if (!buffer.offer(pending, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                pending.result.completeExceptionally(new RejectedExecutionException("SQS producer buffer is full"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.result.completeExceptionally(e);
+        }
+        return pending.result;
+    }
+
+    /**
+     * Stops accepting messages, sends what is buffered (waiting up to {@code timeoutMillis}) and
+     * fails anything left.
+     */
+    void close(long timeoutMillis) {
+        running = false;
+        try {
+            flusher.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flusher.interrupt();
+        RejectedExecutionException closed = new RejectedExecutionException("SQS producer is closed");
+        buffer.forEach(pending -> pending.result.completeExceptionally(closed));
+        retries.forEach(pending -> pending.result.completeExceptionally(closed));
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(MAX_BATCH_ENTRIES);
+        Pending carried = null;
+        while (running || carried != null || !buffer.isEmpty() || !retries.isEmpty()) {
+            try {
+                Pending first = carried != null ? carried : retries.poll();
+                carried = null;
+                if (first == null) {
+                    first = buffer.poll(100, TimeUnit.MILLISECONDS);
+                }
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                int bytes = first.bytes;
+                long lingerUntil = System.nanoTime() + lingerNanos;
+                while (batch.size() < MAX_BATCH_ENTRIES) {
+                    Pending next = retries.poll();
+                    if (next == null) {
+                        long wait = lingerUntil - System.nanoTime();
+                        next = wait > 0 ? buffer.poll(wait, TimeUnit.NANOSECONDS) : buffer.poll();
+                    }
+                    if (next == null) {
+                        break;
+                    }
+                    if (bytes + next.bytes > MAX_BATCH_BYTES) {
+                        carried = next;
+                        break;
+                    }
+                    batch.add(next);
+                    bytes += next.bytes;
+                }
+                // Blocks once max-in-flight batches are outstanding; the buffer then fills and send() waits
+                inFlight.acquire();
+                dispatch(new ArrayList<>(batch));
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(pending -> pending.result.completeExceptionally(e));
+                if (carried != null) {
+                    carried.result.completeExceptionally(e);
+                }
+                return;
+            }
+        }
+    }
+
+    private void dispatch(List<Pending> batch) {
+        List<SendMessageBatchRequestEntry> entries = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            entries.add(SendMessageBatchRequestEntry.builder()
+                    .id(Integer.toString(i))
+                    .messageBody(batch.get(i).body)
+                    .messageAttributes(batch.get(i).attributes)
+                    .build());
+        }
+        try {
+            client.sendMessageBatch(request -> request.queueUrl(queueUrl).entries(entries))
+                    .whenComplete((response, error) -> {
+                        inFlight.release();
+                        if (error != null) {
+                            log.warn("SQS batch of {} messages failed: {}", batch.size(), error.getMessage());
+                            batch.forEach(pending -> retryOrFail(pending, error.getMessage()));
+                        } else {
+                            complete(batch, response);
+                        }
+                    });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            batch.forEach(pending -> retryOrFail(pending, e.getMessage()));
+        }
+    }
+
+    private void complete(List<Pending> batch, SendMessageBatchResponse response) {
+        response.successful().forEach(entry ->
+                batch.get(Integer.parseInt(entry.id())).result.complete(entry.messageId()));
+        response.failed().forEach(entry -> {
+            Pending pending = batch.get(Integer.parseInt(entry.id()));
+            String reason = entry.code() + ": " + entry.message();
+            if (Boolean.TRUE.equals(entry.senderFault())) {
+                log.warn("SQS rejected message: {}", reason);
+                pending.result.completeExceptionally(new IllegalStateException("SQS rejected message: " + reason));
+            } else {
+                retryOrFail(pending, reason);
+            }
+        });
+        log.debug("Sent SQS batch: {} sent, {} failed", response.successful().size(), response.failed().size());
+    }
+
+    private void retryOrFail(Pending pending, String reason) {
+        pending.attempts++;
+        if (pending.attempts >= maxAttempts || !flusher.isAlive()) {
+            pending.result.completeExceptionally(new IllegalStateException(
+                    "SQS send failed after " + pending.attempts + " attempts: " + reason));
+            return;
+        }
+        long backoff = Math.min(100L << (pending.attempts - 1), MAX_BACKOFF_MILLIS);
+        pending.retryAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff);
+        retries.add(pending);
+    }
+}
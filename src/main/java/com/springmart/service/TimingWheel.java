@@ -0,0 +1,128 @@
+package com.springmart.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Hierarchical timing wheel: level 0 has {@code slots} buckets of one tick each, and every level above
+ * spans {@code slots} times the one below. An item goes into the lowest level whose span covers its
+ * delay; when a lower level wraps, the matching bucket of the level above is cascaded down. Scheduling
+ * is O(1), and advancing costs one bucket per tick plus the items that fall due, however many are
+ * waiting. Items further out than the top level wait in an overflow queue until they come in range.
+ *
+ * <p>Not thread-safe; callers synchronize.
+ */
+final class TimingWheel<T> {
+
+    private static final class Entry<T> {
+        private final T item;
+        private final long tick;
+
+        private Entry(T item, long tick) {
+            this.item = item;
+            this.tick = tick;
+        }
+    }
+
+    private final long tickMillis;
+    private final int bits;
+    private final int mask;
+    private final int levels;
+    private final long span;
+    private final ArrayDeque<Entry<T>>[][] buckets;
+    private final PriorityQueue<Entry<T>> overflow = new PriorityQueue<>(Comparator.comparingLong(e -> e.tick));
+    private final List<T> ready = new ArrayList<>();
+
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param slots buckets per level, rounded up to a power of two
+     */
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMillis, int slots, int levels, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.bits = 32 - Integer.numberOfLeadingZeros(Math.max(slots, 2) - 1);
+        this.mask = (1 << bits) - 1;
+        this.levels = levels;
+        this.span = 1L << Math.min(bits * levels, 62);
+        this.buckets = new ArrayDeque[levels][mask + 1];
+        for (int level = 0; level < levels; level++) {
+            for (int slot = 0; slot <= mask; slot++) {
+                buckets[level][slot] = new ArrayDeque<>();
+            }
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    void schedule(T item, long dueMillis) {
+        // Round up so an item never fires before it is due
+        long tick = Math.floorDiv(dueMillis + tickMillis - 1, tickMillis);
+        place(new Entry<>(item, tick));
+        size++;
+    }
+
+    /**
+     * Moves the wheel up to {@code nowMillis} and returns the items that fell due, in due order.
+     */
+    List<T> advance(long nowMillis) {
+        long target = nowMillis / tickMillis;
+        while (currentTick < target) {
+            currentTick++;
+            cascade();
+            ArrayDeque<Entry<T>> bucket = buckets[0][(int) (currentTick & mask)];
+            for (Entry<T> entry : bucket) {
+                ready.add(entry.item);
+            }
+            bucket.clear();
+            while (!overflow.isEmpty() && overflow.peek().tick - currentTick < span) {
+                place(overflow.poll());
+            }
+        }
+        List<T> due = new ArrayList<>(ready);
+        ready.clear();
+        size -= due.size();
+        return due;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void place(Entry<T> entry) {
+        long delay = entry.tick - currentTick;
+        if (delay <= 0) {
+            ready.add(entry.item);
+            return;
+        }
+        for (int level = 0; level < levels; level++) {
+            long reach = level == levels - 1 ? span : 1L << (bits * (level + 1));
+            if (delay < reach) {
+                int slot = (int) ((entry.tick >>> (bits * level)) & mask);
+                buckets[level][slot].add(entry);
+                return;
+            }
+        }
+        overflow.add(entry);
+    }
+
+    /**
+     * When a level wraps, re-places the bucket of the level above that has just come into range;
+     * upper levels go first so their items can land in the bucket being cascaded below.
+     */
+    private void cascade() {
+        int wrapped = 0;
+        while (wrapped < levels - 1 && (currentTick & ((1L << (bits * (wrapped + 1))) - 1)) == 0) {
+            wrapped++;
+        }
+        for (int level = wrapped; level >= 1; level--) {
+            ArrayDeque<Entry<T>> bucket = buckets[level][(int) ((currentTick >>> (bits * level)) & mask)];
+            List<Entry<T>> entries = new ArrayList<>(bucket);
+            bucket.clear();
+            entries.forEach(this::place);
+        }
+    }
+}
@@ -107,7 +107,7 @@ public class WishlistService {
                 .primaryImageUrl(product.getPrimaryImageUrl())
                 .isFeatured(product.getIsFeatured())
                 .averageRating(product.getAverageRating())
-                .reviewCount(product.getReviews() != null ? product.getReviews().size() : 0)
+                .reviewCount(product.getReviewCount())
                 .build();
     }
 }
@@ -0,0 +1,39 @@
+-- V13: Persisted product rating aggregates
+-- Maintained incrementally by ReviewService and repaired nightly by ProductRatingScheduler.
+
+ALTER TABLE products ADD COLUMN rating_sum BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN rating_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN rating_1_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN rating_2_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN rating_3_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN rating_4_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN rating_5_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN average_rating DOUBLE PRECISION NOT NULL DEFAULT 0;
+
+-- Backfill from existing reviews
+UPDATE products p SET
+    rating_sum = r.rating_sum,
+    rating_count = r.rating_count,
+    rating_1_count = r.rating_1_count,
+    rating_2_count = r.rating_2_count,
+    rating_3_count = r.rating_3_count,
+    rating_4_count = r.rating_4_count,
+    rating_5_count = r.rating_5_count,
+    average_rating = CAST(r.rating_sum AS DOUBLE PRECISION) / r.rating_count
+FROM (
+    SELECT product_id,
+           SUM(rating) AS rating_sum,
+           COUNT(*) AS rating_count,
+           COUNT(*) FILTER (WHERE rating = 1) AS rating_1_count,
+           COUNT(*) FILTER (WHERE rating = 2) AS rating_2_count,
+           COUNT(*) FILTER (WHERE rating = 3) AS rating_3_count,
+           COUNT(*) FILTER (WHERE rating = 4) AS rating_4_count,
+           COUNT(*) FILTER (WHERE rating = 5) AS rating_5_count
+    FROM reviews
+    GROUP BY product_id
+) r
+WHERE p.id = r.product_id;
+
+-- Top-rated listings and rating sort/filter read these instead of aggregating reviews
+CREATE INDEX idx_products_active_rating ON products(is_active, average_rating DESC, rating_count DESC);
+CREATE INDEX idx_products_category_rating ON products(category_id, average_rating DESC, rating_count DESC);
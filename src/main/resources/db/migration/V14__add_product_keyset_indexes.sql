@@ -0,0 +1,6 @@
+-- V14: Indexes backing keyset (seek) pagination of active products
+-- Each matches the ORDER BY used in ProductRepositoryCustomImpl#applyKeysetSorting, id as tie-breaker.
+
+CREATE INDEX idx_products_active_created_id ON products(is_active, created_at DESC, id DESC);
+CREATE INDEX idx_products_active_price_id ON products(is_active, price, id);
+CREATE INDEX idx_products_active_name_id ON products(is_active, name, id);
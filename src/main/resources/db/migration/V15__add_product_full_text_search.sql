@@ -0,0 +1,16 @@
+-- V15: Full-text and trigram search for products
+-- Replaces LOWER(name/description) LIKE '%kw%' sequential scans with indexed lookups.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Weighted document: name matches rank above description matches
+ALTER TABLE products ADD COLUMN search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(description, '')), 'B')
+    ) STORED;
+
+CREATE INDEX idx_products_search_vector ON products USING GIN (search_vector);
+
+-- Substring and fuzzy (typo-tolerant) matching on product names
+CREATE INDEX idx_products_name_trgm ON products USING GIN (lower(name) gin_trgm_ops);
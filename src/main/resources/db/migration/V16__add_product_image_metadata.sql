@@ -0,0 +1,19 @@
+-- V16: Denormalised image metadata on products
+-- Listing, cart, wishlist and order views only need the primary image, which used to mean loading
+-- each product's product_images rows. Product.addImage/removeImage keep these columns current.
+
+ALTER TABLE products ADD COLUMN primary_image_url VARCHAR(500);
+ALTER TABLE products ADD COLUMN image_count INTEGER NOT NULL DEFAULT 0;
+
+-- Primary image, else the first by display order (same rule as Product.refreshImageMetadata)
+UPDATE products p
+SET image_count = i.image_count,
+    primary_image_url = i.primary_image_url
+FROM (
+    SELECT product_id,
+           COUNT(*) AS image_count,
+           (ARRAY_AGG(image_url ORDER BY is_primary DESC, display_order, id))[1] AS primary_image_url
+    FROM product_images
+    GROUP BY product_id
+) i
+WHERE i.product_id = p.id;
@@ -0,0 +1,19 @@
+-- V17: Transactional outbox for order side effects
+-- Rows are written in the order's transaction and relayed to SQS, SNS and CloudWatch in batches by
+-- OutboxRelay. One row per destination, so a failing destination is retried on its own.
+
+CREATE TABLE outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    destination VARCHAR(20) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    payload TEXT NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    last_error VARCHAR(1000),
+    available_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMP
+);
+
+-- The relay only ever scans unprocessed rows that are due
+CREATE INDEX idx_outbox_events_pending ON outbox_events(available_at, id) WHERE processed_at IS NULL;
+CREATE INDEX idx_outbox_events_processed ON outbox_events(processed_at) WHERE processed_at IS NOT NULL;
@@ -0,0 +1,7 @@
+-- V18: Index for the order lifecycle scheduler
+-- OrderStatusScheduler moves orders in chunks of "status = ? AND created_at < ? ORDER BY created_at",
+-- which this index answers without scanning every order in the status.
+CREATE INDEX idx_orders_status_created ON orders(status, created_at);
+
+-- Covered by the leading column of the new index
+DROP INDEX IF EXISTS idx_orders_status;
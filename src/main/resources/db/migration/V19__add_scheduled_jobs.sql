@@ -0,0 +1,18 @@
+-- V19: Registry of cluster-wide scheduled jobs
+-- One row per job and shard, updated by ClusterJobRunner after every run. Runs themselves are
+-- serialized across nodes with pg_try_advisory_lock(hashtext(job_name), shard), not with this table.
+
+CREATE TABLE scheduled_jobs (
+    id BIGSERIAL PRIMARY KEY,
+    job_name VARCHAR(100) NOT NULL,
+    shard INTEGER NOT NULL,
+    last_node VARCHAR(255),
+    last_started_at TIMESTAMP,
+    last_finished_at TIMESTAMP,
+    last_duration_ms BIGINT,
+    last_rows_affected INTEGER,
+    last_error VARCHAR(1000),
+    run_count BIGINT NOT NULL DEFAULT 0,
+    total_rows BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uq_scheduled_jobs_name_shard UNIQUE (job_name, shard)
+);
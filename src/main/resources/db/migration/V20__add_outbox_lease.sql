@@ -0,0 +1,6 @@
+-- V20: Leases for outbox events
+-- OutboxRelay claims events by setting leased_until in a short transaction and delivers them after it
+-- commits, so no row lock or connection is held while SQS, SNS or CloudWatch is called. Another relay
+-- skips leased rows until the lease runs out, e.g. because the node holding it died mid-batch.
+
+ALTER TABLE outbox_events ADD COLUMN leased_until TIMESTAMP;
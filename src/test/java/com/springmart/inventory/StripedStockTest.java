@@ -0,0 +1,126 @@
+package com.springmart.inventory;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedStockTest {
+
+    @Test
+    void takesAcrossStripesAndRefusesBeyondTheTotal() {
+        StripedStock stock = new StripedStock(4, 10);
+
+        assertThat(stock.tryTake(7)).isTrue();
+        assertThat(stock.tryTake(4)).isFalse();
+        assertThat(stock.available()).isEqualTo(3);
+        assertThat(stock.tryTake(3)).isTrue();
+        assertThat(stock.available()).isZero();
+    }
+
+    @Test
+    void forcedTakeDrainsEveryStripeBeforeAnythingIsSoldAgain() {
+        StripedStock stock = new StripedStock(2, 5);
+
+        // An expired reservation confirmed after its stock went back
+        stock.add(-5);
+
+        assertThat(stock.available()).isZero();
+        assertThat(stock.tryTake(5)).isFalse();
+        assertThat(stock.tryTake(1)).isFalse();
+    }
+
+    @Test
+    void stockReturnedWhileInDebtRepaysTheDebtFirst() {
+        StripedStock stock = new StripedStock(2, 5);
+        assertThat(stock.tryTake(5)).isTrue();
+
+        stock.add(-5);
+        assertThat(stock.available()).isEqualTo(-5);
+
+        // A release or restock that lands on either stripe
+        stock.add(3);
+        assertThat(stock.available()).isEqualTo(-2);
+        assertThat(stock.tryTake(1)).isFalse();
+
+        stock.add(4);
+        assertThat(stock.available()).isEqualTo(2);
+        assertThat(stock.tryTake(3)).isFalse();
+        assertThat(stock.tryTake(2)).isTrue();
+        assertThat(stock.available()).isZero();
+    }
+
+    @Test
+    void resetToANegativeTotalKeepsTheShortfall() {
+        StripedStock stock = new StripedStock(4, 10);
+
+        stock.reset(-3);
+
+        assertThat(stock.available()).isEqualTo(-3);
+        assertThat(stock.tryTake(1)).isFalse();
+        stock.add(5);
+        assertThat(stock.available()).isEqualTo(2);
+        assertThat(stock.tryTake(2)).isTrue();
+    }
+
+    @RepeatedTest(5)
+    void concurrentTakesReturnsAndForcedTakesConserveStock() throws Exception {
+        int initial = 500;
+        StripedStock stock = new StripedStock(8, initial);
+        AtomicInteger taken = new AtomicInteger();
+        AtomicInteger returned = new AtomicInteger();
+        AtomicInteger forced = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int worker = 0; worker < 8; worker++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 5_000; i++) {
+                        int quantity = random.nextInt(1, 4);
+                        int operation = random.nextInt(10);
+                        if (operation < 6) {
+                            if (stock.tryTake(quantity)) {
+                                taken.addAndGet(quantity);
+                            }
+                        } else if (operation < 9) {
+                            stock.add(quantity);
+                            returned.addAndGet(quantity);
+                        } else {
+                            stock.add(-quantity);
+                            forced.addAndGet(quantity);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int expected = initial - taken.get() + returned.get() - forced.get();
+        assertThat(stock.available()).isEqualTo(expected);
+        // Whatever is left must be exactly what can still be sold, and nothing more
+        int sellable = 0;
+        while (stock.tryTake(1)) {
+            sellable++;
+        }
+        assertThat(sellable).isEqualTo(Math.max(expected, 0));
+    }
+}
@@ -0,0 +1,181 @@
+package com.springmart.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResultEntry;
+import software.amazon.awssdk.services.sqs.model.SqsException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SqsBatchProducerTest {
+
+    private static final String QUEUE_URL = "https://sqs.test/orders";
+
+    private SqsBatchProducer producer;
+
+    @AfterEach
+    void close() {
+        if (producer != null) {
+            producer.close(1000);
+        }
+    }
+
+    @Test
+    void coalescesConcurrentSendsIntoBatchesOfTen() throws Exception {
+        FakeSqsAsyncClient client = new FakeSqsAsyncClient(FakeSqsAsyncClient::acceptAll);
+        producer = new SqsBatchProducer(client, QUEUE_URL, 100, 200, 4, 3, 1000);
+
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            results.add(producer.send("order-" + i, Map.of()));
+        }
+        for (int i = 0; i < 25; i++) {
+            assertThat(results.get(i).get(5, TimeUnit.SECONDS)).isEqualTo("id-order-" + i);
+        }
+
+        assertThat(client.requests).hasSize(3);
+        assertThat(client.requests).allSatisfy(request -> {
+            assertThat(request.queueUrl()).isEqualTo(QUEUE_URL);
+            assertThat(request.entries()).hasSizeLessThanOrEqualTo(10);
+        });
+        assertThat(client.requests.stream().mapToInt(request -> request.entries().size()).sum()).isEqualTo(25);
+    }
+
+    @Test
+    void sendsPartialBatchOnceTheLingerRunsOut() throws Exception {
+        FakeSqsAsyncClient client = new FakeSqsAsyncClient(FakeSqsAsyncClient::acceptAll);
+        producer = new SqsBatchProducer(client, QUEUE_URL, 100, 20, 4, 3, 1000);
+
+        assertThat(producer.send("lonely", Map.of()).get(5, TimeUnit.SECONDS)).isEqualTo("id-lonely");
+        assertThat(client.requests).hasSize(1);
+        assertThat(client.requests.get(0).entries()).hasSize(1);
+    }
+
+    @Test
+    void retriesEntriesFailedOnTheServiceSide() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        FakeSqsAsyncClient client = new FakeSqsAsyncClient(request -> calls.incrementAndGet() == 1
+                ? FakeSqsAsyncClient.failFirst(request, false)
+                : FakeSqsAsyncClient.acceptAll(request));
+        producer = new SqsBatchProducer(client, QUEUE_URL, 100, 5, 4, 3, 1000);
+
+        CompletableFuture<String> flaky = producer.send("flaky", Map.of());
+
+        assertThat(flaky.get(5, TimeUnit.SECONDS)).isEqualTo("id-flaky");
+        assertThat(client.requests).hasSize(2);
+    }
+
+    @Test
+    void failsSenderFaultsWithoutRetrying() {
+        FakeSqsAsyncClient client = new FakeSqsAsyncClient(request -> FakeSqsAsyncClient.failFirst(request, true));
+        producer = new SqsBatchProducer(client, QUEUE_URL, 100, 5, 4, 3, 1000);
+
+        CompletableFuture<String> rejected = producer.send("malformed", Map.of());
+
+        assertThatThrownBy(() -> rejected.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("InvalidParameterValue");
+        assertThat(client.requests).hasSize(1);
+    }
+
+    @Test
+    void givesUpAfterMaxAttemptsWhenTheRequestKeepsFailing() {
+        FakeSqsAsyncClient client = new FakeSqsAsyncClient(request -> CompletableFuture.failedFuture(
+                SqsException.builder().message("service unavailable").build()));
+        producer = new SqsBatchProducer(client, QUEUE_URL, 100, 5, 4, 3, 1000);
+
+        CompletableFuture<String> result = producer.send("doomed", Map.of());
+
+        assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasMessageContaining("after 3 attempts");
+        assertThat(client.requests).hasSize(3);
+    }
+
+    @Test
+    void rejectsSendsAfterClose() {
+        producer = new SqsBatchProducer(new FakeSqsAsyncClient(FakeSqsAsyncClient::acceptAll),
+                QUEUE_URL, 100, 5, 4, 3, 1000);
+        producer.close(1000);
+
+        assertThatThrownBy(() -> producer.send("late", Map.of()).get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+    }
+
+    /**
+     * In-memory SqsAsyncClient: records every SendMessageBatch request and answers it with the
+     * scripted response. Every other operation is left unsupported.
+     */
+    private static final class FakeSqsAsyncClient implements SqsAsyncClient {
+
+        private final List<SendMessageBatchRequest> requests = new CopyOnWriteArrayList<>();
+        private final Function<SendMessageBatchRequest, CompletableFuture<SendMessageBatchResponse>> responder;
+
+        private FakeSqsAsyncClient(
+                Function<SendMessageBatchRequest, CompletableFuture<SendMessageBatchResponse>> responder) {
+            this.responder = responder;
+        }
+
+        @Override
+        public CompletableFuture<SendMessageBatchResponse> sendMessageBatch(SendMessageBatchRequest request) {
+            requests.add(request);
+            return responder.apply(request);
+        }
+
+        @Override
+        public String serviceName() {
+            return SERVICE_NAME;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private static CompletableFuture<SendMessageBatchResponse> acceptAll(SendMessageBatchRequest request) {
+            return CompletableFuture.completedFuture(SendMessageBatchResponse.builder()
+                    .successful(request.entries().stream().map(FakeSqsAsyncClient::accepted).toList())
+                    .failed(List.of())
+                    .build());
+        }
+
+        // Fails the request's first entry and accepts the rest
+        private static CompletableFuture<SendMessageBatchResponse> failFirst(SendMessageBatchRequest request,
+                                                                            boolean senderFault) {
+            SendMessageBatchRequestEntry first = request.entries().get(0);
+            return CompletableFuture.completedFuture(SendMessageBatchResponse.builder()
+                    .successful(request.entries().stream().skip(1).map(FakeSqsAsyncClient::accepted).toList())
+                    .failed(BatchResultErrorEntry.builder()
+                            .id(first.id())
+                            .code(senderFault ? "InvalidParameterValue" : "InternalError")
+                            .message(senderFault ? "bad message" : "try again")
+                            .senderFault(senderFault)
+                            .build())
+                    .build());
+        }
+
+        private static SendMessageBatchResultEntry accepted(SendMessageBatchRequestEntry entry) {
+            return SendMessageBatchResultEntry.builder()
+                    .id(entry.id())
+                    .messageId("id-" + entry.messageBody())
+                    .build();
+        }
+    }
+}